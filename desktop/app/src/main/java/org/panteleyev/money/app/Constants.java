@@ -1,5 +1,5 @@
 /*
- Copyright © 2020-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2020-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.app;
@@ -24,6 +24,10 @@ public final class Constants {
             new FileChooser.ExtensionFilter("Выписки", "*.ofx", "*.html", "*.htm", "*.csv");
     public static final FileChooser.ExtensionFilter FILTER_XML_FILES =
             new FileChooser.ExtensionFilter("Файлы XML", "*.xml");
+    public static final FileChooser.ExtensionFilter FILTER_BINARY_DUMP_FILES =
+            new FileChooser.ExtensionFilter("Двоичные дампы", "*.mnyb");
+    public static final FileChooser.ExtensionFilter FILTER_ARCHIVE_DUMP_FILES =
+            new FileChooser.ExtensionFilter("Архивы дампов", "*.zip");
     public static final FileChooser.ExtensionFilter FILTER_HTML_FILES =
             new FileChooser.ExtensionFilter("Файлы HTML", "*.html");
     public static final FileChooser.ExtensionFilter FILTER_SBER_ONLINE_BROKER_DEALS =
@@ -20,8 +20,8 @@ import org.panteleyev.fx.BaseDialog;
 import org.panteleyev.fx.Controller;
 import org.panteleyev.money.MoneyApplication;
 import org.panteleyev.money.app.dialogs.ExportFileFialog;
-import org.panteleyev.money.desktop.export.Import;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -125,19 +125,8 @@ final class ImportWizard extends BaseDialog<Object> {
                     throw new RuntimeException("File not found");
                 }
 
-                progress.accept("Валидация... ");
-                try (var input = new FileInputStream(file)) {
-                    Import.validate(input);
-                } catch (IOException ex) {
-                    throw new UncheckedIOException(ex);
-                }
-                progress.accept("выполнено\n\n");
-
-                progress.accept("Чтение файла... ");
-                try (var input = new FileInputStream(file)) {
-                    var imp = Import.doImport(input);
-                    progress.accept("выполнено\n\n");
-                    dao().importFullDump(imp, progress);
+                try (var input = new BufferedInputStream(new FileInputStream(file))) {
+                    dao().importFullDump(input, progress);
                     progress.accept("\n");
                     dao().preload(Platform::runLater, progress);
                 } catch (IOException ex) {
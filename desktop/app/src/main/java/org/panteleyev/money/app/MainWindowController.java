@@ -39,7 +39,10 @@ import org.panteleyev.money.app.dialogs.ReportFileDialog;
 import org.panteleyev.money.app.icons.IconWindowController;
 import org.panteleyev.money.app.settings.SettingsDialog;
 import org.panteleyev.money.app.transaction.TransactionTableView;
+import org.panteleyev.money.desktop.export.ArchiveExport;
+import org.panteleyev.money.desktop.export.BinaryExport;
 import org.panteleyev.money.desktop.export.Export;
+import org.panteleyev.money.desktop.export.ImportExportEvent;
 import org.panteleyev.money.desktop.persistence.MoneyDAO;
 import org.panteleyev.money.model.Account;
 import org.panteleyev.money.model.Transaction;
@@ -63,6 +66,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import static javafx.scene.control.Alert.AlertType.ERROR;
@@ -354,8 +358,14 @@ public class MainWindowController extends BaseController implements TransactionT
                 try (var outputStream = new FileOutputStream(selected);
                      var bufferedOutputStream = new BufferedOutputStream(outputStream)
                 ) {
-                    new Export(cache()).doExport(bufferedOutputStream,
-                            event -> progressDialog.append(event.buildEventString()));
+                    Consumer<ImportExportEvent> progress = event -> progressDialog.append(event.buildEventString());
+                    if (selected.getName().endsWith(ExportFileFialog.ARCHIVE_DUMP_EXTENSION)) {
+                        new ArchiveExport(cache()).doExport(bufferedOutputStream, progress);
+                    } else if (selected.getName().endsWith(ExportFileFialog.BINARY_DUMP_EXTENSION)) {
+                        new BinaryExport(cache()).doExport(bufferedOutputStream, progress);
+                    } else {
+                        new Export(cache()).doExport(bufferedOutputStream, progress);
+                    }
                     settings().update(opt -> opt.setLastExportDir(selected.getParent()));
                 } catch (IOException ex) {
                     throw new UncheckedIOException(ex);
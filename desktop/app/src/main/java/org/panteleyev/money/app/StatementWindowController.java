@@ -35,6 +35,7 @@ import org.panteleyev.money.statements.RawStatementData;
 import org.panteleyev.money.statements.Statement;
 import org.panteleyev.money.statements.StatementParser;
 import org.panteleyev.money.statements.StatementPredicate;
+import org.panteleyev.money.statements.StatementReconciliation;
 import org.panteleyev.money.statements.StatementRecord;
 
 import java.io.FileOutputStream;
@@ -44,6 +45,8 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.panteleyev.fx.factories.BoxFactory.hBox;
 import static org.panteleyev.fx.factories.ButtonFactory.button;
@@ -72,9 +75,13 @@ public class StatementWindowController extends BaseController {
     @SuppressWarnings("FieldCanBeLocal")
     private final ListChangeListener<Account> accountListener = _ -> Platform.runLater(this::setupAccountComboBox);
     @SuppressWarnings("FieldCanBeLocal")
-    private final ListChangeListener<Transaction> transactionListener = _ -> calculateTransactions();
+    private final ListChangeListener<Transaction> transactionListener = this::onTransactionsChanged;
+
+    private final AtomicLong matchGeneration = new AtomicLong();
 
     private Statement statement = null;
+    // Accessed on the FX thread only
+    private StatementReconciliation reconciliation = null;
 
     StatementWindowController() {
         var root = new BorderPane();
@@ -216,7 +223,7 @@ public class StatementWindowController extends BaseController {
             setTitle(getTitle() + " - " + selected.getAbsolutePath());
             settings().update(opt -> opt.setLastStatementDir(selected.getParent()));
 
-            StatementParser.parse(new RawStatementData(selected), cache())
+            StatementParser.parse(selected, cache())
                     .ifPresent(this::analyzeStatement);
         });
     }
@@ -246,23 +253,76 @@ public class StatementWindowController extends BaseController {
     }
 
     private void calculateTransactions(Account account) {
+        reconciliation = null;
         if (statement == null || account == null) {
             return;
         }
 
-        for (var record : statement.records()) {
-            record.setTransactions(cache().getTransactions().stream()
-                    .filter(new StatementPredicate(account, record, ignoreExecutionDate.isSelected()))
-                    .toList());
-        }
+        var currentStatement = statement;
+        var records = List.copyOf(currentStatement.records());
+        var transactions = List.copyOf(cache().getTransactions());
+        var ignore = ignoreExecutionDate.isSelected();
+        var generation = matchGeneration.incrementAndGet();
+
+        CompletableFuture.supplyAsync(() -> new StatementReconciliation(account, ignore, records, transactions))
+                .thenAcceptAsync(result -> {
+                    // Results of the outdated run are discarded
+                    if (generation != matchGeneration.get() || currentStatement != statement) {
+                        return;
+                    }
+
+                    reconciliation = result;
+                    result.getMatches().forEach(StatementRecord::setTransactions);
+
+                    // TODO: sort via table comparator
+                    currentStatement.records().sort((o1, o2) -> o2.getActual().compareTo(o1.getActual()));
 
-        // TODO: sort via table comparator
-        statement.records().sort((o1, o2) -> o2.getActual().compareTo(o1.getActual()));
+                    var selected = statementTable.getSelectionModel().getSelectedItem();
+                    statementTable.getItems().setAll(currentStatement.records());
+                    if (currentStatement.records().contains(selected)) {
+                        statementTable.getSelectionModel().select(selected);
+                    }
+                }, Platform::runLater);
+    }
+
+    private void onTransactionsChanged(ListChangeListener.Change<? extends Transaction> change) {
+        var removed = new ArrayList<Transaction>();
+        var added = new ArrayList<Transaction>();
+        while (change.next()) {
+            if (change.wasRemoved()) {
+                removed.addAll(change.getRemoved());
+            }
+            if (change.wasAdded()) {
+                added.addAll(change.getAddedSubList());
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
+        }
 
         Platform.runLater(() -> {
-            var selected = statementTable.getSelectionModel().getSelectedItem();
-            statementTable.getItems().setAll(statement.records());
-            if (statement.records().contains(selected)) {
+            if (reconciliation == null) {
+                calculateTransactions();
+                return;
+            }
+
+            var changed = reconciliation.update(removed, added);
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            // Only rows of changed records are replaced, selection is kept
+            var selected = statementTable.getSelectionModel().getSelectedIndex();
+            var items = statementTable.getItems();
+            for (var i = 0; i < items.size(); i++) {
+                var record = items.get(i);
+                var transactions = changed.get(record);
+                if (transactions != null) {
+                    record.setTransactions(transactions);
+                    items.set(i, record);
+                }
+            }
+            if (selected >= 0) {
                 statementTable.getSelectionModel().select(selected);
             }
         });
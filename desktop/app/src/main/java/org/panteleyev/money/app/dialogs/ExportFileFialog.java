@@ -1,5 +1,5 @@
 /*
- Copyright © 2022-2024 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2022-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.app.dialogs;
@@ -11,16 +11,22 @@ import java.io.File;
 import java.util.Optional;
 
 import static org.panteleyev.money.MoneyApplication.generateFileName;
+import static org.panteleyev.money.app.Constants.FILTER_ARCHIVE_DUMP_FILES;
+import static org.panteleyev.money.app.Constants.FILTER_BINARY_DUMP_FILES;
 import static org.panteleyev.money.app.Constants.FILTER_XML_FILES;
 import static org.panteleyev.money.app.GlobalContext.settings;
 
 public class ExportFileFialog {
+    public static final String BINARY_DUMP_EXTENSION = ".mnyb";
+    public static final String ARCHIVE_DUMP_EXTENSION = ".zip";
+
     public Optional<File> showImportDialog(Window owner) {
         var fileChooser = new FileChooser();
         fileChooser.setTitle("Импорт");
 
         settings().getLastExportDir().ifPresent(fileChooser::setInitialDirectory);
-        fileChooser.getExtensionFilters().addAll(FILTER_XML_FILES);
+        fileChooser.getExtensionFilters().addAll(FILTER_XML_FILES, FILTER_BINARY_DUMP_FILES,
+                FILTER_ARCHIVE_DUMP_FILES);
 
         var selected = fileChooser.showOpenDialog(owner);
         return Optional.ofNullable(selected);
@@ -32,7 +38,8 @@ public class ExportFileFialog {
 
         settings().getLastExportDir().ifPresent(fileChooser::setInitialDirectory);
         fileChooser.setInitialFileName(generateFileName() + ".xml");
-        fileChooser.getExtensionFilters().addAll(FILTER_XML_FILES);
+        fileChooser.getExtensionFilters().addAll(FILTER_XML_FILES, FILTER_BINARY_DUMP_FILES,
+                FILTER_ARCHIVE_DUMP_FILES);
 
         var selected = fileChooser.showSaveDialog(owner);
         return Optional.ofNullable(selected);
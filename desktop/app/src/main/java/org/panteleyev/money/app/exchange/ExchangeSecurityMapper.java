@@ -0,0 +1,69 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.exchange;
+
+import org.panteleyev.moex.model.MoexMarketData;
+import org.panteleyev.moex.model.MoexSecurity;
+import org.panteleyev.money.model.ExchangeSecurity;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds exchange securities from Moscow Exchange data.
+ */
+final class ExchangeSecurityMapper {
+    private ExchangeSecurityMapper() {
+    }
+
+    /**
+     * Builds security from its description and market data.
+     *
+     * @param moexSecurity security description
+     * @param marketData   market data, market value is zero if empty
+     * @param uuid         uuid of the existing security, {@code null} for a new one
+     * @return security
+     */
+    static ExchangeSecurity toExchangeSecurity(
+            MoexSecurity moexSecurity,
+            Optional<MoexMarketData> marketData,
+            UUID uuid)
+    {
+        var marketValue = marketData.map(MoexMarketData::prevLegalClosePrice).orElse(null);
+        if (marketValue == null) {
+            marketValue = marketData.map(MoexMarketData::marketPrice).orElse(BigDecimal.ZERO);
+        }
+
+        var builder = new ExchangeSecurity.Builder()
+                .secId(moexSecurity.secId())
+                .name(moexSecurity.name())
+                .shortName(moexSecurity.shortName())
+                .isin(moexSecurity.isin())
+                .regNumber(moexSecurity.regNumber())
+                .faceValue(moexSecurity.faceValue())
+                .issueDate(moexSecurity.issueDate())
+                .matDate(moexSecurity.matDate())
+                .daysToRedemption(moexSecurity.daysToRedemption())
+                .group(moexSecurity.group())
+                .groupName(moexSecurity.groupName())
+                .type(moexSecurity.type())
+                .typeName(moexSecurity.typeName())
+                .marketValue(marketValue)
+                .couponValue(moexSecurity.couponValue())
+                .couponPercent(moexSecurity.couponPercent())
+                .couponDate(moexSecurity.couponDate())
+                .couponFrequency(moexSecurity.couponFrequency())
+                .accruedInterest(marketData
+                        .map(MoexMarketData::accruedInterest)
+                        .orElse(null))
+                .couponPeriod(marketData
+                        .map(MoexMarketData::couponPeriod)
+                        .orElse(null));
+
+        if (uuid != null) {
+            builder.uuid(uuid);
+        }
+        return builder.build();
+    }
+}
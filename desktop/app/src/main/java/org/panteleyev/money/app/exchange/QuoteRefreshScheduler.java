@@ -0,0 +1,228 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.exchange;
+
+import org.panteleyev.moex.Moex;
+import org.panteleyev.moex.model.MoexMarketData;
+import org.panteleyev.moex.model.MoexSecurity;
+import org.panteleyev.money.model.ExchangeSecurity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.panteleyev.money.app.exchange.ExchangeSecurityMapper.toExchangeSecurity;
+
+/**
+ * Refreshes quotes of exchange securities. Requests run on virtual threads, number of simultaneous requests is
+ * limited and request rate is limited by a token bucket. Results of one refresh are returned as a whole, so they can
+ * be stored with a single database update.
+ * <p>
+ * Descriptions of securities are required to find their primary boards, they are requested once and kept by the
+ * scheduler. Market data is requested per board.
+ */
+final class QuoteRefreshScheduler implements AutoCloseable {
+    static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+    static final int DEFAULT_BURST = 10;
+    static final double DEFAULT_REQUESTS_PER_SECOND = 5;
+
+    private record Board(String engine, String market, String board) {
+    }
+
+    private final Moex moex;
+    private final Semaphore permits;
+    private final TokenBucket rateLimit;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, MoexSecurity> moexSecurities = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> periodicRefresh;
+
+    QuoteRefreshScheduler(Moex moex) {
+        this(moex, DEFAULT_MAX_CONCURRENT_REQUESTS, new TokenBucket(DEFAULT_BURST, DEFAULT_REQUESTS_PER_SECOND));
+    }
+
+    QuoteRefreshScheduler(Moex moex, int maxConcurrentRequests, TokenBucket rateLimit) {
+        this.moex = moex;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Requests current quotes of securities. Securities whose description or market data request failed are omitted,
+     * so their stored quotes are kept. Securities not traded on their primary board get zero market value.
+     *
+     * @param securities securities
+     * @return updated securities in the same order
+     */
+    CompletableFuture<List<ExchangeSecurity>> refresh(List<ExchangeSecurity> securities) {
+        var snapshot = List.copyOf(securities);
+        return CompletableFuture.supplyAsync(() -> refreshSecurities(snapshot), executor);
+    }
+
+    /**
+     * Starts periodic refresh. Securities are taken via the specified executor, normally the FX application thread.
+     * Updated securities are consumed on a background thread. Refresh is skipped if the previous one including its
+     * consumer is still running. Failure of one refresh does not stop periodic refresh.
+     *
+     * @param period       refresh period
+     * @param executor     executor for {@code securities}
+     * @param securities   supplier of securities to refresh
+     * @param consumer     consumer of updated securities
+     * @param errorHandler handler of refresh or consumer failures
+     */
+    synchronized void startPeriodicRefresh(
+            Duration period,
+            Executor executor,
+            Supplier<List<ExchangeSecurity>> securities,
+            Consumer<List<ExchangeSecurity>> consumer,
+            Consumer<Throwable> errorHandler)
+    {
+        stopPeriodicRefresh();
+
+        timer = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("quote-refresh").factory());
+        periodicRefresh = timer.scheduleWithFixedDelay(() -> {
+            if (!refreshInProgress.compareAndSet(false, true)) {
+                return;
+            }
+            CompletableFuture.supplyAsync(securities, executor)
+                    .thenCompose(this::refresh)
+                    .thenAccept(consumer)
+                    .whenComplete((_, t) -> {
+                        refreshInProgress.set(false);
+                        if (t != null) {
+                            errorHandler.accept(t);
+                        }
+                    });
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stopPeriodicRefresh() {
+        if (periodicRefresh != null) {
+            periodicRefresh.cancel(false);
+            periodicRefresh = null;
+        }
+        if (timer != null) {
+            timer.shutdown();
+            timer = null;
+        }
+    }
+
+    synchronized boolean isPeriodicRefreshActive() {
+        return periodicRefresh != null;
+    }
+
+    /**
+     * Stops periodic refresh and shuts down request threads. Refreshes in progress are interrupted.
+     */
+    @Override
+    public synchronized void close() {
+        stopPeriodicRefresh();
+        executor.shutdownNow();
+    }
+
+    private List<ExchangeSecurity> refreshSecurities(List<ExchangeSecurity> securities) {
+        var missing = securities.stream()
+                .map(ExchangeSecurity::secId)
+                .distinct()
+                .filter(secId -> !moexSecurities.containsKey(secId))
+                .toList();
+        invokeAll(missing.stream()
+                .<Callable<Optional<MoexSecurity>>>map(secId -> () -> {
+                    var moexSecurity = moex.getSecurity(secId);
+                    moexSecurity.ifPresent(s -> moexSecurities.put(secId, s));
+                    return moexSecurity;
+                })
+                .toList());
+
+        var boards = new LinkedHashMap<Board, List<String>>();
+        for (var security : securities) {
+            var moexSecurity = moexSecurities.get(security.secId());
+            if (moexSecurity != null) {
+                boards.computeIfAbsent(
+                        new Board(moexSecurity.engine(), moexSecurity.market(), moexSecurity.primaryBoard()),
+                        _ -> new ArrayList<>()
+                ).add(security.secId());
+            }
+        }
+
+        // One request per chunk, so that each request takes a token. Each request returns market data of every
+        // security of its chunk, securities of failed requests are missing.
+        var marketDataRequests = new ArrayList<Callable<Map<String, Optional<MoexMarketData>>>>();
+        boards.forEach((board, secIds) -> {
+            var distinct = secIds.stream().distinct().toList();
+            for (var from = 0; from < distinct.size(); from += Moex.MAX_BOARD_SECURITIES) {
+                var chunk = distinct.subList(from, Math.min(from + Moex.MAX_BOARD_SECURITIES, distinct.size()));
+                marketDataRequests.add(() -> {
+                    var received = moex.getBoardMarketData(chunk, board.engine(), board.market(), board.board());
+                    var chunkData = new HashMap<String, Optional<MoexMarketData>>();
+                    for (var secId : chunk) {
+                        chunkData.put(secId, Optional.ofNullable(received.get(secId)));
+                    }
+                    return chunkData;
+                });
+            }
+        });
+        var marketData = new HashMap<String, Optional<MoexMarketData>>();
+        invokeAll(marketDataRequests).forEach(marketData::putAll);
+
+        return securities.stream()
+                .filter(security -> marketData.containsKey(security.secId()))
+                .map(security -> toExchangeSecurity(moexSecurities.get(security.secId()),
+                        marketData.get(security.secId()), security.uuid()))
+                .toList();
+    }
+
+    /**
+     * Executes requests concurrently honoring the concurrency and rate limits. Failed requests are omitted.
+     */
+    private <T> List<T> invokeAll(List<Callable<T>> requests) {
+        var tasks = requests.stream()
+                .<Callable<T>>map(request -> () -> {
+                    permits.acquire();
+                    try {
+                        rateLimit.acquire();
+                        return request.call();
+                    } finally {
+                        permits.release();
+                    }
+                })
+                .toList();
+
+        try {
+            var results = new ArrayList<T>(tasks.size());
+            for (var future : executor.invokeAll(tasks)) {
+                if (future.state() == Future.State.SUCCESS) {
+                    results.add(future.get());
+                }
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import javafx.application.Platform;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuBar;
@@ -19,22 +20,22 @@ import org.panteleyev.fx.factories.TableFactory;
 import org.panteleyev.moex.Moex;
 import org.panteleyev.moex.model.MoexMarketData;
 import org.panteleyev.moex.model.MoexSecurity;
+import org.panteleyev.money.MoneyApplication;
 import org.panteleyev.money.app.BaseController;
 import org.panteleyev.money.app.cells.ExchangeSecurityValueCell;
 import org.panteleyev.money.app.exchange.cells.ExchangeTypeCell;
 import org.panteleyev.money.model.ExchangeSecurity;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import static org.panteleyev.fx.FxAction.fxAction;
 import static org.panteleyev.fx.factories.BoxFactory.hBox;
 import static org.panteleyev.fx.factories.ChoiceBoxFactory.choiceBox;
+import static org.panteleyev.fx.factories.MenuFactory.checkMenuItem;
 import static org.panteleyev.fx.factories.MenuFactory.menu;
 import static org.panteleyev.fx.factories.MenuFactory.menuBar;
 import static org.panteleyev.fx.factories.MenuFactory.menuItem;
@@ -44,12 +45,14 @@ import static org.panteleyev.money.app.GlobalContext.settings;
 import static org.panteleyev.money.app.Shortcuts.SHORTCUT_N;
 import static org.panteleyev.money.app.Shortcuts.SHORTCUT_U;
 import static org.panteleyev.money.app.Styles.BIG_INSETS;
+import static org.panteleyev.money.app.exchange.ExchangeSecurityMapper.toExchangeSecurity;
 
 public class SecuritiesWindowController extends BaseController {
     private record ExchangeGroup(String type, String title) {
     }
 
     private static final ExchangeGroup ALL_ITEMS = new ExchangeGroup("", "Все типы");
+    private static final Duration PERIODIC_REFRESH_PERIOD = Duration.ofMinutes(15);
 
     private final ChoiceBox<Object> groupBox = groupBox();
 
@@ -68,6 +71,8 @@ public class SecuritiesWindowController extends BaseController {
             .onAction(this::onSplits);
 
     private final Moex moex = new Moex();
+    private final QuoteRefreshScheduler refreshScheduler = new QuoteRefreshScheduler(moex);
+    private final CheckMenuItem periodicRefreshMenuItem = checkMenuItem("Обновлять котировки автоматически");
 
     public SecuritiesWindowController() {
         setupTable();
@@ -93,6 +98,7 @@ public class SecuritiesWindowController extends BaseController {
         setupGroupBox();
 
         tableView.setContextMenu(createContextMenu());
+        periodicRefreshMenuItem.setOnAction(this::onPeriodicRefresh);
 
         setupWindow(root);
         settings().loadStageDimensions(this);
@@ -151,7 +157,8 @@ public class SecuritiesWindowController extends BaseController {
                         addSecurityAction.createMenuItem(),
                         updateSecurityAction.createMenuItem(),
                         new SeparatorMenuItem(),
-                        menuItem("Обновить все котировки", this::onUpdateAllValues)
+                        menuItem("Обновить все котировки", this::onUpdateAllValues),
+                        periodicRefreshMenuItem
                 ),
                 createWindowMenu(),
                 createHelpMenu()
@@ -170,7 +177,7 @@ public class SecuritiesWindowController extends BaseController {
     private void onAddSecurity(ActionEvent ignored) {
         new SecurityCodeDialog(this).showAndWait()
                 .flatMap(moex::getSecurity).ifPresent(moexSecurity -> {
-                    var security = buildExchangeSecurity(moexSecurity, null);
+                    var security = toExchangeSecurity(moexSecurity, getMarketData(moexSecurity), null);
 
                     new ExchangeSecurityDialog(this, security).showAndWait().ifPresent(_ -> {
                         dao().insertExchangeSecurity(security);
@@ -179,46 +186,6 @@ public class SecuritiesWindowController extends BaseController {
                 });
     }
 
-    private ExchangeSecurity buildExchangeSecurity(MoexSecurity moexSecurity, UUID uuid) {
-        var marketData = getMarketData(moexSecurity);
-
-        var marketValue = marketData.map(MoexMarketData::prevLegalClosePrice).orElse(null);
-        if (marketValue == null) {
-            marketValue = marketData.map(MoexMarketData::marketPrice).orElse(BigDecimal.ZERO);
-        }
-
-        var builder = new ExchangeSecurity.Builder()
-                .secId(moexSecurity.secId())
-                .name(moexSecurity.name())
-                .shortName(moexSecurity.shortName())
-                .isin(moexSecurity.isin())
-                .regNumber(moexSecurity.regNumber())
-                .faceValue(moexSecurity.faceValue())
-                .issueDate(moexSecurity.issueDate())
-                .matDate(moexSecurity.matDate())
-                .daysToRedemption(moexSecurity.daysToRedemption())
-                .group(moexSecurity.group())
-                .groupName(moexSecurity.groupName())
-                .type(moexSecurity.type())
-                .typeName(moexSecurity.typeName())
-                .marketValue(marketValue)
-                .couponValue(moexSecurity.couponValue())
-                .couponPercent(moexSecurity.couponPercent())
-                .couponDate(moexSecurity.couponDate())
-                .couponFrequency(moexSecurity.couponFrequency())
-                .accruedInterest(marketData
-                        .map(MoexMarketData::accruedInterest)
-                        .orElse(null))
-                .couponPeriod(marketData
-                        .map(MoexMarketData::couponPeriod)
-                        .orElse(null));
-
-        if (uuid != null) {
-            builder.uuid(uuid);
-        }
-        return builder.build();
-    }
-
     private Optional<MoexMarketData> getMarketData(MoexSecurity security) {
         return moex.getMarketData(security.secId(), security.engine(), security.market(), security.primaryBoard())
                 .stream()
@@ -227,7 +194,7 @@ public class SecuritiesWindowController extends BaseController {
 
     private void onUpdateSecurity(ActionEvent ignored) {
         getSelected().ifPresent(selected -> moex.getSecurity(selected.secId()).ifPresent(moexSecurity -> {
-            var updated = buildExchangeSecurity(moexSecurity, selected.uuid());
+            var updated = toExchangeSecurity(moexSecurity, getMarketData(moexSecurity), selected.uuid());
             new ExchangeSecurityDialog(this, updated).showAndWait().ifPresent(_ -> {
                 dao().updateExchangeSecurity(updated);
                 setupGroupBox();
@@ -240,12 +207,34 @@ public class SecuritiesWindowController extends BaseController {
     }
 
     private void onUpdateAllValues(ActionEvent ignored) {
-        cache().getExchangeSecurities()
-                .forEach(sec -> CompletableFuture.supplyAsync(() -> moex.getSecurity(sec.secId()).orElse(null))
-                        .thenAcceptAsync(moexSecurity -> {
-                            var updated = buildExchangeSecurity(moexSecurity, sec.uuid());
-                            dao().updateExchangeSecurity(updated);
-                        }, Platform::runLater));
+        refreshScheduler.refresh(cache().getExchangeSecurities())
+                .thenAccept(updated -> dao().updateExchangeSecurities(updated, Platform::runLater))
+                .exceptionally(t -> {
+                    onRefreshError(t);
+                    return null;
+                });
+    }
+
+    private void onPeriodicRefresh(ActionEvent ignored) {
+        if (periodicRefreshMenuItem.isSelected()) {
+            refreshScheduler.startPeriodicRefresh(PERIODIC_REFRESH_PERIOD, Platform::runLater,
+                    () -> List.copyOf(cache().getExchangeSecurities()),
+                    updated -> dao().updateExchangeSecurities(updated, Platform::runLater),
+                    SecuritiesWindowController::onRefreshError);
+        } else {
+            refreshScheduler.stopPeriodicRefresh();
+        }
+    }
+
+    private static void onRefreshError(Throwable t) {
+        MoneyApplication.uncaughtException(t.getCause() != null ? t.getCause() : t);
+    }
+
+    @Override
+    protected void onWindowHiding() {
+        super.onWindowHiding();
+        refreshScheduler.close();
+        moex.close();
     }
 
     private void updatePredicate() {
@@ -0,0 +1,75 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.exchange;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter. Bucket holds up to {@code capacity} tokens and is refilled at a constant rate, each
+ * request takes one token. Requests that find the bucket empty reserve a future token and wait for it, so waiting
+ * requests are served in order of arrival.
+ */
+final class TokenBucket {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int capacity;
+    private final double nanosPerToken;
+    private final LongSupplier nanoTime;
+
+    // Negative while there are reserved tokens
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Creates full bucket.
+     *
+     * @param capacity        maximum number of tokens, i.e. allowed burst
+     * @param tokensPerSecond refill rate
+     */
+    TokenBucket(int capacity, double tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(int capacity, double tokensPerSecond, LongSupplier nanoTime) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be >= 1");
+        }
+        if (tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+
+        this.capacity = capacity;
+        this.nanosPerToken = NANOS_PER_SECOND / tokensPerSecond;
+        this.nanoTime = nanoTime;
+
+        tokens = capacity;
+        lastRefill = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes one token, blocks until the token is available.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire() throws InterruptedException {
+        var delay = reserve();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+
+    /**
+     * Takes one token without waiting.
+     *
+     * @return nanoseconds until the token becomes available, 0 if it is available now
+     */
+    synchronized long reserve() {
+        var now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+        lastRefill = now;
+
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * nanosPerToken);
+    }
+}
@@ -0,0 +1,135 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import javafx.application.Platform;
+import javafx.stage.FileChooser;
+import org.panteleyev.fx.Controller;
+import org.panteleyev.money.app.dialogs.ProgressDialog;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.panteleyev.money.app.Constants.FILTER_RAIF_ONLINE_BROKER_DEALS;
+import static org.panteleyev.money.app.Constants.FILTER_SBER_ONLINE_BROKER_DEALS;
+import static org.panteleyev.money.app.Constants.FILTER_SBER_ONLINE_BROKER_DEALS_HTML;
+import static org.panteleyev.money.app.GlobalContext.cache;
+import static org.panteleyev.money.app.GlobalContext.dao;
+
+/**
+ * Imports deals from several broker reports. Reports are parsed concurrently, results are merged in the order of
+ * files, deduplicated and inserted with a single write.
+ */
+final class BrokerReportImport {
+    private final FileChooser.ExtensionFilter filter;
+    private final Consumer<String> progress;
+
+    /**
+     * Creates import.
+     *
+     * @param filter   selected file chooser filter that defines report format
+     * @param progress progress consumer, called from worker threads
+     */
+    BrokerReportImport(FileChooser.ExtensionFilter filter, Consumer<String> progress) {
+        this.filter = filter;
+        this.progress = progress;
+    }
+
+    /**
+     * Imports deals showing progress and the result in a modal dialog. This method must be called from the
+     * application thread, it returns when the dialog is closed.
+     *
+     * @param owner  owner of the progress dialog
+     * @param filter selected file chooser filter that defines report format
+     * @param files  report files
+     */
+    static void importWithProgress(Controller owner, FileChooser.ExtensionFilter filter, List<File> files) {
+        var progressDialog = new ProgressDialog(owner, "Загрузка сделок");
+        progressDialog.disableClose(true);
+
+        new BrokerReportImport(filter, progressDialog::append)
+                .start(files)
+                .whenCompleteAsync((count, ex) -> {
+                    if (ex == null) {
+                        progressDialog.append("Добавлено сделок: " + count + "\n");
+                    } else {
+                        var cause = ex.getCause() == null ? ex : ex.getCause();
+                        progressDialog.append("Ошибка: " + cause.getMessage() + "\n");
+                    }
+                    progressDialog.disableClose(false);
+                }, Platform::runLater);
+
+        progressDialog.showAndWait();
+    }
+
+    /**
+     * Starts import. This method must be called from the application thread, reference data is captured before
+     * the method returns.
+     *
+     * @param files report files
+     * @return future that completes with the number of inserted deals
+     */
+    CompletableFuture<Integer> start(List<File> files) {
+        var resolver = new ReferenceDataResolver(cache());
+        var deduplicator = new InvestmentDealDeduplicator(cache().getInvestmentDeals());
+
+        var futures = new ArrayList<CompletableFuture<List<InvestmentDeal>>>(files.size());
+        for (var file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> parse(file, resolver))
+                    .handle((deals, ex) -> {
+                        if (ex != null) {
+                            var cause = ex.getCause() == null ? ex : ex.getCause();
+                            progress.accept(file.getName() + ": ошибка " + cause.getMessage() + "\n");
+                            return List.of();
+                        }
+                        progress.accept(file.getName() + ": сделок " + deals.size() + "\n");
+                        return deals;
+                    }));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            var deals = new ArrayList<InvestmentDeal>();
+            for (var future : futures) {
+                deals.addAll(deduplicator.filter(future.join()));
+            }
+            progress.accept("Новых сделок: " + deals.size() + "\n");
+            return dao().insertInvestments(deals, Platform::runLater);
+        });
+    }
+
+    private List<InvestmentDeal> parse(File file, ReferenceDataResolver resolver) {
+        if (Objects.equals(filter, FILTER_SBER_ONLINE_BROKER_DEALS)) {
+            // Workbook parts are read from the file on demand
+            return new SberbankBrokerReportParser().parse(file, resolver);
+        }
+
+        try (var inputStream = new FileInputStream(file)) {
+            if (Objects.equals(filter, FILTER_SBER_ONLINE_BROKER_DEALS_HTML)) {
+                return new SberbankBrokerHtmlReportParser().parse(file.getName(), inputStream, resolver);
+            } else if (Objects.equals(filter, FILTER_RAIF_ONLINE_BROKER_DEALS)) {
+                var fileName = file.getName();
+                var underscoreIndex = fileName.indexOf('_');
+
+                var accountName = "";
+                if (underscoreIndex != -1) {
+                    accountName = fileName.substring(0, underscoreIndex);
+                }
+
+                return new RaiffeisenBrokerReportParser().parse(accountName, inputStream, resolver);
+            } else {
+                return List.of();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
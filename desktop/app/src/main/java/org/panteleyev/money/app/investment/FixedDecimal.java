@@ -0,0 +1,182 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Mutable decimal number for aggregation loops. Value is kept as a {@code long} scaled by a power of ten and falls
+ * back to {@link BigDecimal} when an operation overflows. Operations with numbers of up to 15 digits do not allocate.
+ * <p>
+ * Each operation gives the same value and scale as the corresponding {@link BigDecimal} operation, so results are
+ * identical to plain {@link BigDecimal} arithmetic.
+ */
+final class FixedDecimal {
+    private static final int MAX_DIGITS = 18;
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (var i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private long unscaled;
+    private int scale;
+    // Value after overflow, null while value fits into long
+    private BigDecimal value;
+
+    /**
+     * Creates zero with scale 0, same as {@link BigDecimal#ZERO}.
+     */
+    FixedDecimal() {
+    }
+
+    FixedDecimal add(long units) {
+        if (value == null) {
+            if (add(units, 0)) {
+                return this;
+            }
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+        value = value.add(BigDecimal.valueOf(units));
+        return this;
+    }
+
+    FixedDecimal add(BigDecimal augend) {
+        if (value == null) {
+            if (fits(augend) && add(unscaledOf(augend), augend.scale())) {
+                return this;
+            }
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+        value = value.add(augend);
+        return this;
+    }
+
+    FixedDecimal subtract(BigDecimal subtrahend) {
+        if (value == null) {
+            // Unscaled value of a fitting number is never Long.MIN_VALUE, negation is safe
+            if (fits(subtrahend) && add(-unscaledOf(subtrahend), subtrahend.scale())) {
+                return this;
+            }
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+        value = value.subtract(subtrahend);
+        return this;
+    }
+
+    FixedDecimal multiply(BigDecimal multiplicand) {
+        if (value == null) {
+            if (fits(multiplicand)) {
+                try {
+                    var newUnscaled = Math.multiplyExact(unscaled, unscaledOf(multiplicand));
+                    var newScale = Math.addExact(scale, multiplicand.scale());
+                    unscaled = newUnscaled;
+                    scale = newScale;
+                    return this;
+                } catch (ArithmeticException _) {
+                    // Fall back to BigDecimal
+                }
+            }
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+        value = value.multiply(multiplicand);
+        return this;
+    }
+
+    /**
+     * Divides keeping the current scale, same as {@link BigDecimal#divide(BigDecimal, RoundingMode)}. Only
+     * {@link RoundingMode#HALF_UP} is computed with longs.
+     *
+     * @param divisor      divisor
+     * @param roundingMode rounding mode
+     * @return this
+     */
+    FixedDecimal divide(BigDecimal divisor, RoundingMode roundingMode) {
+        if (value == null) {
+            if (roundingMode == RoundingMode.HALF_UP && divisor.signum() != 0 && fits(divisor)
+                    && divideHalfUp(unscaledOf(divisor), divisor.scale()))
+            {
+                return this;
+            }
+            value = BigDecimal.valueOf(unscaled, scale);
+        }
+        value = value.divide(divisor, roundingMode);
+        return this;
+    }
+
+    BigDecimal toBigDecimal() {
+        return value != null ? value : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private boolean add(long augend, int augendScale) {
+        try {
+            if (augendScale == scale) {
+                unscaled = Math.addExact(unscaled, augend);
+            } else if (augendScale > scale) {
+                unscaled = Math.addExact(scaleUp(unscaled, (long) augendScale - scale), augend);
+                scale = augendScale;
+            } else {
+                unscaled = Math.addExact(unscaled, scaleUp(augend, (long) scale - augendScale));
+            }
+            return true;
+        } catch (ArithmeticException _) {
+            return false;
+        }
+    }
+
+    private boolean divideHalfUp(long divisor, int divisorScale) {
+        try {
+            // Result keeps the scale of the dividend: unscaled * 10^divisorScale / divisor
+            var dividend = divisorScale >= 0 ? scaleUp(unscaled, divisorScale) : unscaled;
+            var d = divisorScale >= 0 ? divisor : scaleUp(divisor, -(long) divisorScale);
+            if (dividend == Long.MIN_VALUE || d == Long.MIN_VALUE) {
+                return false;
+            }
+
+            var quotient = dividend / d;
+            var remainder = Math.abs(dividend % d);
+            if (remainder != 0 && remainder >= Math.abs(d) - remainder) {
+                quotient += (dividend < 0) == (d < 0) ? 1 : -1;
+            }
+            unscaled = quotient;
+            return true;
+        } catch (ArithmeticException _) {
+            return false;
+        }
+    }
+
+    private static long scaleUp(long value, long digits) {
+        if (digits > MAX_DIGITS) {
+            if (value == 0) {
+                return 0;
+            }
+            throw new ArithmeticException("long overflow");
+        }
+        return Math.multiplyExact(value, POWERS_OF_TEN[(int) digits]);
+    }
+
+    private static boolean fits(BigDecimal value) {
+        return value.precision() <= MAX_DIGITS;
+    }
+
+    private static long unscaledOf(BigDecimal value) {
+        var scale = value.scale();
+        if (scale == 0) {
+            // longValue() of an integer does not allocate
+            return value.longValue();
+        }
+        // unscaledValue() allocates BigInteger. Double value of a short number is the correctly rounded quotient of
+        // the unscaled value and 10^scale, both exact in double. The relative error of the division and of the
+        // multiplication back is below 2^-52, that is below 0.25 for unscaled values under 10^15, so rounding
+        // restores the unscaled value exactly.
+        if (scale > 0 && scale <= MAX_EXACT_DOUBLE_DIGITS && value.precision() <= MAX_EXACT_DOUBLE_DIGITS) {
+            return Math.round(value.doubleValue() * POWERS_OF_TEN[scale]);
+        }
+        return value.unscaledValue().longValue();
+    }
+}
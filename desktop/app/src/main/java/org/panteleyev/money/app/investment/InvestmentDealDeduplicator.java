@@ -0,0 +1,58 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Removes deals that were already imported. Broker reports are usually downloaded with overlapping date ranges, so
+ * most deals of a report may be known already. Deals are identified by account and deal number, the same as the
+ * unique constraint of the database, so every deal that passes the filter is inserted.
+ * <p>
+ * Deduplicator remembers deals it has passed, so one instance can be used for several reports.
+ */
+final class InvestmentDealDeduplicator {
+    private record Key(UUID accountUuid, String dealNumber) {
+        Key(InvestmentDeal deal) {
+            this(deal.accountUuid(), deal.dealNumber());
+        }
+    }
+
+    private final Set<Key> keys;
+
+    /**
+     * Creates deduplicator.
+     *
+     * @param knownDeals deals that are already stored
+     */
+    InvestmentDealDeduplicator(Collection<InvestmentDeal> knownDeals) {
+        keys = HashSet.newHashSet(knownDeals.size());
+        for (var deal : knownDeals) {
+            keys.add(new Key(deal));
+        }
+    }
+
+    /**
+     * Returns deals that were not seen before. Repeated deals inside the argument are removed as well, only the first
+     * one is returned.
+     *
+     * @param deals imported deals
+     * @return new deals in the original order
+     */
+    List<InvestmentDeal> filter(Collection<InvestmentDeal> deals) {
+        var result = new ArrayList<InvestmentDeal>(deals.size());
+        for (var deal : deals) {
+            if (keys.add(new Key(deal))) {
+                result.add(deal);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,286 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.dto.InvestmentOperationType;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-security positions maintained incrementally. Deals and splits are applied as deltas, so a change costs
+ * O(log n) for a deal and O(days with deals of the security) for a split, which is rare. Positions are folded in the
+ * same order as {@link DealAnsSplitComparator}: deals made on the date of a split come before it.
+ * <p>
+ * Positions are not thread safe.
+ */
+final class InvestmentPositions {
+    private static final Comparator<ExchangeSecuritySplit> SPLIT_ORDER =
+            Comparator.comparing(ExchangeSecuritySplit::date);
+
+    /**
+     * Position of a single security.
+     *
+     * @param securityUuid        security uuid
+     * @param securityAmount      amount of securities
+     * @param totalExchangeFee    total exchange fee
+     * @param totalBrokerFee      total broker fee
+     * @param totalPurchaseAmount amount of purchased securities
+     * @param totalPurchaseValue  value of purchased securities
+     */
+    record Position(
+            UUID securityUuid,
+            BigDecimal securityAmount,
+            BigDecimal totalExchangeFee,
+            BigDecimal totalBrokerFee,
+            BigDecimal totalPurchaseAmount,
+            BigDecimal totalPurchaseValue
+    ) {
+    }
+
+    // Amounts of securities are integer until the first split is applied
+    private static final class Sums {
+        private long amount;
+        private long purchaseAmount;
+        private int count;
+
+        private void add(Sums other, int sign) {
+            amount += sign * other.amount;
+            purchaseAmount += sign * other.purchaseAmount;
+            count += sign * other.count;
+        }
+    }
+
+    // Sum of decimals that may be subtracted later. Plain BigDecimal sum has the largest scale of its terms, while
+    // the running sum keeps the largest scale ever added, so the scale is tracked by terms and restored on read.
+    private static final class Total {
+        private final FixedDecimal sum = new FixedDecimal();
+        // Number of terms by scale. Sum starts from BigDecimal.ZERO, so negative scales are counted as zero.
+        private int[] scales = new int[8];
+
+        private void add(BigDecimal value, int sign) {
+            var scale = Math.max(0, value.scale());
+            if (sign > 0) {
+                sum.add(value);
+                if (scale >= scales.length) {
+                    scales = Arrays.copyOf(scales, Math.max(scale + 1, scales.length * 2));
+                }
+                scales[scale]++;
+            } else {
+                sum.subtract(value);
+                if (scale < scales.length && scales[scale] > 0) {
+                    scales[scale]--;
+                }
+            }
+        }
+
+        private BigDecimal toBigDecimal() {
+            var scale = scales.length - 1;
+            while (scale > 0 && scales[scale] == 0) {
+                scale--;
+            }
+            return sum.toBigDecimal().setScale(scale, RoundingMode.UNNECESSARY);
+        }
+    }
+
+    private static final class Aggregate {
+        private final UUID securityUuid;
+        // Amounts of deals by deal date, used only to rebuild segments when splits change
+        private final TreeMap<LocalDate, Sums> days = new TreeMap<>();
+        // Splits in the order of application
+        private final List<ExchangeSecuritySplit> splits = new ArrayList<>();
+        // Segment i holds deals made before split i, the last segment holds deals after all splits
+        private final List<Sums> segments = new ArrayList<>(List.of(new Sums()));
+
+        private final Total exchangeFee = new Total();
+        private final Total brokerFee = new Total();
+        private final Total purchaseValue = new Total();
+        private int dealCount;
+
+        private Position position;
+
+        private Aggregate(UUID securityUuid) {
+            this.securityUuid = securityUuid;
+        }
+
+        private void applyDeal(InvestmentDeal deal, int sign) {
+            var purchase = deal.operationType() == InvestmentOperationType.PURCHASE;
+            var delta = new Sums();
+            delta.amount = purchase ? deal.securityAmount() : -deal.securityAmount();
+            delta.purchaseAmount = purchase ? deal.securityAmount() : 0;
+            delta.count = 1;
+
+            var date = deal.dealDate().toLocalDate();
+            var day = days.computeIfAbsent(date, _ -> new Sums());
+            day.add(delta, sign);
+            if (day.count == 0) {
+                days.remove(date);
+            }
+            segments.get(getSegmentIndex(date)).add(delta, sign);
+
+            exchangeFee.add(deal.exchangeFee(), sign);
+            brokerFee.add(deal.brokerFee(), sign);
+            if (purchase) {
+                purchaseValue.add(deal.amount(), sign);
+            }
+            dealCount += sign;
+            position = null;
+        }
+
+        private void addSplit(ExchangeSecuritySplit split) {
+            // Splits with the same date keep the order they were added in
+            var index = splits.size();
+            while (index > 0 && SPLIT_ORDER.compare(splits.get(index - 1), split) > 0) {
+                index--;
+            }
+            splits.add(index, split);
+            rebuildSegments();
+        }
+
+        private void removeSplit(ExchangeSecuritySplit split) {
+            splits.removeIf(s -> s.uuid().equals(split.uuid()));
+            rebuildSegments();
+        }
+
+        private void rebuildSegments() {
+            segments.clear();
+            for (var i = 0; i <= splits.size(); i++) {
+                segments.add(new Sums());
+            }
+            for (var entry : days.entrySet()) {
+                segments.get(getSegmentIndex(entry.getKey())).add(entry.getValue(), 1);
+            }
+            position = null;
+        }
+
+        private int getSegmentIndex(LocalDate dealDate) {
+            // First split made on the deal date or later
+            int low = 0;
+            int high = splits.size();
+            while (low < high) {
+                var mid = (low + high) >>> 1;
+                if (splits.get(mid).date().isBefore(dealDate)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private Position getPosition() {
+            if (position == null) {
+                var amount = new FixedDecimal();
+                var purchaseAmount = new FixedDecimal();
+                // Splits made before the first deal are not applied, they would change the scale of zero
+                var hasDeals = false;
+                for (var i = 0; i < segments.size(); i++) {
+                    amount.add(segments.get(i).amount);
+                    purchaseAmount.add(segments.get(i).purchaseAmount);
+                    hasDeals |= segments.get(i).count > 0;
+                    if (hasDeals && i < splits.size()) {
+                        correctAmount(amount, splits.get(i));
+                        correctAmount(purchaseAmount, splits.get(i));
+                    }
+                }
+                position = new Position(securityUuid, amount.toBigDecimal(), exchangeFee.toBigDecimal(),
+                        brokerFee.toBigDecimal(), purchaseAmount.toBigDecimal(), purchaseValue.toBigDecimal());
+            }
+            return position;
+        }
+
+        private boolean isEmpty() {
+            return dealCount == 0 && splits.isEmpty();
+        }
+    }
+
+    private final Map<UUID, Aggregate> aggregates = new HashMap<>();
+
+    InvestmentPositions(Collection<InvestmentDeal> deals, Collection<ExchangeSecuritySplit> splits) {
+        for (var split : splits) {
+            getAggregate(split.securityUuid()).splits.add(split);
+        }
+        for (var aggregate : aggregates.values()) {
+            aggregate.splits.sort(SPLIT_ORDER);
+            aggregate.rebuildSegments();
+        }
+        for (var deal : deals) {
+            getAggregate(deal.securityUuid()).applyDeal(deal, 1);
+        }
+    }
+
+    void updateDeals(Collection<? extends InvestmentDeal> removed, Collection<? extends InvestmentDeal> added) {
+        for (var deal : removed) {
+            var aggregate = aggregates.get(deal.securityUuid());
+            if (aggregate != null) {
+                aggregate.applyDeal(deal, -1);
+                removeIfEmpty(aggregate);
+            }
+        }
+        for (var deal : added) {
+            getAggregate(deal.securityUuid()).applyDeal(deal, 1);
+        }
+    }
+
+    void updateSplits(
+            Collection<? extends ExchangeSecuritySplit> removed,
+            Collection<? extends ExchangeSecuritySplit> added)
+    {
+        for (var split : removed) {
+            var aggregate = aggregates.get(split.securityUuid());
+            if (aggregate != null) {
+                aggregate.removeSplit(split);
+                removeIfEmpty(aggregate);
+            }
+        }
+        for (var split : added) {
+            getAggregate(split.securityUuid()).addSplit(split);
+        }
+    }
+
+    /**
+     * Returns positions of all securities that have deals.
+     *
+     * @return positions
+     */
+    List<Position> getPositions() {
+        var result = new ArrayList<Position>(aggregates.size());
+        for (var aggregate : aggregates.values()) {
+            if (aggregate.dealCount > 0) {
+                result.add(aggregate.getPosition());
+            }
+        }
+        return result;
+    }
+
+    private Aggregate getAggregate(UUID securityUuid) {
+        return aggregates.computeIfAbsent(securityUuid, Aggregate::new);
+    }
+
+    private void removeIfEmpty(Aggregate aggregate) {
+        if (aggregate.isEmpty()) {
+            aggregates.remove(aggregate.securityUuid);
+        }
+    }
+
+    private static void correctAmount(FixedDecimal amount, ExchangeSecuritySplit split) {
+        if (split.type() == ExchangeSecuritySplitType.SPLIT) {
+            amount.multiply(split.rate());
+        } else {
+            amount.divide(split.rate(), RoundingMode.HALF_UP);
+        }
+    }
+}
@@ -5,9 +5,8 @@ package org.panteleyev.money.app.investment;
 import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.collections.WeakListChangeListener;
+import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
-import org.panteleyev.money.dto.ExchangeSecuritySplitType;
-import org.panteleyev.money.dto.InvestmentOperationType;
 import org.panteleyev.money.model.ExchangeSecurity;
 import org.panteleyev.money.model.ExchangeSecuritySplit;
 import org.panteleyev.money.model.InvestmentDeal;
@@ -16,10 +15,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Stream;
 
 import static org.panteleyev.money.app.GlobalContext.cache;
 import static org.panteleyev.money.app.exchange.Definitions.STOCK_BONDS;
@@ -28,49 +24,49 @@ public class InvestmentSummaryPane extends BorderPane {
     private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
 
     @SuppressWarnings("FieldCanBeLocal")
-    private final ListChangeListener<InvestmentDeal> dealsChangeListener =
-            _ -> Platform.runLater(this::onDealsChanged);
+    private final ListChangeListener<InvestmentDeal> dealsChangeListener = this::onDealsChanged;
 
     @SuppressWarnings("FieldCanBeLocal")
-    private final ListChangeListener<ExchangeSecurity> securityChangeListener =
-            _ -> Platform.runLater(this::onDealsChanged);
+    private final ListChangeListener<ExchangeSecuritySplit> splitsChangeListener = this::onSplitsChanged;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private final ListChangeListener<ExchangeSecurity> securityChangeListener = _ -> scheduleUpdate();
 
     private final InvestmentSummaryTableView tableView = new InvestmentSummaryTableView();
+    private final Label valuationLabel = new Label();
+
+    private final InvestmentPositions positions;
+    private final PortfolioValuation valuation;
+    // Rebuilt on each update as prices depend on deals and market values
+    private SecurityPriceHistory priceHistory;
+    private boolean updateScheduled;
 
     public InvestmentSummaryPane() {
         setCenter(tableView);
-        onDealsChanged();
+        setBottom(valuationLabel);
+
+        positions = new InvestmentPositions(cache().getInvestmentDeals(), cache().getExchangeSecuritySplits());
+        valuation = new PortfolioValuation(cache().getInvestmentDeals(), cache().getExchangeSecuritySplits(),
+                (securityUuid, date) -> priceHistory.getPrice(securityUuid, date));
+        updateTable();
 
         cache().getExchangeSecurities().addListener(new WeakListChangeListener<>(securityChangeListener));
         cache().getInvestmentDeals().addListener(new WeakListChangeListener<>(dealsChangeListener));
+        cache().getExchangeSecuritySplits().addListener(new WeakListChangeListener<>(splitsChangeListener));
     }
 
-    private List<InvestmentSummary> calculateSummary(List<InvestmentDeal> deals) {
-        var summaries = new HashMap<UUID, InvestmentSummary>();
-
-        Stream.concat(
-                deals.stream(),
-                cache().getExchangeSecuritySplits().stream()
-        ).sorted(new DealAnsSplitComparator()).forEach(obj -> {
-            var securityUuid = switch (obj) {
-                case InvestmentDeal deal -> deal.securityUuid();
-                case ExchangeSecuritySplit split -> split.securityUuid();
-                default -> throw new IllegalStateException("Wrong object in the combined stream");
-            };
-            summaries.compute(securityUuid, (_, summary) -> add(summary, obj));
-        });
-
+    private List<InvestmentSummary> calculateSummary() {
         var totalValueOfAll = BigDecimal.ZERO;
         var result = new ArrayList<InvestmentSummary>();
 
         var today = LocalDate.now();
 
-        for (var summary : summaries.values()) {
-            if (summary.securityAmount().compareTo(BigDecimal.ZERO) == 0) {
+        for (var position : positions.getPositions()) {
+            if (position.securityAmount().compareTo(BigDecimal.ZERO) == 0) {
                 continue;
             }
 
-            var security = cache().getExchangeSecurity(summary.securityUuid()).orElse(null);
+            var security = cache().getExchangeSecurity(position.securityUuid()).orElse(null);
             if (security == null) {
                 continue;
             }
@@ -78,23 +74,23 @@ public class InvestmentSummaryPane extends BorderPane {
                 continue;
             }
 
-            var averagePrice = summary.totalPurchaseValue()
-                    .divide(summary.totalPurchaseAmount(), RoundingMode.HALF_UP);
-            var totalValue = calculateTotalValue(security, summary.securityAmount());
+            var averagePrice = position.totalPurchaseValue()
+                    .divide(position.totalPurchaseAmount(), RoundingMode.HALF_UP);
+            var totalValue = calculateTotalValue(security, position.securityAmount());
 
             totalValueOfAll = totalValueOfAll.add(totalValue);
 
             result.add(
                     new InvestmentSummary(
-                            summary.securityUuid(),
+                            position.securityUuid(),
                             averagePrice,
-                            summary.securityAmount(),
+                            position.securityAmount(),
                             totalValue,
-                            summary.percentage(),
-                            summary.totalExchangeFee(),
-                            summary.totalBrokerFee(),
-                            summary.totalPurchaseAmount(),
-                            summary.totalPurchaseValue()
+                            BigDecimal.ZERO,
+                            position.totalExchangeFee(),
+                            position.totalBrokerFee(),
+                            position.totalPurchaseAmount(),
+                            position.totalPurchaseValue()
                     )
             );
         }
@@ -114,65 +110,59 @@ public class InvestmentSummaryPane extends BorderPane {
         return currentValue.multiply(amount);
     }
 
-    private static InvestmentSummary add(InvestmentSummary summary, Object object) {
-        if (object instanceof InvestmentDeal deal) {
-            var amountInc = BigDecimal.valueOf(deal.operationType() == InvestmentOperationType.PURCHASE ?
-                    deal.securityAmount() : -deal.securityAmount());
-            var totalPurchaseAmountInc = deal.operationType() == InvestmentOperationType.PURCHASE ?
-                    BigDecimal.valueOf(deal.securityAmount()) : BigDecimal.ZERO;
-            var totalPurchaseValueInc = deal.operationType() == InvestmentOperationType.PURCHASE ?
-                    deal.amount() : BigDecimal.ZERO;
-
-            if (summary == null) {
-                return new InvestmentSummary(
-                        deal.securityUuid(),
-                        BigDecimal.ZERO,
-                        amountInc,
-                        BigDecimal.ZERO,
-                        BigDecimal.ZERO,
-                        deal.exchangeFee(),
-                        deal.brokerFee(),
-                        totalPurchaseAmountInc,
-                        totalPurchaseValueInc
-                );
-            } else {
-                return new InvestmentSummary(
-                        deal.securityUuid(),
-                        BigDecimal.ZERO,
-                        summary.securityAmount().add(amountInc),
-                        BigDecimal.ZERO,
-                        BigDecimal.ZERO,
-                        summary.totalExchangeFee().add(deal.exchangeFee()),
-                        summary.totalBrokerFee().add(deal.brokerFee()),
-                        summary.totalPurchaseAmount().add(totalPurchaseAmountInc),
-                        summary.totalPurchaseValue().add(totalPurchaseValueInc)
-                );
+    private void onDealsChanged(ListChangeListener.Change<? extends InvestmentDeal> change) {
+        while (change.next()) {
+            if (!change.wasPermutated()) {
+                positions.updateDeals(change.getRemoved(), change.getAddedSubList());
+                valuation.updateDeals(change.getRemoved(), change.getAddedSubList());
             }
-        } else if (object instanceof ExchangeSecuritySplit split) {
-            return new InvestmentSummary(
-                    summary.securityUuid(),
-                    summary.averagePrice(),
-                    correctAmount(summary.securityAmount(), split),
-                    BigDecimal.ZERO,
-                    BigDecimal.ZERO,
-                    summary.totalExchangeFee(),
-                    summary.totalBrokerFee(),
-                    correctAmount(summary.totalPurchaseAmount(), split),
-                    summary.totalPurchaseValue()
-            );
-        } else {
-            throw new IllegalStateException("Wrong object");
         }
+        scheduleUpdate();
     }
 
-    private static BigDecimal correctAmount(BigDecimal amount, ExchangeSecuritySplit split) {
-        return (split.type() == ExchangeSecuritySplitType.SPLIT ?
-                amount.multiply(split.rate()) : amount.divide(split.rate(), RoundingMode.HALF_UP));
+    private void onSplitsChanged(ListChangeListener.Change<? extends ExchangeSecuritySplit> change) {
+        while (change.next()) {
+            if (!change.wasPermutated()) {
+                positions.updateSplits(change.getRemoved(), change.getAddedSubList());
+                valuation.updateSplits(change.getRemoved(), change.getAddedSubList());
+            }
+        }
+        scheduleUpdate();
+    }
+
+    private void scheduleUpdate() {
+        // Coalesce several changes into one table update
+        if (!updateScheduled) {
+            updateScheduled = true;
+            Platform.runLater(this::updateTable);
+        }
+    }
+
+    private void updateTable() {
+        updateScheduled = false;
+        tableView.setList(calculateSummary());
+        valuationLabel.setText(calculateValuation());
+    }
+
+    private String calculateValuation() {
+        var today = LocalDate.now();
+        var monthAgo = today.minusMonths(1);
+        priceHistory = SecurityPriceHistory.of(cache().getInvestmentDeals(), cache().getExchangeSecuritySplits(),
+                cache().getExchangeSecurities(), today);
+
+        var valueToday = BigDecimal.ZERO;
+        var valueMonthAgo = BigDecimal.ZERO;
+        for (var accountUuid : valuation.getAccounts()) {
+            var series = valuation.getSeries(accountUuid, monthAgo, today);
+            valueMonthAgo = valueMonthAgo.add(series.getFirst().value());
+            valueToday = valueToday.add(series.getLast().value());
+        }
+        // Past value is based on prices of deals, see SecurityPriceHistory
+        return "Стоимость портфеля: " + formatAmount(valueToday)
+                + ", месяц назад по ценам сделок: " + formatAmount(valueMonthAgo);
     }
 
-    private void onDealsChanged() {
-        tableView.setList(
-                calculateSummary(cache().getInvestmentDeals())
-        );
+    private static String formatAmount(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
     }
 }
@@ -7,21 +7,12 @@ import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.FileChooser;
 import org.panteleyev.money.app.BaseController;
-import org.panteleyev.money.model.InvestmentDeal;
-
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.util.List;
-import java.util.Objects;
 
 import static org.panteleyev.fx.factories.MenuFactory.menu;
 import static org.panteleyev.fx.factories.MenuFactory.menuBar;
 import static org.panteleyev.fx.factories.MenuFactory.menuItem;
 import static org.panteleyev.money.app.Constants.FILTER_RAIF_ONLINE_BROKER_DEALS;
-import static org.panteleyev.money.app.Constants.FILTER_SBER_ONLINE_BROKER_DEALS;
 import static org.panteleyev.money.app.Constants.FILTER_SBER_ONLINE_BROKER_DEALS_HTML;
-import static org.panteleyev.money.app.GlobalContext.dao;
 import static org.panteleyev.money.app.GlobalContext.settings;
 
 public class InvestmentSummaryWindowController extends BaseController {
@@ -65,33 +56,6 @@ public class InvestmentSummaryWindowController extends BaseController {
             return;
         }
 
-        for (var selected : selectedFiles) {
-            try (var inputStream = new FileInputStream(selected)) {
-                var filter = fileChooser.getSelectedExtensionFilter();
-
-                List<InvestmentDeal> investments;
-
-                if (Objects.equals(filter, FILTER_SBER_ONLINE_BROKER_DEALS)) {
-                    investments = new SberbankBrokerReportParser().parse(inputStream);
-                } else if (Objects.equals(filter, FILTER_SBER_ONLINE_BROKER_DEALS_HTML)) {
-                    investments = new SberbankBrokerHtmlReportParser().parse(selected.getName(), inputStream);
-                } else if (Objects.equals(filter, FILTER_RAIF_ONLINE_BROKER_DEALS)) {
-                    var fileName = selected.getName();
-                    var underscoreIndex = fileName.indexOf('_');
-
-                    var accountName = "";
-                    if (underscoreIndex != -1) {
-                        accountName = fileName.substring(0, underscoreIndex);
-                    }
-
-                    investments = new RaiffeisenBrokerReportParser().parse(accountName, inputStream);
-                } else {
-                    investments = List.of();
-                }
-                dao().insertInvestments(investments);
-            } catch (IOException ex) {
-                throw new UncheckedIOException(ex);
-            }
-        }
+        BrokerReportImport.importWithProgress(this, fileChooser.getSelectedExtensionFilter(), selectedFiles);
     }
 }
@@ -0,0 +1,206 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.dto.InvestmentOperationType;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Portfolio value of an account for each day. Deals and splits are replayed in date order, holdings of each day are
+ * valued with prices provided by {@link PriceSource}. On the same date deals are applied before splits, as in
+ * {@link DealAnsSplitComparator}.
+ * <p>
+ * Holdings at the first day of each month are cached as snapshots while the series is built. Building a series
+ * starts from the nearest snapshot, and a change of a deal or split drops only snapshots made after its date.
+ * <p>
+ * Valuation is not thread safe.
+ */
+final class PortfolioValuation {
+    /**
+     * Source of security prices. There is no stored quote history, {@link SecurityPriceHistory} reconstructs prices
+     * from average prices of deals and today's market value, so a period without deals shows the price of the last
+     * deal rather than market quotes of that period.
+     */
+    @FunctionalInterface
+    interface PriceSource {
+        /**
+         * Returns value of one unit of security on the specified date.
+         *
+         * @param securityUuid security uuid
+         * @param date         date
+         * @return price or empty if unknown
+         */
+        Optional<BigDecimal> getPrice(UUID securityUuid, LocalDate date);
+    }
+
+    /**
+     * Portfolio value at the end of the day.
+     *
+     * @param date  date
+     * @param value value of securities with known prices
+     */
+    record DailyValue(LocalDate date, BigDecimal value) {
+    }
+
+    private final PriceSource prices;
+    private final Map<UUID, TreeMap<LocalDate, List<InvestmentDeal>>> deals = new HashMap<>();
+    private final TreeMap<LocalDate, List<ExchangeSecuritySplit>> splits = new TreeMap<>();
+    // Holdings at the start of the month before any deals of the day, by account
+    private final Map<UUID, TreeMap<LocalDate, Map<UUID, BigDecimal>>> snapshots = new HashMap<>();
+
+    PortfolioValuation(
+            Collection<InvestmentDeal> deals,
+            Collection<ExchangeSecuritySplit> splits,
+            PriceSource prices)
+    {
+        this.prices = prices;
+        updateDeals(List.of(), deals);
+        updateSplits(List.of(), splits);
+    }
+
+    void updateDeals(Collection<? extends InvestmentDeal> removed, Collection<? extends InvestmentDeal> added) {
+        for (var deal : removed) {
+            var date = deal.dealDate().toLocalDate();
+            var accountDeals = deals.get(deal.accountUuid());
+            if (accountDeals != null) {
+                var dayDeals = accountDeals.get(date);
+                if (dayDeals != null && dayDeals.removeIf(d -> d.uuid().equals(deal.uuid())) && dayDeals.isEmpty()) {
+                    accountDeals.remove(date);
+                }
+            }
+            invalidate(deal.accountUuid(), date);
+        }
+        for (var deal : added) {
+            var date = deal.dealDate().toLocalDate();
+            deals.computeIfAbsent(deal.accountUuid(), _ -> new TreeMap<>())
+                    .computeIfAbsent(date, _ -> new ArrayList<>())
+                    .add(deal);
+            invalidate(deal.accountUuid(), date);
+        }
+    }
+
+    void updateSplits(
+            Collection<? extends ExchangeSecuritySplit> removed,
+            Collection<? extends ExchangeSecuritySplit> added)
+    {
+        for (var split : removed) {
+            var daySplits = splits.get(split.date());
+            if (daySplits != null && daySplits.removeIf(s -> s.uuid().equals(split.uuid())) && daySplits.isEmpty()) {
+                splits.remove(split.date());
+            }
+            invalidate(split.date());
+        }
+        for (var split : added) {
+            splits.computeIfAbsent(split.date(), _ -> new ArrayList<>()).add(split);
+            invalidate(split.date());
+        }
+    }
+
+    /**
+     * Returns accounts that have deals.
+     *
+     * @return account uuids
+     */
+    Set<UUID> getAccounts() {
+        return Set.copyOf(deals.keySet());
+    }
+
+    /**
+     * Builds values of the account portfolio for each day.
+     *
+     * @param accountUuid account uuid
+     * @param from        first date, inclusive
+     * @param to          last date, inclusive
+     * @return value for each day of the range
+     */
+    List<DailyValue> getSeries(UUID accountUuid, LocalDate from, LocalDate to) {
+        var result = new ArrayList<DailyValue>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+
+        var accountDeals = deals.getOrDefault(accountUuid, new TreeMap<>());
+        var accountSnapshots = snapshots.computeIfAbsent(accountUuid, _ -> new TreeMap<>());
+
+        var start = from.withDayOfMonth(1);
+        var snapshot = accountSnapshots.floorEntry(start);
+
+        LocalDate date;
+        Map<UUID, BigDecimal> holdings;
+        if (snapshot != null) {
+            date = snapshot.getKey();
+            holdings = new HashMap<>(snapshot.getValue());
+        } else {
+            // Holdings are empty before the first deal
+            date = accountDeals.isEmpty() || accountDeals.firstKey().isAfter(start) ?
+                    start : accountDeals.firstKey().withDayOfMonth(1);
+            holdings = new HashMap<>();
+        }
+
+        for (; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.getDayOfMonth() == 1) {
+                accountSnapshots.put(date, Map.copyOf(holdings));
+            }
+
+            for (var deal : accountDeals.getOrDefault(date, List.of())) {
+                var amount = BigDecimal.valueOf(deal.securityAmount());
+                holdings.merge(deal.securityUuid(),
+                        deal.operationType() == InvestmentOperationType.PURCHASE ? amount : amount.negate(),
+                        BigDecimal::add);
+            }
+            for (var split : splits.getOrDefault(date, List.of())) {
+                holdings.computeIfPresent(split.securityUuid(), (_, amount) -> correctAmount(amount, split));
+            }
+            holdings.values().removeIf(amount -> amount.signum() == 0);
+
+            if (!date.isBefore(from)) {
+                result.add(new DailyValue(date, calculateValue(holdings, date)));
+            }
+        }
+        return result;
+    }
+
+    private BigDecimal calculateValue(Map<UUID, BigDecimal> holdings, LocalDate date) {
+        var value = BigDecimal.ZERO;
+        for (var entry : holdings.entrySet()) {
+            var price = prices.getPrice(entry.getKey(), date);
+            if (price.isPresent()) {
+                value = value.add(price.get().multiply(entry.getValue()));
+            }
+        }
+        return value;
+    }
+
+    private void invalidate(UUID accountUuid, LocalDate date) {
+        var accountSnapshots = snapshots.get(accountUuid);
+        if (accountSnapshots != null) {
+            accountSnapshots.tailMap(date, false).clear();
+        }
+    }
+
+    private void invalidate(LocalDate date) {
+        for (var accountSnapshots : snapshots.values()) {
+            accountSnapshots.tailMap(date, false).clear();
+        }
+    }
+
+    private static BigDecimal correctAmount(BigDecimal amount, ExchangeSecuritySplit split) {
+        return (split.type() == ExchangeSecuritySplitType.SPLIT ?
+                amount.multiply(split.rate()) : amount.divide(split.rate(), RoundingMode.HALF_UP));
+    }
+}
@@ -5,6 +5,7 @@ package org.panteleyev.money.app.investment;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 import org.panteleyev.money.dto.InvestmentDealType;
 import org.panteleyev.money.dto.InvestmentMarketType;
 import org.panteleyev.money.dto.InvestmentOperationType;
@@ -46,6 +47,10 @@ public class RaiffeisenBrokerReportParser {
     private static final int CELL_INDEX_DEAL_NUMBER = 17;
 
     public List<InvestmentDeal> parse(String accountName, InputStream inputStream) {
+        return parse(accountName, inputStream, new ReferenceDataResolver(cache()));
+    }
+
+    public List<InvestmentDeal> parse(String accountName, InputStream inputStream, ReferenceDataResolver resolver) {
         var result = new ArrayList<InvestmentDeal>();
 
         try {
@@ -76,10 +81,8 @@ public class RaiffeisenBrokerReportParser {
                 return result;
             }
 
-            var accountUuid = cache().getAccounts().stream()
-                    .filter(x -> Objects.equals(x.name(), accountName))
+            var accountUuid = resolver.getAccount(accountName)
                     .map(Account::uuid)
-                    .findAny()
                     .orElse(null);
 
             if (accountUuid == null) {
@@ -106,17 +109,13 @@ public class RaiffeisenBrokerReportParser {
                     var dealTime = LocalTime.parse(columnValues.get(CELL_INDEX_DEAL_TIME).toString());
 
                     var currencyName = columnValues.get(CELL_INDEX_CURRENCY_NAME);
-                    var currencyUuid = cache().getCurrencies().stream()
-                            .filter(x -> Objects.equals(x.symbol(), currencyName))
+                    var currencyUuid = resolver.getCurrency(currencyName.toString())
                             .map(Currency::uuid)
-                            .findAny()
                             .orElse(null);
 
                     var isin = columnValues.get(CELL_INDEX_ISIN).toString();
-                    var securityUuid = cache().getExchangeSecurities().stream()
-                            .filter(x -> Objects.equals(x.isin(), isin))
+                    var securityUuid = resolver.getExchangeSecurity(isin)
                             .map(ExchangeSecurity::uuid)
-                            .findAny()
                             .orElse(null);
 
                     var operationType = parseInvestmentOperationType(columnValues.get(CELL_INDEX_OPERATION_TYPE).toString());
@@ -6,6 +6,7 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 import org.panteleyev.money.dto.InvestmentDealType;
 import org.panteleyev.money.dto.InvestmentMarketType;
 import org.panteleyev.money.model.Account;
@@ -24,7 +25,6 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 import static org.panteleyev.money.app.GlobalContext.cache;
 import static org.panteleyev.money.app.investment.ParserUtil.parseInvestmentOperationType;
@@ -53,16 +53,18 @@ public class SberbankBrokerHtmlReportParser {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     public List<InvestmentDeal> parse(String fileName, InputStream inputStream) {
+        return parse(fileName, inputStream, new ReferenceDataResolver(cache()));
+    }
+
+    public List<InvestmentDeal> parse(String fileName, InputStream inputStream, ReferenceDataResolver resolver) {
         var result = new ArrayList<InvestmentDeal>();
 
         try {
             var document = Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "");
 
             var accountName = parseAccountName(fileName);
-            var accountUuid = cache().getAccounts().stream()
-                    .filter(x -> Objects.equals(x.name(), accountName))
+            var accountUuid = resolver.getAccount(accountName)
                     .map(Account::uuid)
-                    .findAny()
                     .orElse(null);
             if (accountUuid == null) {
                 return result;
@@ -91,17 +93,13 @@ public class SberbankBrokerHtmlReportParser {
                 }
 
                 var currencyName = row.get(CELL_INDEX_CURRENCY_NAME).text();
-                var currencyUuid = cache().getCurrencies().stream()
-                        .filter(x -> Objects.equals(x.symbol(), currencyName))
+                var currencyUuid = resolver.getCurrency(currencyName)
                         .map(Currency::uuid)
-                        .findAny()
                         .orElse(null);
 
                 var securityId = row.get(CELL_INDEX_SECURITY_ID).text();
-                var securityUuid = cache().getExchangeSecurities().stream()
-                        .filter(x -> Objects.equals(x.secId(), securityId) || Objects.equals(x.isin(), securityId))
+                var securityUuid = resolver.getExchangeSecurity(securityId)
                         .map(ExchangeSecurity::uuid)
-                        .findAny()
                         .orElse(null);
 
                 var dealDate = LocalDate.parse(row.get(CELL_INDEX_DEAL_DATE).text(), DATE_FORMATTER);
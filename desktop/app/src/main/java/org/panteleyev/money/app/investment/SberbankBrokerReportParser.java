@@ -2,10 +2,7 @@
 // SPDX-License-Identifier: BSD-2-Clause
 package org.panteleyev.money.app.investment;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 import org.panteleyev.money.dto.InvestmentDealType;
 import org.panteleyev.money.dto.InvestmentMarketType;
 import org.panteleyev.money.model.Account;
@@ -13,18 +10,13 @@ import org.panteleyev.money.model.Currency;
 import org.panteleyev.money.model.ExchangeSecurity;
 import org.panteleyev.money.model.InvestmentDeal;
 
-import java.io.IOException;
+import java.io.File;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import static org.panteleyev.money.app.GlobalContext.cache;
-import static org.panteleyev.money.app.investment.ExcelUtil.getCellValueAsString;
 import static org.panteleyev.money.app.investment.ParserUtil.parseInvestmentOperationType;
 
 public class SberbankBrokerReportParser {
@@ -57,107 +49,64 @@ public class SberbankBrokerReportParser {
     );
 
     public List<InvestmentDeal> parse(InputStream inputStream) {
+        return parse(inputStream, new ReferenceDataResolver(cache()));
+    }
+
+    public List<InvestmentDeal> parse(InputStream inputStream, ReferenceDataResolver resolver) {
         var result = new ArrayList<InvestmentDeal>();
+        XlsxSheetReader.read(inputStream, DEALS_SHEET_NAME, row -> parseRow(row, resolver, result));
+        return result;
+    }
 
-        try {
-            var workbook = new XSSFWorkbook(inputStream);
-            if (workbook.getNumberOfSheets() == 0) {
-                return result;
-            }
-
-            // Find deals sheet
-            Sheet deals = null;
-            for (var sheet : workbook) {
-                if (DEALS_SHEET_NAME.equals(sheet.getSheetName())) {
-                    deals = sheet;
-                    break;
-                }
-            }
-            if (deals == null) {
-                return result;
-            }
-
-            result.ensureCapacity(deals.getLastRowNum());
-
-            for (var row : deals) {
-                // Skip first row
-                if (row.getRowNum() == 0) {
-                    continue;
-                }
-
-                var columnValues = new ArrayList<>();
-
-                for (var cell : row) {
-                    columnValues.add(getCellValue(cell));
-                }
-
-                var accountName = getCellValueAsString(row.getCell(CELL_INDEX_ACCOUNT));
-                var accountUuid = cache().getAccounts().stream()
-                        .filter(x -> Objects.equals(x.name(), accountName))
-                        .map(Account::uuid)
-                        .findAny()
-                        .orElse(null);
-
-                if (accountUuid == null) {
-                    // Cannot insert record w/o account
-                    continue;
-                }
-
-                var currencyName = columnValues.get(CELL_INDEX_CURRENCY_NAME);
-                var currencyUuid = cache().getCurrencies().stream()
-                        .filter(x -> Objects.equals(x.symbol(), currencyName))
-                        .map(Currency::uuid)
-                        .findAny()
-                        .orElse(null);
-
-                var securityId = columnValues.get(CELL_INDEX_SECURITY_ID);
-                var securityUuid = cache().getExchangeSecurities().stream()
-                        .filter(x -> Objects.equals(x.secId(), securityId))
-                        .map(ExchangeSecurity::uuid)
-                        .findAny()
-                        .orElse(null);
-
-                var investment = new InvestmentDeal.Builder()
-                        .accountUuid(accountUuid)
-                        .securityUuid(securityUuid)
-                        .currencyUuid(currencyUuid)
-                        .dealNumber(getCellValueAsString(row.getCell(CELL_INDEX_DEAL_NUMBER)))
-                        .dealDate((LocalDateTime) columnValues.get(CELL_INDEX_DEAL_DATE))
-                        .accountingDate((LocalDateTime) columnValues.get(CELL_INDEX_ACCOUNTING_DATE))
-                        .marketType(parseMarketType(columnValues.get(CELL_INDEX_MARKET_TYPE_TYPE).toString()))
-                        .operationType(parseInvestmentOperationType(
-                                columnValues.get(CELL_INDEX_OPERATION_TYPE).toString()))
-                        .securityAmount(((BigDecimal) columnValues.get(CELL_INDEX_SECURITY_AMOUNT)).intValue())
-                        .price((BigDecimal) columnValues.get(CELL_INDEX_PRICE))
-                        .aci((BigDecimal) columnValues.get(CELL_INDEX_ACI))
-                        .dealVolume((BigDecimal) columnValues.get(CELL_INDEX_DEAL_VOLUME))
-                        .rate((BigDecimal) columnValues.get(CELL_INDEX_RATE))
-                        .exchangeFee((BigDecimal) columnValues.get(CELL_INDEX_EXCHANGE_FEE))
-                        .brokerFee((BigDecimal) columnValues.get(CELL_INDEX_BROKER_FEE))
-                        .amount((BigDecimal) columnValues.get(CELL_INDEX_AMOUNT))
-                        .dealType(parseDealType(columnValues.get(CELL_INDEX_DEAL_TYPE).toString()))
-                        .build();
-                result.add(investment);
-            }
-
-            return result;
-        } catch (IOException ex) {
-            throw new UncheckedIOException(ex);
-        }
+    public List<InvestmentDeal> parse(File file, ReferenceDataResolver resolver) {
+        var result = new ArrayList<InvestmentDeal>();
+        XlsxSheetReader.read(file, DEALS_SHEET_NAME, row -> parseRow(row, resolver, result));
+        return result;
     }
 
-    private Object getCellValue(Cell cell) {
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getRichStringCellValue().getString();
-            case NUMERIC -> {
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    yield cell.getLocalDateTimeCellValue();
-                } else {
-                    yield BigDecimal.valueOf(cell.getNumericCellValue());
-                }
-            }
-            default -> "";
-        };
+    private static void parseRow(XlsxSheetReader.Row row, ReferenceDataResolver resolver, List<InvestmentDeal> result) {
+        // Skip first row
+        if (row.getRowNumber() == 0) {
+            return;
+        }
+
+        var accountUuid = resolver.getAccount(row.getString(CELL_INDEX_ACCOUNT))
+                .map(Account::uuid)
+                .orElse(null);
+
+        if (accountUuid == null) {
+            // Cannot insert record w/o account
+            return;
+        }
+
+        var currencyUuid = resolver.getCurrency(row.getString(CELL_INDEX_CURRENCY_NAME))
+                .map(Currency::uuid)
+                .orElse(null);
+
+        var securityUuid = resolver.getExchangeSecurity(row.getString(CELL_INDEX_SECURITY_ID))
+                .map(ExchangeSecurity::uuid)
+                .orElse(null);
+
+        var investment = new InvestmentDeal.Builder()
+                .accountUuid(accountUuid)
+                .securityUuid(securityUuid)
+                .currencyUuid(currencyUuid)
+                .dealNumber(row.getString(CELL_INDEX_DEAL_NUMBER))
+                .dealDate(row.getDateTime(CELL_INDEX_DEAL_DATE))
+                .accountingDate(row.getDateTime(CELL_INDEX_ACCOUNTING_DATE))
+                .marketType(parseMarketType(row.getString(CELL_INDEX_MARKET_TYPE_TYPE)))
+                .operationType(parseInvestmentOperationType(row.getString(CELL_INDEX_OPERATION_TYPE)))
+                .securityAmount(row.getDecimal(CELL_INDEX_SECURITY_AMOUNT).intValue())
+                .price(row.getDecimal(CELL_INDEX_PRICE))
+                .aci(row.getDecimal(CELL_INDEX_ACI))
+                .dealVolume(row.getDecimal(CELL_INDEX_DEAL_VOLUME))
+                .rate(row.getDecimal(CELL_INDEX_RATE))
+                .exchangeFee(row.getDecimal(CELL_INDEX_EXCHANGE_FEE))
+                .brokerFee(row.getDecimal(CELL_INDEX_BROKER_FEE))
+                .amount(row.getDecimal(CELL_INDEX_AMOUNT))
+                .dealType(parseDealType(row.getString(CELL_INDEX_DEAL_TYPE)))
+                .build();
+        result.add(investment);
     }
 
     private static InvestmentMarketType parseMarketType(String title) {
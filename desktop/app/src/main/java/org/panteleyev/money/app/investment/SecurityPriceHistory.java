@@ -0,0 +1,123 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.model.ExchangeSecurity;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.panteleyev.money.app.exchange.Definitions.STOCK_BONDS;
+
+/**
+ * Security prices reconstructed from known points: average prices of deals and today's market value. These are not
+ * market quotes, price of a day between known points is the last known price adjusted for splits made since then, so
+ * a period without deals shows the price of the last deal. Prices known on the date of a split are considered to be
+ * made before the split.
+ */
+final class SecurityPriceHistory implements PortfolioValuation.PriceSource {
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private final Map<UUID, TreeMap<LocalDate, BigDecimal>> prices = new HashMap<>();
+    private final Map<UUID, TreeMap<LocalDate, List<ExchangeSecuritySplit>>> splits = new HashMap<>();
+
+    SecurityPriceHistory(Collection<ExchangeSecuritySplit> splits) {
+        for (var split : splits) {
+            this.splits.computeIfAbsent(split.securityUuid(), _ -> new TreeMap<>())
+                    .computeIfAbsent(split.date(), _ -> new ArrayList<>())
+                    .add(split);
+        }
+    }
+
+    /**
+     * Builds price history from deal prices and current market values of securities.
+     *
+     * @param deals      deals, price of a day is the average price of deals made on that day
+     * @param splits     splits
+     * @param securities securities, market value becomes the price of the specified date
+     * @param today      date of market values
+     * @return price history
+     */
+    static SecurityPriceHistory of(
+            Collection<InvestmentDeal> deals,
+            Collection<ExchangeSecuritySplit> splits,
+            Collection<ExchangeSecurity> securities,
+            LocalDate today)
+    {
+        var history = new SecurityPriceHistory(splits);
+
+        var volumes = new HashMap<UUID, TreeMap<LocalDate, BigDecimal[]>>();
+        for (var deal : deals) {
+            if (deal.securityAmount() == 0 || deal.dealVolume() == null) {
+                continue;
+            }
+            var sums = volumes.computeIfAbsent(deal.securityUuid(), _ -> new TreeMap<>())
+                    .computeIfAbsent(deal.dealDate().toLocalDate(), _ -> new BigDecimal[]{
+                            BigDecimal.ZERO, BigDecimal.ZERO
+                    });
+            sums[0] = sums[0].add(deal.dealVolume());
+            sums[1] = sums[1].add(BigDecimal.valueOf(deal.securityAmount()));
+        }
+        volumes.forEach((securityUuid, days) -> days.forEach((date, sums) ->
+                history.addPrice(securityUuid, date, sums[0].divide(sums[1], MathContext.DECIMAL64))));
+
+        for (var security : securities) {
+            if (security.marketValue() == null) {
+                continue;
+            }
+            var price = STOCK_BONDS.equals(security.group()) ?
+                    security.faceValue().multiply(security.marketValue()).divide(ONE_HUNDRED, RoundingMode.HALF_UP) :
+                    security.marketValue();
+            history.addPrice(security.uuid(), today, price);
+        }
+        return history;
+    }
+
+    /**
+     * Sets price of one unit of security, replaces previous price of the same date.
+     *
+     * @param securityUuid security uuid
+     * @param date         date
+     * @param price        price
+     */
+    void addPrice(UUID securityUuid, LocalDate date, BigDecimal price) {
+        prices.computeIfAbsent(securityUuid, _ -> new TreeMap<>()).put(date, price);
+    }
+
+    @Override
+    public Optional<BigDecimal> getPrice(UUID securityUuid, LocalDate date) {
+        var securityPrices = prices.get(securityUuid);
+        if (securityPrices == null) {
+            return Optional.empty();
+        }
+        var entry = securityPrices.floorEntry(date);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        var price = entry.getValue();
+        var securitySplits = splits.get(securityUuid);
+        if (securitySplits != null) {
+            for (var daySplits : securitySplits.subMap(entry.getKey(), true, date, true).values()) {
+                for (var split : daySplits) {
+                    price = split.type() == ExchangeSecuritySplitType.SPLIT ?
+                            price.divide(split.rate(), MathContext.DECIMAL64) : price.multiply(split.rate());
+                }
+            }
+        }
+        return Optional.of(price);
+    }
+}
@@ -0,0 +1,323 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of a single XLSX sheet. Sheet XML is parsed with SAX, cells of the current row are kept as raw
+ * values and decoded only when requested, so memory does not depend on the number of rows.
+ */
+final class XlsxSheetReader {
+    /**
+     * Row of the sheet. Row object is reused and must not be kept after the consumer returns.
+     */
+    static final class Row {
+        private static final int INITIAL_COLUMNS = 32;
+
+        private final ReadOnlySharedStringsTable strings;
+        private final StylesTable styles;
+        private final DataFormatter formatter = new DataFormatter();
+        private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+        private int rowNumber;
+        private int columnCount;
+        private String[] values = new String[INITIAL_COLUMNS];
+        private String[] types = new String[INITIAL_COLUMNS];
+        private int[] styleIndexes = new int[INITIAL_COLUMNS];
+
+        private Row(ReadOnlySharedStringsTable strings, StylesTable styles) {
+            this.strings = strings;
+            this.styles = styles;
+        }
+
+        /**
+         * Returns zero based row number.
+         *
+         * @return row number
+         */
+        int getRowNumber() {
+            return rowNumber;
+        }
+
+        /**
+         * Returns cell value as displayed by Excel. Date cells stored as ISO 8601 text are returned as is.
+         *
+         * @param column zero based column index
+         * @return cell value, empty string for missing cells
+         */
+        String getString(int column) {
+            if (column >= columnCount || values[column] == null) {
+                return "";
+            }
+            var value = values[column];
+            return switch (types[column]) {
+                case "s" -> strings.getItemAt(Integer.parseInt(value)).getString();
+                case "b" -> "1".equals(value) ? "TRUE" : "FALSE";
+                case "n" -> {
+                    var style = styles == null ? null : styles.getStyleAt(styleIndexes[column]);
+                    yield style == null ?
+                            formatter.formatRawCellContents(Double.parseDouble(value), 0, "General") :
+                            formatter.formatRawCellContents(Double.parseDouble(value), style.getDataFormat(),
+                                    style.getDataFormatString());
+                }
+                // inlineStr, str, e, d
+                default -> value;
+            };
+        }
+
+        BigDecimal getDecimal(int column) {
+            return isNumeric(column) ? BigDecimal.valueOf(Double.parseDouble(values[column])) : null;
+        }
+
+        /**
+         * Returns date of a numeric cell with date format or of a date cell stored as ISO 8601 text.
+         *
+         * @param column zero based column index
+         * @return date, null for missing cells and cells of other types
+         */
+        LocalDateTime getDateTime(int column) {
+            if (column >= columnCount || values[column] == null) {
+                return null;
+            }
+            if (types[column].equals("d")) {
+                return parseIsoDate(values[column]);
+            }
+            return isNumeric(column) && isDateStyle(styleIndexes[column]) ?
+                    DateUtil.getLocalDateTime(Double.parseDouble(values[column])) : null;
+        }
+
+        private static LocalDateTime parseIsoDate(String value) {
+            try {
+                if (value.indexOf('T') == -1) {
+                    return LocalDate.parse(value).atStartOfDay();
+                }
+                // Time zone, if any, is ignored as in numeric dates
+                return LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+            } catch (DateTimeParseException _) {
+                return null;
+            }
+        }
+
+        private boolean isNumeric(int column) {
+            return column < columnCount && values[column] != null && types[column].equals("n");
+        }
+
+        private boolean isDateStyle(int styleIndex) {
+            if (styles == null) {
+                return false;
+            }
+            return dateStyles.computeIfAbsent(styleIndex, _ -> {
+                var style = styles.getStyleAt(styleIndex);
+                return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+            });
+        }
+
+        private void clear(int rowNumber) {
+            this.rowNumber = rowNumber;
+            Arrays.fill(values, 0, columnCount, null);
+            columnCount = 0;
+        }
+
+        private void set(int column, String type, int styleIndex, String value) {
+            if (column >= values.length) {
+                var length = Math.max(column + 1, values.length * 2);
+                values = Arrays.copyOf(values, length);
+                types = Arrays.copyOf(types, length);
+                styleIndexes = Arrays.copyOf(styleIndexes, length);
+            }
+            for (var i = columnCount; i < column; i++) {
+                values[i] = null;
+            }
+            values[column] = value;
+            types[column] = type;
+            styleIndexes[column] = styleIndex;
+            columnCount = Math.max(columnCount, column + 1);
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+        private final Row row;
+        private final Consumer<Row> consumer;
+        private final StringBuilder value = new StringBuilder();
+
+        private int nextRowNumber;
+        private int nextColumn;
+        private int column;
+        private String type;
+        private int styleIndex;
+        private boolean inValue;
+
+        SheetHandler(Row row, Consumer<Row> consumer) {
+            this.row = row;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    var r = attributes.getValue("r");
+                    var rowNumber = r == null ? nextRowNumber : Integer.parseInt(r) - 1;
+                    nextRowNumber = rowNumber + 1;
+                    nextColumn = 0;
+                    row.clear(rowNumber);
+                }
+                case "c" -> {
+                    var reference = attributes.getValue("r");
+                    column = reference == null ? nextColumn : getColumnIndex(reference);
+                    nextColumn = column + 1;
+                    var t = attributes.getValue("t");
+                    type = t == null ? "n" : t;
+                    var s = attributes.getValue("s");
+                    styleIndex = s == null ? 0 : Integer.parseInt(s);
+                    value.setLength(0);
+                }
+                // Inline string may consist of several runs
+                case "v", "t" -> inValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    if (!value.isEmpty()) {
+                        row.set(column, type, styleIndex, value.toString());
+                    }
+                }
+                case "row" -> consumer.accept(row);
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+    }
+
+    /**
+     * Reads rows of the sheet. Workbook parts are read from the file on demand. Rows without cells may be skipped.
+     *
+     * @param file      workbook
+     * @param sheetName sheet name
+     * @param consumer  row consumer
+     * @return true if sheet was found
+     */
+    static boolean read(File file, String sheetName, Consumer<Row> consumer) {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            return read(pkg, sheetName, consumer);
+        } catch (InvalidFormatException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            // Read only package must not be saved
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    /**
+     * Reads rows of the sheet. The whole workbook is loaded into memory, use {@link #read(File, String, Consumer)}
+     * for files. Rows without cells may be skipped.
+     *
+     * @param inputStream workbook
+     * @param sheetName   sheet name
+     * @param consumer    row consumer
+     * @return true if sheet was found
+     */
+    static boolean read(InputStream inputStream, String sheetName, Consumer<Row> consumer) {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(inputStream);
+            return read(pkg, sheetName, consumer);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InvalidFormatException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            // Package was opened from a stream, close it without saving
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private static boolean read(OPCPackage pkg, String sheetName, Consumer<Row> consumer) {
+        try {
+            var reader = new XSSFReader(pkg);
+            var strings = new ReadOnlySharedStringsTable(pkg);
+            var styles = reader.getStylesTable();
+
+            var sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (var sheet = sheets.next()) {
+                    if (!sheetName.equals(sheets.getSheetName())) {
+                        continue;
+                    }
+                    var xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(new SheetHandler(new Row(strings, styles), consumer));
+                    xmlReader.parse(new InputSource(sheet));
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    static int getColumnIndex(String cellReference) {
+        var column = 0;
+        for (var i = 0; i < cellReference.length(); i++) {
+            var c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private XlsxSheetReader() {
+    }
+}
@@ -0,0 +1,165 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.exchange;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.panteleyev.moex.Moex;
+import org.panteleyev.money.model.ExchangeSecurity;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class QuoteRefreshSchedulerTest {
+    private static final String SHARES_BOARD = "/iss/engines/stock/markets/shares/boards/tqbr/securities.xml";
+    private static final String BONDS_BOARD = "/iss/engines/stock/markets/bonds/boards/tqob/securities.xml";
+
+    private static final Map<String, String> RESPONSES = Map.of(
+            "/iss/securities/SBER.xml", description("SBER", "shares", "TQBR"),
+            "/iss/securities/GAZP.xml", description("GAZP", "shares", "TQBR"),
+            "/iss/securities/SU26238RMFS4.xml", description("SU26238RMFS4", "bonds", "TQOB"),
+            SHARES_BOARD, """
+                    <document>
+                        <data id="securities"><rows>
+                            <row SECID="SBER" BOARDID="TQBR" PREVLEGALCLOSEPRICE="280.23"/>
+                            <row SECID="GAZP" BOARDID="TQBR" PREVLEGALCLOSEPRICE=""/>
+                        </rows></data>
+                        <data id="marketdata"><rows>
+                            <row SECID="SBER" BOARDID="TQBR" MARKETPRICE="279.72"/>
+                        </rows></data>
+                    </document>
+                    """
+    );
+
+    private static String description(String secId, String market, String board) {
+        return """
+                <document>
+                    <data id="description"><rows>
+                        <row name="SECID" value="%s"/>
+                    </rows></data>
+                    <data id="boards"><rows>
+                        <row boardid="%s" market="%s" engine="stock" is_primary="1"/>
+                    </rows></data>
+                </document>
+                """.formatted(secId, board, market);
+    }
+
+    private ServerSocket serverSocket;
+    private Moex moex;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+        moex = new Moex.Builder()
+                .baseUrl("http://" + serverSocket.getInetAddress().getHostAddress() + ":"
+                        + serverSocket.getLocalPort() + "/iss")
+                .build();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        moex.close();
+        serverSocket.close();
+    }
+
+    private static ExchangeSecurity security(String secId) {
+        return new ExchangeSecurity.Builder()
+                .secId(secId)
+                .marketValue(BigDecimal.TEN)
+                .build();
+    }
+
+    @Test
+    public void testFailedBoardRequest() throws Exception {
+        var sber = security("SBER");
+        var gazp = security("GAZP");
+        var bond = security("SU26238RMFS4");
+
+        try (var scheduler = new QuoteRefreshScheduler(moex, 2, new TokenBucket(10, 1000))) {
+            var updated = scheduler.refresh(List.of(sber, bond, gazp)).get();
+
+            // Request of the bonds board fails, the bond is omitted instead of getting empty market data
+            assertEquals(List.of(sber.uuid(), gazp.uuid()), updated.stream().map(ExchangeSecurity::uuid).toList());
+            assertEquals(new BigDecimal("280.23"), updated.getFirst().marketValue());
+            // GAZP is not traded on the board
+            assertEquals(BigDecimal.ZERO, updated.getLast().marketValue());
+            assertNull(updated.getLast().accruedInterest());
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException _) {
+                return;
+            }
+        }
+    }
+
+    // Minimal HTTP/1.1 server, unknown paths fail with server error
+    private static void serve(Socket socket) {
+        try (socket;
+             var in = new BufferedInputStream(socket.getInputStream());
+             var out = socket.getOutputStream())
+        {
+            String requestLine;
+            while ((requestLine = readLine(in)) != null) {
+                if (requestLine.isEmpty()) {
+                    continue;
+                }
+                String header;
+                do {
+                    header = readLine(in);
+                } while (header != null && !header.isEmpty());
+
+                var path = requestLine.split(" ")[1];
+                var queryIndex = path.indexOf('?');
+                if (queryIndex >= 0) {
+                    path = path.substring(0, queryIndex);
+                }
+
+                var response = RESPONSES.get(path);
+                var body = response == null ? new byte[0] : response.getBytes(UTF_8);
+                out.write(("HTTP/1.1 " + (response == null ? "500 Internal Server Error" : "200 OK") + "\r\n"
+                        + "Content-Type: application/xml\r\n"
+                        + "Content-Length: " + body.length + "\r\n"
+                        + "\r\n").getBytes(US_ASCII));
+                out.write(body);
+                out.flush();
+            }
+        } catch (IOException _) {
+            // Connection closed by client
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return line.size() == 0 ? null : line.toString(US_ASCII);
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(US_ASCII);
+    }
+}
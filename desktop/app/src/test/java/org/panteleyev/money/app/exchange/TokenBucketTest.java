@@ -0,0 +1,57 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.exchange;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long now = 1_000_000 * MS;
+
+    @Test
+    public void testReserve() {
+        // 2 tokens, one token per 100 ms
+        var bucket = new TokenBucket(2, 10, () -> now);
+
+        // Burst
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        // Reservations are served in order
+        assertEquals(100 * MS, bucket.reserve());
+        assertEquals(200 * MS, bucket.reserve());
+
+        now += 250 * MS;
+        assertEquals(50 * MS, bucket.reserve());
+
+        // Bucket does not grow over its capacity
+        now += 10_000 * MS;
+        assertEquals(0, bucket.reserve());
+        assertEquals(0, bucket.reserve());
+        assertEquals(100 * MS, bucket.reserve());
+    }
+
+    @Test
+    public void testAcquire() throws Exception {
+        var bucket = new TokenBucket(1, 100);
+        var start = System.nanoTime();
+        for (var i = 0; i < 6; i++) {
+            bucket.acquire();
+        }
+        // First token is available immediately, the rest come every 10 ms
+        var elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 50 * MS - MS, Long.toString(elapsed));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -0,0 +1,121 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FixedDecimalTest {
+    private static List<Arguments> testDivideArguments() {
+        return List.of(
+                Arguments.of("10", "4"),
+                Arguments.of("10", "3"),
+                Arguments.of("-10", "4"),
+                Arguments.of("10", "-4"),
+                Arguments.of("-10", "-4"),
+                Arguments.of("1.25", "0.5"),
+                Arguments.of("7", "1E+1"),
+                Arguments.of("5", "1E+1"),
+                Arguments.of("15.00", "2"),
+                Arguments.of("922337203685477580", "0.001")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("testDivideArguments")
+    public void testDivide(String dividend, String divisor) {
+        var expected = new BigDecimal(dividend).divide(new BigDecimal(divisor), RoundingMode.HALF_UP);
+        var actual = new FixedDecimal().add(new BigDecimal(dividend))
+                .divide(new BigDecimal(divisor), RoundingMode.HALF_UP)
+                .toBigDecimal();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDivisionByZero() {
+        assertThrows(ArithmeticException.class,
+                () -> new FixedDecimal().add(1).divide(BigDecimal.ZERO, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void testOverflow() {
+        var expected = BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.valueOf(Long.MAX_VALUE))
+                .multiply(new BigDecimal("1.5"))
+                .subtract(new BigDecimal("0.000000000000000000001"));
+        var actual = new FixedDecimal().add(Long.MAX_VALUE).add(Long.MAX_VALUE)
+                .multiply(new BigDecimal("1.5"))
+                .subtract(new BigDecimal("0.000000000000000000001"))
+                .toBigDecimal();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testUnscaledValue() {
+        // Unscaled values of up to 15 digits are restored from double, longer ones from BigInteger
+        var random = new Random(3);
+        for (var n = 0; n < 100_000; n++) {
+            var digits = 1 + random.nextInt(18);
+            var unscaled = random.nextLong() % (long) Math.pow(10, digits);
+            var value = BigDecimal.valueOf(unscaled, 1 + random.nextInt(digits));
+            assertEquals(value, new FixedDecimal().add(value).toBigDecimal());
+            assertEquals(value.negate(), new FixedDecimal().subtract(value).toBigDecimal());
+        }
+        for (var value : List.of("0.999999999999999", "999999999999.999", "-0.000000000000001", "0.9999999999999999")) {
+            assertEquals(new BigDecimal(value), new FixedDecimal().add(new BigDecimal(value)).toBigDecimal());
+        }
+    }
+
+    @Test
+    public void testSameAsBigDecimal() {
+        var random = new Random(1);
+        for (var n = 0; n < 1000; n++) {
+            var expected = BigDecimal.ZERO;
+            var actual = new FixedDecimal();
+            for (var i = 0; i < 50; i++) {
+                var operand = switch (random.nextInt(4)) {
+                    case 0 -> BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(7));
+                    // Values with negative scale come from BigDecimal.valueOf(double)
+                    case 1 -> BigDecimal.valueOf(random.nextInt(1000) * 1e9);
+                    case 2 -> BigDecimal.valueOf(random.nextLong(), random.nextInt(20));
+                    default -> BigDecimal.valueOf(1 + random.nextInt(10));
+                };
+                switch (random.nextInt(10)) {
+                    case 0 -> {
+                        expected = expected.multiply(operand);
+                        actual.multiply(operand);
+                    }
+                    case 1 -> {
+                        if (operand.signum() != 0) {
+                            expected = expected.divide(operand, RoundingMode.HALF_UP);
+                            actual.divide(operand, RoundingMode.HALF_UP);
+                        }
+                    }
+                    case 2, 3, 4 -> {
+                        expected = expected.subtract(operand);
+                        actual.subtract(operand);
+                    }
+                    case 5 -> {
+                        var units = random.nextInt(1000);
+                        expected = expected.add(BigDecimal.valueOf(units));
+                        actual.add(units);
+                    }
+                    default -> {
+                        expected = expected.add(operand);
+                        actual.add(operand);
+                    }
+                }
+                assertEquals(expected, actual.toBigDecimal());
+            }
+        }
+    }
+}
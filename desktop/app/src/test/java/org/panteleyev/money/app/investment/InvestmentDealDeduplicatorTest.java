@@ -0,0 +1,45 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InvestmentDealDeduplicatorTest {
+    private static final UUID ACCOUNT_1 = UUID.randomUUID();
+    private static final UUID ACCOUNT_2 = UUID.randomUUID();
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private static InvestmentDeal newDeal(UUID accountUuid, String dealNumber, LocalDateTime dealDate) {
+        return new InvestmentDeal.Builder()
+                .accountUuid(accountUuid)
+                .dealNumber(dealNumber)
+                .dealDate(dealDate)
+                .build();
+    }
+
+    @Test
+    public void testFilter() {
+        var known = newDeal(ACCOUNT_1, "1", DATE);
+        var deduplicator = new InvestmentDealDeduplicator(List.of(known));
+
+        var sameAsKnown = newDeal(ACCOUNT_1, "1", DATE);
+        var otherAccount = newDeal(ACCOUNT_2, "1", DATE);
+        // Database would reject the deal with the same number as well
+        var otherDate = newDeal(ACCOUNT_1, "1", DATE.plusDays(1));
+        var newDeal = newDeal(ACCOUNT_1, "2", DATE);
+
+        assertEquals(List.of(otherAccount, newDeal),
+                deduplicator.filter(List.of(sameAsKnown, otherAccount, otherDate, newDeal, newDeal)));
+
+        // Overlapping report
+        var nextDeal = newDeal(ACCOUNT_1, "3", DATE);
+        assertEquals(List.of(nextDeal), deduplicator.filter(List.of(newDeal, otherAccount, nextDeal)));
+    }
+}
@@ -0,0 +1,240 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.dto.InvestmentOperationType;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class InvestmentPositionsTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+    private static final List<UUID> SECURITIES = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+    private static InvestmentDeal newDeal(Random random) {
+        return newDeal(random, UUID.randomUUID());
+    }
+
+    private static InvestmentDeal newDeal(Random random, UUID uuid) {
+        var purchase = random.nextInt(3) > 0;
+        return new InvestmentDeal.Builder()
+                .uuid(uuid)
+                .securityUuid(SECURITIES.get(random.nextInt(SECURITIES.size())))
+                .dealDate(START.plusDays(random.nextInt(100)).atTime(10, 0))
+                .operationType(purchase ? InvestmentOperationType.PURCHASE : InvestmentOperationType.SELL)
+                .securityAmount(1 + random.nextInt(50))
+                .exchangeFee(BigDecimal.valueOf(random.nextInt(100), random.nextInt(3)))
+                .brokerFee(BigDecimal.valueOf(random.nextInt(100), random.nextInt(3)))
+                .amount(BigDecimal.valueOf(random.nextInt(100000), random.nextInt(3)))
+                .build();
+    }
+
+    private static ExchangeSecuritySplit newSplit(Random random) {
+        return new ExchangeSecuritySplit.Builder()
+                .securityUuid(SECURITIES.get(random.nextInt(SECURITIES.size())))
+                .type(random.nextBoolean() ? ExchangeSecuritySplitType.SPLIT : ExchangeSecuritySplitType.REVERSE_SPLIT)
+                .date(START.plusDays(random.nextInt(100)))
+                .rate(random.nextBoolean() ? BigDecimal.valueOf(2 + random.nextInt(3)) : new BigDecimal("1.5"))
+                .build();
+    }
+
+    // Straightforward fold of all deals and splits in date order
+    private static Map<UUID, BigDecimal[]> fold(List<InvestmentDeal> deals, List<ExchangeSecuritySplit> splits) {
+        var result = new HashMap<UUID, BigDecimal[]>();
+        Stream.concat(deals.stream(), splits.stream()).sorted(new DealAnsSplitComparator()).forEach(obj -> {
+            switch (obj) {
+                case InvestmentDeal deal -> {
+                    var values = result.computeIfAbsent(deal.securityUuid(),
+                            _ -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                                    BigDecimal.ZERO});
+                    var purchase = deal.operationType() == InvestmentOperationType.PURCHASE;
+                    var amount = BigDecimal.valueOf(deal.securityAmount());
+                    values[0] = values[0].add(purchase ? amount : amount.negate());
+                    values[1] = values[1].add(deal.exchangeFee());
+                    values[2] = values[2].add(deal.brokerFee());
+                    values[3] = values[3].add(purchase ? amount : BigDecimal.ZERO);
+                    values[4] = values[4].add(purchase ? deal.amount() : BigDecimal.ZERO);
+                }
+                case ExchangeSecuritySplit split -> {
+                    var values = result.get(split.securityUuid());
+                    if (values != null) {
+                        values[0] = correct(values[0], split);
+                        values[3] = correct(values[3], split);
+                    }
+                }
+                default -> throw new IllegalStateException();
+            }
+        });
+        return result;
+    }
+
+    private static BigDecimal correct(BigDecimal amount, ExchangeSecuritySplit split) {
+        return split.type() == ExchangeSecuritySplitType.SPLIT ?
+                amount.multiply(split.rate()) : amount.divide(split.rate(), RoundingMode.HALF_UP);
+    }
+
+    private static void assertPositions(List<InvestmentDeal> deals, List<ExchangeSecuritySplit> splits,
+            InvestmentPositions positions)
+    {
+        var expected = fold(deals, splits);
+        var actual = positions.getPositions();
+        assertEquals(expected.size(), actual.size());
+        // Values are compared including scale
+        for (var position : actual) {
+            var values = expected.get(position.securityUuid());
+            assertEquals(values[0], position.securityAmount());
+            assertEquals(values[1], position.totalExchangeFee());
+            assertEquals(values[2], position.totalBrokerFee());
+            assertEquals(values[3], position.totalPurchaseAmount());
+            assertEquals(values[4], position.totalPurchaseValue());
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        var random = new Random(1);
+        var deals = new ArrayList<InvestmentDeal>();
+        for (var i = 0; i < 200; i++) {
+            deals.add(newDeal(random));
+        }
+        var splits = new ArrayList<ExchangeSecuritySplit>();
+        for (var i = 0; i < 3; i++) {
+            splits.add(newSplit(random));
+        }
+
+        var positions = new InvestmentPositions(deals, splits);
+        assertPositions(deals, splits, positions);
+
+        for (var i = 0; i < 300; i++) {
+            switch (random.nextInt(10)) {
+                case 0 -> {
+                    var split = newSplit(random);
+                    splits.add(split);
+                    positions.updateSplits(List.of(), List.of(split));
+                }
+                case 1 -> {
+                    if (!splits.isEmpty()) {
+                        var split = splits.remove(random.nextInt(splits.size()));
+                        positions.updateSplits(List.of(split), List.of());
+                    }
+                }
+                case 2, 3, 4 -> {
+                    var deal = newDeal(random);
+                    deals.add(deal);
+                    positions.updateDeals(List.of(), List.of(deal));
+                }
+                case 5, 6 -> {
+                    var deal = deals.remove(random.nextInt(deals.size()));
+                    positions.updateDeals(List.of(deal), List.of());
+                }
+                default -> {
+                    var index = random.nextInt(deals.size());
+                    var old = deals.get(index);
+                    var updated = newDeal(random, old.uuid());
+                    deals.set(index, updated);
+                    positions.updateDeals(List.of(old), List.of(updated));
+                }
+            }
+            assertPositions(deals, splits, positions);
+        }
+    }
+
+    @Test
+    public void testLargeDealList() {
+        var random = new Random(2);
+        var deals = new ArrayList<InvestmentDeal>(100_000);
+        for (var i = 0; i < 100_000; i++) {
+            deals.add(newDeal(random));
+        }
+        var splits = List.of(newSplit(random), newSplit(random), newSplit(random));
+
+        assertPositions(deals, splits, new InvestmentPositions(deals, splits));
+    }
+
+    // Bytes allocated by the current thread, the module does not require jdk.management so the bean is used
+    // reflectively
+    private static long getAllocatedBytes() {
+        try {
+            var bean = Class.forName("java.lang.management.ManagementFactory")
+                    .getMethod("getThreadMXBean")
+                    .invoke(null);
+            return (long) Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getCurrentThreadAllocatedBytes")
+                    .invoke(bean);
+        } catch (ReflectiveOperationException | RuntimeException _) {
+            return -1;
+        }
+    }
+
+    @Test
+    public void testTotalsAllocation() {
+        var random = new Random(2);
+        var deals = new ArrayList<InvestmentDeal>(100_000);
+        for (var i = 0; i < 100_000; i++) {
+            deals.add(newDeal(random));
+        }
+        assumeTrue(getAllocatedBytes() >= 0);
+
+        var start = getAllocatedBytes();
+        var fixed = new FixedDecimal();
+        for (var deal : deals) {
+            fixed.add(deal.amount()).add(deal.exchangeFee()).add(deal.brokerFee());
+        }
+        var middle = getAllocatedBytes();
+        var sum = BigDecimal.ZERO;
+        for (var deal : deals) {
+            sum = sum.add(deal.amount()).add(deal.exchangeFee()).add(deal.brokerFee());
+        }
+        var end = getAllocatedBytes();
+
+        assertEquals(sum, fixed.toBigDecimal());
+        // BigDecimal fold allocates a number per addition, FixedDecimal allocates nothing but the measurement itself
+        var fixedBytes = middle - start;
+        var bigDecimalBytes = end - middle;
+        assertTrue(fixedBytes * 1000 < bigDecimalBytes,
+                "FixedDecimal: " + fixedBytes + " bytes, BigDecimal: " + bigDecimalBytes + " bytes");
+    }
+
+    @Test
+    public void testScaleAfterRemoval() {
+        var security = SECURITIES.getFirst();
+        var first = new InvestmentDeal.Builder()
+                .securityUuid(security)
+                .dealDate(START.atTime(10, 0))
+                .operationType(InvestmentOperationType.PURCHASE)
+                .securityAmount(10)
+                .exchangeFee(new BigDecimal("1"))
+                .brokerFee(new BigDecimal("2"))
+                .amount(new BigDecimal("100"))
+                .build();
+        var second = new InvestmentDeal.Builder()
+                .securityUuid(security)
+                .dealDate(START.plusDays(1).atTime(10, 0))
+                .operationType(InvestmentOperationType.PURCHASE)
+                .securityAmount(5)
+                .exchangeFee(new BigDecimal("0.125"))
+                .brokerFee(new BigDecimal("0.25"))
+                .amount(new BigDecimal("50.5"))
+                .build();
+
+        var positions = new InvestmentPositions(List.of(first, second), List.of());
+        positions.updateDeals(List.of(second), List.of());
+        assertPositions(List.of(first), List.of(), positions);
+    }
+}
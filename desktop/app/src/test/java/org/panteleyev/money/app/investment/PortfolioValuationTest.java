@@ -0,0 +1,140 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.dto.InvestmentOperationType;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PortfolioValuationTest {
+    private static final UUID ACCOUNT = UUID.randomUUID();
+    private static final UUID OTHER_ACCOUNT = UUID.randomUUID();
+    private static final UUID SECURITY_1 = UUID.randomUUID();
+    private static final UUID SECURITY_2 = UUID.randomUUID();
+    private static final LocalDate START = LocalDate.of(2022, 1, 1);
+
+    // Price grows by one each day
+    private static final PortfolioValuation.PriceSource PRICES = (securityUuid, date) ->
+            Optional.of(BigDecimal.valueOf(securityUuid.equals(SECURITY_1) ? 100 : 10)
+                    .add(BigDecimal.valueOf(date.toEpochDay() - START.toEpochDay())));
+
+    private static InvestmentDeal newDeal(UUID accountUuid, UUID securityUuid, LocalDate date, int amount) {
+        return new InvestmentDeal.Builder()
+                .accountUuid(accountUuid)
+                .securityUuid(securityUuid)
+                .dealDate(date.atTime(12, 0))
+                .operationType(amount > 0 ? InvestmentOperationType.PURCHASE : InvestmentOperationType.SELL)
+                .securityAmount(Math.abs(amount))
+                .build();
+    }
+
+    private static ExchangeSecuritySplit newSplit(UUID securityUuid, LocalDate date, int rate) {
+        return new ExchangeSecuritySplit.Builder()
+                .securityUuid(securityUuid)
+                .type(ExchangeSecuritySplitType.SPLIT)
+                .date(date)
+                .rate(BigDecimal.valueOf(rate))
+                .build();
+    }
+
+    private static void assertSeries(List<PortfolioValuation.DailyValue> expected,
+            List<PortfolioValuation.DailyValue> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (var i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).date(), actual.get(i).date());
+            assertEquals(0, expected.get(i).value().compareTo(actual.get(i).value()), expected.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testSeries() {
+        var buyDate = LocalDate.of(2022, 1, 15);
+        var splitDate = LocalDate.of(2022, 2, 10);
+        var sellDate = LocalDate.of(2022, 3, 5);
+
+        var valuation = new PortfolioValuation(
+                List.of(
+                        newDeal(ACCOUNT, SECURITY_1, buyDate, 10),
+                        newDeal(ACCOUNT, SECURITY_1, splitDate, 2),
+                        newDeal(ACCOUNT, SECURITY_1, sellDate, -4),
+                        newDeal(OTHER_ACCOUNT, SECURITY_1, buyDate, 1000)
+                ),
+                List.of(newSplit(SECURITY_1, splitDate, 2)),
+                PRICES
+        );
+        assertEquals(Set.of(ACCOUNT, OTHER_ACCOUNT), valuation.getAccounts());
+
+        var series = valuation.getSeries(ACCOUNT, LocalDate.of(2022, 1, 14), LocalDate.of(2022, 3, 31));
+        assertEquals(77, series.size());
+        assertEquals(0, series.getFirst().value().signum());
+        for (var dailyValue : series) {
+            var date = dailyValue.date();
+            var amount = date.isBefore(buyDate) ? 0 : date.isBefore(splitDate) ? 10 : date.isBefore(sellDate) ? 24 : 20;
+            var expected = PRICES.getPrice(SECURITY_1, date).orElseThrow().multiply(BigDecimal.valueOf(amount));
+            assertEquals(0, expected.compareTo(dailyValue.value()), date.toString());
+        }
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        var random = new Random(1);
+        var deals = new ArrayList<InvestmentDeal>();
+        for (var i = 0; i < 300; i++) {
+            deals.add(newDeal(random.nextBoolean() ? ACCOUNT : OTHER_ACCOUNT,
+                    random.nextBoolean() ? SECURITY_1 : SECURITY_2,
+                    START.plusDays(random.nextInt(730)),
+                    random.nextInt(3) > 0 ? 1 + random.nextInt(100) : -1 - random.nextInt(50)));
+        }
+        var splits = new ArrayList<>(List.of(newSplit(SECURITY_2, START.plusDays(200), 3)));
+
+        var to = START.plusDays(800);
+        var valuation = new PortfolioValuation(deals, splits, PRICES);
+        valuation.getSeries(ACCOUNT, START, to);
+
+        for (var i = 0; i < 30; i++) {
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    var index = random.nextInt(deals.size());
+                    var old = deals.get(index);
+                    var updated = new InvestmentDeal.Builder(old)
+                            .dealDate(old.dealDate().plusDays(random.nextInt(60) - 30))
+                            .securityAmount(old.securityAmount() + 1)
+                            .build();
+                    deals.set(index, updated);
+                    valuation.updateDeals(List.of(old), List.of(updated));
+                }
+                case 1 -> {
+                    var deal = newDeal(ACCOUNT, SECURITY_1, START.plusDays(random.nextInt(800)), 5);
+                    deals.add(deal);
+                    valuation.updateDeals(List.of(), List.of(deal));
+                }
+                default -> {
+                    var split = newSplit(random.nextBoolean() ? SECURITY_1 : SECURITY_2,
+                            START.plusDays(random.nextInt(800)), 2);
+                    splits.add(split);
+                    valuation.updateSplits(List.of(), List.of(split));
+                }
+            }
+
+            var from = START.plusDays(random.nextInt(700));
+            for (var account : List.of(ACCOUNT, OTHER_ACCOUNT)) {
+                var expected = new PortfolioValuation(deals, splits, PRICES).getSeries(account, from, to);
+                assertSeries(expected, valuation.getSeries(account, from, to));
+            }
+        }
+    }
+}
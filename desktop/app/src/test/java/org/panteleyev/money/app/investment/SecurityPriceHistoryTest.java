@@ -0,0 +1,70 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.dto.ExchangeSecuritySplitType;
+import org.panteleyev.money.dto.InvestmentOperationType;
+import org.panteleyev.money.model.ExchangeSecurity;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.InvestmentDeal;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SecurityPriceHistoryTest {
+    private static final UUID SECURITY = UUID.randomUUID();
+    private static final LocalDate DEAL_DATE = LocalDate.of(2024, 1, 10);
+    private static final LocalDate SPLIT_DATE = LocalDate.of(2024, 2, 1);
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private static InvestmentDeal newDeal(int amount, String volume) {
+        return new InvestmentDeal.Builder()
+                .securityUuid(SECURITY)
+                .dealDate(DEAL_DATE.atTime(11, 0))
+                .operationType(InvestmentOperationType.PURCHASE)
+                .securityAmount(amount)
+                .dealVolume(new BigDecimal(volume))
+                .build();
+    }
+
+    private static void assertPrice(String expected, LocalDate date, SecurityPriceHistory history) {
+        assertEquals(0, new BigDecimal(expected).compareTo(history.getPrice(SECURITY, date).orElseThrow()),
+                date.toString());
+    }
+
+    @Test
+    public void testPrices() {
+        var split = new ExchangeSecuritySplit.Builder()
+                .securityUuid(SECURITY)
+                .type(ExchangeSecuritySplitType.SPLIT)
+                .date(SPLIT_DATE)
+                .rate(BigDecimal.TEN)
+                .build();
+        var security = new ExchangeSecurity.Builder()
+                .uuid(SECURITY)
+                .group("stock_shares")
+                .marketValue(new BigDecimal("25"))
+                .build();
+
+        var history = SecurityPriceHistory.of(
+                List.of(newDeal(10, "1000"), newDeal(30, "6000")),
+                List.of(split),
+                List.of(security),
+                TODAY);
+
+        assertEquals(Optional.empty(), history.getPrice(SECURITY, DEAL_DATE.minusDays(1)));
+        // Average price of the day
+        assertPrice("175", DEAL_DATE, history);
+        assertPrice("175", SPLIT_DATE.minusDays(1), history);
+        assertPrice("17.5", SPLIT_DATE, history);
+        assertPrice("17.5", TODAY.minusDays(1), history);
+        assertPrice("25", TODAY, history);
+        assertPrice("25", TODAY.plusDays(10), history);
+    }
+}
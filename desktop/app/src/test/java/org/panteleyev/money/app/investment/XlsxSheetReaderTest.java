@@ -0,0 +1,100 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.app.investment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class XlsxSheetReaderTest {
+    private static final String WORKBOOK = "Test_Xlsx_Sheet_Reader.xlsx";
+
+    private record Cells(int rowNumber, List<String> strings, BigDecimal decimal, List<LocalDateTime> dates) {
+    }
+
+    private static Cells copy(XlsxSheetReader.Row row) {
+        var strings = new ArrayList<String>();
+        var dates = new ArrayList<LocalDateTime>();
+        for (var column = 0; column < 7; column++) {
+            strings.add(row.getString(column));
+            dates.add(row.getDateTime(column));
+        }
+        return new Cells(row.getRowNumber(), strings, row.getDecimal(3), dates);
+    }
+
+    private static void assertData(List<Cells> rows) {
+        assertEquals(2, rows.size());
+
+        var first = rows.getFirst();
+        assertEquals(0, first.rowNumber());
+        // Shared string, inline string of two runs, missing cell, number
+        assertEquals(List.of("Name", "Inline", "", "42.5", "", "", ""), first.strings());
+        assertEquals(0, new BigDecimal("42.5").compareTo(first.decimal()));
+        assertTrue(first.dates().stream().allMatch(date -> date == null));
+
+        // Empty row is skipped
+        var second = rows.getLast();
+        assertEquals(2, second.rowNumber());
+        assertEquals("Second", second.strings().get(0));
+        assertEquals("", second.strings().get(1));
+        assertEquals("2024-02-01T10:30:00", second.strings().get(4));
+        assertEquals("TRUE", second.strings().get(6));
+        // Date with numeric value
+        assertEquals(0, new BigDecimal("45306.5").compareTo(second.decimal()));
+
+        assertNull(second.dates().get(0));
+        assertNull(second.dates().get(1));
+        // Numeric dates with built-in and custom formats
+        assertEquals(LocalDateTime.of(2024, 1, 15, 0, 0), second.dates().get(2));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 12, 0), second.dates().get(3));
+        // ISO 8601 dates
+        assertEquals(LocalDateTime.of(2024, 2, 1, 10, 30), second.dates().get(4));
+        assertEquals(LocalDateTime.of(2024, 2, 2, 0, 0), second.dates().get(5));
+        assertNull(second.dates().get(6));
+    }
+
+    @Test
+    public void testReadFile() throws URISyntaxException {
+        var file = new File(getClass().getResource(WORKBOOK).toURI());
+
+        var rows = new ArrayList<Cells>();
+        assertTrue(XlsxSheetReader.read(file, "Data", row -> rows.add(copy(row))));
+        assertData(rows);
+
+        var otherRows = new ArrayList<Cells>();
+        assertTrue(XlsxSheetReader.read(file, "Other", row -> otherRows.add(copy(row))));
+        assertEquals(1, otherRows.size());
+        assertEquals("Other sheet", otherRows.getFirst().strings().getFirst());
+
+        assertFalse(XlsxSheetReader.read(file, "Missing", _ -> {}));
+        // File is left intact
+        assertTrue(XlsxSheetReader.read(file, "Data", _ -> {}));
+    }
+
+    @Test
+    public void testReadStream() throws IOException {
+        try (var inputStream = getClass().getResourceAsStream(WORKBOOK)) {
+            var rows = new ArrayList<Cells>();
+            assertTrue(XlsxSheetReader.read(inputStream, "Data", row -> rows.add(copy(row))));
+            assertData(rows);
+        }
+    }
+
+    @Test
+    public void testColumnIndex() {
+        assertEquals(0, XlsxSheetReader.getColumnIndex("A1"));
+        assertEquals(25, XlsxSheetReader.getColumnIndex("Z10"));
+        assertEquals(26, XlsxSheetReader.getColumnIndex("AA3"));
+    }
+}
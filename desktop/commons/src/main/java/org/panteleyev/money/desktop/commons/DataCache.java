@@ -3,6 +3,7 @@
 package org.panteleyev.money.desktop.commons;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ModifiableObservableListBase;
 import javafx.collections.ObservableList;
 import org.panteleyev.money.dto.CategoryType;
 import org.panteleyev.money.model.Account;
@@ -18,9 +19,12 @@ import org.panteleyev.money.model.MoneyRecord;
 import org.panteleyev.money.model.Transaction;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -30,13 +34,60 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class DataCache {
+    /**
+     * Observable list that can replace several records as a single change. Unlike {@code setAll} replaced rows stay
+     * in place, so table selection and scroll position are preserved.
+     */
+    private static final class RecordList<T extends MoneyRecord> extends ModifiableObservableListBase<T> {
+        private final List<T> records = new ArrayList<>();
+
+        @Override
+        public T get(int index) {
+            return records.get(index);
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+
+        @Override
+        protected void doAdd(int index, T element) {
+            records.add(index, element);
+        }
+
+        @Override
+        protected T doSet(int index, T element) {
+            return records.set(index, element);
+        }
+
+        @Override
+        protected T doRemove(int index) {
+            return records.remove(index);
+        }
+
+        void replace(Map<UUID, T> replacements) {
+            beginChange();
+            try {
+                for (int i = 0; i < records.size(); i++) {
+                    var replacement = replacements.get(records.get(i).uuid());
+                    if (replacement != null) {
+                        set(i, replacement);
+                    }
+                }
+            } finally {
+                endChange();
+            }
+        }
+    }
+
     private final ObservableList<Icon> icons = FXCollections.observableArrayList();
     private final ObservableList<Category> categories = FXCollections.observableArrayList();
     private final ObservableList<Contact> contacts = FXCollections.observableArrayList();
     private final ObservableList<Currency> currencies = FXCollections.observableArrayList();
     private final ObservableList<Account> accounts = FXCollections.observableArrayList();
     private final ObservableList<Transaction> transactions = FXCollections.observableArrayList();
-    private final ObservableList<ExchangeSecurity> exchangeSecurities = FXCollections.observableArrayList();
+    private final RecordList<ExchangeSecurity> exchangeSecurities = new RecordList<>();
     private final ObservableList<Card> cards = FXCollections.observableArrayList();
     private final ObservableList<InvestmentDeal> investmentDeals = FXCollections.observableArrayList();
     private final ObservableList<ExchangeSecuritySplit> exchangeSecuritySplits = FXCollections.observableArrayList();
@@ -332,6 +383,21 @@ public class DataCache {
         updateRecord(exchangeSecurities, exchangeSecurity);
     }
 
+    /**
+     * Replaces securities with the same uuid in place as a single list change.
+     *
+     * @param securities updated securities
+     */
+    public void updateExchangeSecurities(Collection<ExchangeSecurity> securities) {
+        if (securities.isEmpty()) {
+            return;
+        }
+
+        var updated = new HashMap<UUID, ExchangeSecurity>();
+        securities.forEach(security -> updated.put(security.uuid(), security));
+        exchangeSecurities.replace(updated);
+    }
+
     public void remove(ExchangeSecurity exchangeSecurity) {
         removeRecord(exchangeSecurities, exchangeSecurity.uuid());
     }
@@ -380,6 +446,15 @@ public class DataCache {
         return investmentDeals;
     }
 
+    /**
+     * Appends deals to the cache as a single list change.
+     *
+     * @param deals deals
+     */
+    public void addInvestmentDeals(Collection<InvestmentDeal> deals) {
+        investmentDeals.addAll(deals);
+    }
+
     //
     // Exchange Security Splits
     //
@@ -0,0 +1,214 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Reflection data of a record class shared by record serializers. Component accessors are bound once with
+ * {@link LambdaMetafactory} so primitive values are read without reflection and boxing. Instances are created once
+ * per class.
+ *
+ * @param <T> record type
+ */
+public final class RecordMetadata<T extends Record> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<RecordMetadata<?>> METADATA = new ClassValue<>() {
+        @Override
+        protected RecordMetadata<?> computeValue(Class<?> type) {
+            return new RecordMetadata<>(type.asSubclass(Record.class));
+        }
+    };
+
+    /**
+     * Record component with its bound accessor.
+     */
+    public static final class Component {
+        private final String name;
+        private final Class<?> type;
+        private final Object accessor;
+
+        private Component(String name, Class<?> type, Object accessor) {
+            this.name = name;
+            this.type = type;
+            this.accessor = accessor;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Class<?> type() {
+            return type;
+        }
+
+        /**
+         * Returns component value, primitive values are boxed.
+         *
+         * @param rec record
+         * @return component value
+         */
+        @SuppressWarnings("unchecked")
+        public Object get(Record rec) {
+            return switch (accessor) {
+                case ToIntFunction<?> f -> ((ToIntFunction<Record>) f).applyAsInt(rec);
+                case ToLongFunction<?> f -> ((ToLongFunction<Record>) f).applyAsLong(rec);
+                case Predicate<?> f -> ((Predicate<Record>) f).test(rec);
+                case ToDoubleFunction<?> f -> ((ToDoubleFunction<Record>) f).applyAsDouble(rec);
+                default -> ((Function<Record, Object>) accessor).apply(rec);
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        public int getInt(Record rec) {
+            return ((ToIntFunction<Record>) accessor).applyAsInt(rec);
+        }
+
+        @SuppressWarnings("unchecked")
+        public long getLong(Record rec) {
+            return ((ToLongFunction<Record>) accessor).applyAsLong(rec);
+        }
+
+        @SuppressWarnings("unchecked")
+        public boolean getBoolean(Record rec) {
+            return ((Predicate<Record>) accessor).test(rec);
+        }
+
+        @SuppressWarnings("unchecked")
+        public double getDouble(Record rec) {
+            return ((ToDoubleFunction<Record>) accessor).applyAsDouble(rec);
+        }
+    }
+
+    private final List<Component> components;
+    private final Object[] defaults;
+    private final MethodHandle constructor;
+
+    private RecordMetadata(Class<T> recordClass) {
+        try {
+            var module = RecordMetadata.class.getModule();
+            if (!module.canRead(recordClass.getModule())) {
+                module.addReads(recordClass.getModule());
+            }
+
+            var recordComponents = recordClass.getRecordComponents();
+            var components = new Component[recordComponents.length];
+            defaults = new Object[recordComponents.length];
+            for (var i = 0; i < recordComponents.length; i++) {
+                components[i] = buildComponent(recordComponents[i]);
+                defaults[i] = defaultValue(recordComponents[i].getType());
+            }
+            this.components = List.of(components);
+
+            var argTypes = Arrays.stream(recordComponents)
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new);
+            constructor = LOOKUP.unreflectConstructor(recordClass.getDeclaredConstructor(argTypes))
+                    .asSpreader(Object[].class, argTypes.length)
+                    .asType(methodType(Record.class, Object[].class));
+        } catch (IllegalArgumentException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Record> RecordMetadata<T> of(Class<T> recordClass) {
+        return (RecordMetadata<T>) METADATA.get(recordClass);
+    }
+
+    public List<Component> components() {
+        return components;
+    }
+
+    /**
+     * Returns constructor arguments filled with default values: zero or false for primitives, null otherwise.
+     *
+     * @return new array of arguments
+     */
+    public Object[] defaultArguments() {
+        return defaults.clone();
+    }
+
+    /**
+     * Creates record with the canonical constructor.
+     *
+     * @param arguments arguments in the order of components
+     * @return record
+     */
+    @SuppressWarnings("unchecked")
+    public T newRecord(Object[] arguments) {
+        try {
+            return (T) (Record) constructor.invokeExact(arguments);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private static Component buildComponent(RecordComponent recordComponent) throws Throwable {
+        var type = recordComponent.getType();
+        var accessor = LOOKUP.unreflect(recordComponent.getAccessor());
+
+        Object bound;
+        if (type == int.class) {
+            bound = bind(accessor, ToIntFunction.class, "applyAsInt", int.class);
+        } else if (type == long.class) {
+            bound = bind(accessor, ToLongFunction.class, "applyAsLong", long.class);
+        } else if (type == boolean.class) {
+            bound = bind(accessor, Predicate.class, "test", boolean.class);
+        } else if (type == double.class) {
+            bound = bind(accessor, ToDoubleFunction.class, "applyAsDouble", double.class);
+        } else if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Unsupported type: " + type.getTypeName());
+        } else {
+            bound = bind(accessor, Function.class, "apply", Object.class);
+        }
+        return new Component(recordComponent.getName(), type, bound);
+    }
+
+    private static Object bind(
+            MethodHandle accessor,
+            Class<?> functionalInterface,
+            String methodName,
+            Class<?> returnType) throws Throwable
+    {
+        var callSite = LambdaMetafactory.metafactory(
+                LOOKUP,
+                methodName,
+                methodType(functionalInterface),
+                methodType(returnType, Object.class),
+                accessor,
+                accessor.type());
+        return callSite.getTarget().invoke();
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == double.class) {
+            return 0.0;
+        } else {
+            return null;
+        }
+    }
+}
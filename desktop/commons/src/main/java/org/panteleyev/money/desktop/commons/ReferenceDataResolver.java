@@ -0,0 +1,90 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons;
+
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Currency;
+import org.panteleyev.money.model.ExchangeSecurity;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resolves reference data by the names used in statements and broker reports. Lookup maps are built once from the
+ * current content of the cache, so a resolver should be created per parse and not kept after that. Names are
+ * compared ignoring case.
+ * <p>
+ * When several records have the same name the first one in the cache wins.
+ */
+public final class ReferenceDataResolver {
+    private final Map<String, Currency> currencies = new HashMap<>();
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final Map<String, ExchangeSecurity> securities = new HashMap<>();
+
+    public ReferenceDataResolver(DataCache cache) {
+        for (var currency : cache.getCurrencies()) {
+            put(currencies, currency.description(), currency);
+            put(currencies, currency.symbol(), currency);
+        }
+
+        // Names take precedence over account numbers
+        for (var account : cache.getAccounts()) {
+            put(accounts, account.name(), account);
+        }
+        for (var account : cache.getAccounts()) {
+            put(accounts, Account.getAccountNumberNoSpaces(account), account);
+        }
+
+        for (var security : cache.getExchangeSecurities()) {
+            put(securities, security.secId(), security);
+            put(securities, security.isin(), security);
+        }
+    }
+
+    /**
+     * Returns currency by symbol or description.
+     *
+     * @param name symbol or description
+     * @return currency
+     */
+    public Optional<Currency> getCurrency(String name) {
+        return get(currencies, name);
+    }
+
+    /**
+     * Returns account by name or number. Spaces in account numbers are ignored.
+     *
+     * @param name account name or number
+     * @return account
+     */
+    public Optional<Account> getAccount(String name) {
+        var account = get(accounts, name);
+        return account.isPresent() || name == null ? account : get(accounts, name.replaceAll(" ", ""));
+    }
+
+    /**
+     * Returns exchange security by secId or ISIN.
+     *
+     * @param id secId or ISIN
+     * @return exchange security
+     */
+    public Optional<ExchangeSecurity> getExchangeSecurity(String id) {
+        return get(securities, id);
+    }
+
+    private static <T> void put(Map<String, T> map, String name, T value) {
+        if (name != null && !name.isBlank()) {
+            map.putIfAbsent(fold(name), value);
+        }
+    }
+
+    private static <T> Optional<T> get(Map<String, T> map, String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(map.get(fold(name)));
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Decodes base64 text that arrives in arbitrary pieces straight into the output stream. Each piece is decoded up to
+ * its last complete 4-character quantum, only the remaining partial quantum is kept until the next piece.
+ * Whitespace is ignored.
+ */
+final class Base64ChunkDecoder {
+    private static final int QUANTUM_SIZE = 4;
+
+    private final Base64.Decoder decoder = Base64.getDecoder();
+    private final OutputStream out;
+    private final byte[] quantum = new byte[QUANTUM_SIZE];
+    private int quantumLength = 0;
+
+    Base64ChunkDecoder(OutputStream out) {
+        this.out = out;
+    }
+
+    void append(CharSequence text) {
+        var encoded = new byte[quantumLength + text.length()];
+        System.arraycopy(quantum, 0, encoded, 0, quantumLength);
+        var length = quantumLength;
+        for (var i = 0; i < text.length(); i++) {
+            var ch = text.charAt(i);
+            if (Character.isWhitespace(ch)) {
+                continue;
+            }
+            if (ch > 0x7F) {
+                throw new IllegalArgumentException("Illegal base64 character " + ch);
+            }
+            encoded[length++] = (byte) ch;
+        }
+
+        var aligned = length - length % QUANTUM_SIZE;
+        write(encoded, aligned);
+        quantumLength = length - aligned;
+        System.arraycopy(encoded, aligned, quantum, 0, quantumLength);
+    }
+
+    /**
+     * Decodes the remaining partial quantum, it may come without padding.
+     */
+    void finish() {
+        write(quantum, quantumLength);
+        quantumLength = 0;
+    }
+
+    private void write(byte[] encoded, int length) {
+        if (length == 0) {
+            return;
+        }
+        var decoded = decoder.decode(ByteBuffer.wrap(encoded, 0, length));
+        try {
+            out.write(decoded.array(), decoded.arrayOffset() + decoded.position(), decoded.remaining());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
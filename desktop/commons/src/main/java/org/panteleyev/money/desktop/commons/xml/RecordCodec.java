@@ -0,0 +1,211 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons.xml;
+
+import org.panteleyev.commons.xml.StartElementWrapper;
+import org.panteleyev.commons.xml.XMLStreamWriterWrapper;
+import org.panteleyev.money.desktop.commons.RecordMetadata;
+
+import javax.xml.namespace.QName;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Precompiled serializer and deserializer of a single record class. Components and their accessors come from
+ * {@link RecordMetadata}, so primitive values are read without reflection and boxing, attribute names are created
+ * once per class.
+ * <p>
+ * Binary components are written as a sequence of child elements that carry base64 text of at most
+ * {@link #PAYLOAD_CHUNK_SIZE} bytes each, after all attributes. Neither the whole encoded text nor its copy is built
+ * during export, {@link RecordReader} decodes chunks as they are parsed. Binary attributes written by earlier
+ * versions are still accepted.
+ *
+ * @param <T> record type
+ */
+final class RecordCodec<T extends Record> {
+    // Must be a multiple of 3 so that every chunk is a complete base64 text without padding
+    static final int PAYLOAD_CHUNK_SIZE = 48 * 1024;
+
+    private final QName elementName;
+    private final Component[] components;
+    private final RecordMetadata<T> metadata;
+
+    private RecordCodec(QName elementName, Component[] components, RecordMetadata<T> metadata) {
+        this.elementName = elementName;
+        this.components = components;
+        this.metadata = metadata;
+    }
+
+    static <T extends Record> RecordCodec<T> of(Class<T> recordClass) {
+        var metadata = RecordMetadata.of(recordClass);
+        var components = metadata.components().stream()
+                .map(RecordCodec::buildComponent)
+                .toArray(Component[]::new);
+        return new RecordCodec<>(new QName(recordClass.getSimpleName()), components, metadata);
+    }
+
+    void serialize(XMLStreamWriterWrapper wrapper, T rec) {
+        wrapper.element(elementName, () -> {
+            for (var component : components) {
+                component.write(wrapper, rec);
+            }
+            for (var component : components) {
+                component.writeContent(wrapper, rec);
+            }
+        });
+    }
+
+    T deserialize(StartElementWrapper element) {
+        return newRecord(readAttributes(element));
+    }
+
+    RecordReader<T> newReader(StartElementWrapper element) {
+        return new RecordReader<>(this, readAttributes(element));
+    }
+
+    /**
+     * Returns index of the binary component written as child element with the given name.
+     *
+     * @param name element name
+     * @return component index or -1
+     */
+    int getPayloadIndex(QName name) {
+        for (var i = 0; i < components.length; i++) {
+            if (components[i] instanceof BytesComponent bytes && bytes.name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object[] readAttributes(StartElementWrapper element) {
+        var arguments = new Object[components.length];
+        for (var i = 0; i < components.length; i++) {
+            arguments[i] = components[i].read(element);
+        }
+        return arguments;
+    }
+
+    T newRecord(Object[] arguments) {
+        return metadata.newRecord(arguments);
+    }
+
+    private static Component buildComponent(RecordMetadata.Component component) {
+        var name = new QName(component.name());
+        var type = component.type();
+
+        if (type == int.class) {
+            return new IntComponent(name, component);
+        } else if (type == long.class) {
+            return new LongComponent(name, component);
+        } else if (type == boolean.class) {
+            return new BooleanComponent(name, component);
+        } else if (type == double.class) {
+            return new DoubleComponent(name, component);
+        } else if (type == byte[].class) {
+            return new BytesComponent(name, component);
+        } else {
+            return new ObjectComponent(name, type, component);
+        }
+    }
+
+    private sealed interface Component {
+        void write(XMLStreamWriterWrapper wrapper, Record rec);
+
+        default void writeContent(XMLStreamWriterWrapper wrapper, Record rec) {
+        }
+
+        Object read(StartElementWrapper element);
+    }
+
+    private record IntComponent(QName name, RecordMetadata.Component accessor) implements Component {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+            wrapper.attribute(name, Integer.toString(accessor.getInt(rec)));
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, 0);
+        }
+    }
+
+    private record LongComponent(QName name, RecordMetadata.Component accessor) implements Component {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+            wrapper.attribute(name, Long.toString(accessor.getLong(rec)));
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, 0L);
+        }
+    }
+
+    private record BooleanComponent(QName name, RecordMetadata.Component accessor) implements Component {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+            wrapper.attribute(name, accessor.getBoolean(rec) ? "true" : "false");
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, false);
+        }
+    }
+
+    private record DoubleComponent(QName name, RecordMetadata.Component accessor) implements Component {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+            wrapper.attribute(name, Double.toString(accessor.getDouble(rec)));
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, 0.0);
+        }
+    }
+
+    private record BytesComponent(QName name, RecordMetadata.Component accessor) implements Component {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+        }
+
+        @Override
+        public void writeContent(XMLStreamWriterWrapper wrapper, Record rec) {
+            if (accessor.get(rec) instanceof byte[] bytes) {
+                var encoder = Base64.getEncoder();
+                var offset = 0;
+                do {
+                    var end = Math.min(offset + PAYLOAD_CHUNK_SIZE, bytes.length);
+                    wrapper.textElement(name, encoder.encodeToString(Arrays.copyOfRange(bytes, offset, end)));
+                    offset = end;
+                } while (offset < bytes.length);
+            }
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, byte[].class).orElse(null);
+        }
+    }
+
+    private record ObjectComponent(
+            QName name,
+            Class<?> type,
+            RecordMetadata.Component accessor) implements Component
+    {
+        @Override
+        public void write(XMLStreamWriterWrapper wrapper, Record rec) {
+            var value = accessor.get(rec);
+            if (value != null) {
+                wrapper.attribute(name, value);
+            }
+        }
+
+        @Override
+        public Object read(StartElementWrapper element) {
+            return element.getAttributeValue(name, type).orElse(null);
+        }
+    }
+}
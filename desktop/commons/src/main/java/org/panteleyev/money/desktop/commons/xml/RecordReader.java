@@ -0,0 +1,93 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons.xml;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Incremental deserializer of a single record. Attributes are read from the start element, binary components
+ * written as child elements are decoded chunk by chunk as parser reports their text.
+ * <pre>
+ * var reader = RecordSerializer.newRecordReader(element, Icon.class);
+ * // for each following event
+ * reader.startElement(name);
+ * reader.characters(text);
+ * if (reader.endElement()) {
+ *     var icon = reader.build();
+ * }
+ * </pre>
+ *
+ * @param <T> record type
+ */
+public final class RecordReader<T extends Record> {
+    private final RecordCodec<T> codec;
+    private final Object[] arguments;
+    private final ByteArrayOutputStream[] payloads;
+    private final Base64ChunkDecoder[] decoders;
+
+    private int depth = 0;
+    private Base64ChunkDecoder current = null;
+
+    RecordReader(RecordCodec<T> codec, Object[] arguments) {
+        this.codec = codec;
+        this.arguments = arguments;
+        this.payloads = new ByteArrayOutputStream[arguments.length];
+        this.decoders = new Base64ChunkDecoder[arguments.length];
+    }
+
+    /**
+     * Handles start of the nested element.
+     *
+     * @param name element name
+     */
+    public void startElement(QName name) {
+        depth++;
+        current = null;
+        if (depth == 1) {
+            var index = codec.getPayloadIndex(name);
+            if (index >= 0) {
+                if (decoders[index] == null) {
+                    payloads[index] = new ByteArrayOutputStream();
+                    decoders[index] = new Base64ChunkDecoder(payloads[index]);
+                }
+                current = decoders[index];
+            }
+        }
+    }
+
+    /**
+     * Handles text of the nested element.
+     *
+     * @param text text, may be a part of the element text
+     */
+    public void characters(String text) {
+        if (current != null) {
+            current.append(text);
+        }
+    }
+
+    /**
+     * Handles end of the element.
+     *
+     * @return {@code true} if the record element itself is closed and the record can be built
+     */
+    public boolean endElement() {
+        current = null;
+        if (depth == 0) {
+            return true;
+        }
+        depth--;
+        return false;
+    }
+
+    public T build() {
+        for (var i = 0; i < decoders.length; i++) {
+            if (decoders[i] != null) {
+                decoders[i].finish();
+                arguments[i] = payloads[i].toByteArray();
+            }
+        }
+        return codec.newRecord(arguments);
+    }
+}
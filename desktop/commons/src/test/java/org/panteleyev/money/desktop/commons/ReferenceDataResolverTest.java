@@ -0,0 +1,86 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.dto.CategoryType;
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Currency;
+import org.panteleyev.money.model.ExchangeSecurity;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReferenceDataResolverTest {
+    private static final Currency RUB = new Currency.Builder()
+            .uuid(UUID.randomUUID())
+            .symbol("RUB")
+            .description("Российский рубль")
+            .build();
+    private static final Currency USD = new Currency.Builder()
+            .uuid(UUID.randomUUID())
+            .symbol("USD")
+            .description("Доллар США")
+            .build();
+
+    private static final Account ACCOUNT = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("4000T1")
+            .accountNumber("4081 7810 0000")
+            .type(CategoryType.BANKS_AND_CASH)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+    // Number of this account is the name of the first one
+    private static final Account OTHER = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("Other")
+            .accountNumber("4000T1")
+            .type(CategoryType.BANKS_AND_CASH)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+
+    private static final ExchangeSecurity SECURITY = new ExchangeSecurity.Builder()
+            .uuid(UUID.randomUUID())
+            .secId("SBER")
+            .isin("RU0009029540")
+            .build();
+
+    private static DataCache newCache() {
+        var cache = new DataCache();
+        cache.getCurrencies().addAll(RUB, USD);
+        cache.getAccounts().addAll(OTHER, ACCOUNT);
+        cache.getExchangeSecurities().add(SECURITY);
+        return cache;
+    }
+
+    @Test
+    public void testCurrency() {
+        var resolver = new ReferenceDataResolver(newCache());
+        assertEquals(Optional.of(RUB), resolver.getCurrency("RUB"));
+        assertEquals(Optional.of(RUB), resolver.getCurrency("rub"));
+        assertEquals(Optional.of(USD), resolver.getCurrency("доллар сша"));
+        assertTrue(resolver.getCurrency("EUR").isEmpty());
+        assertTrue(resolver.getCurrency(null).isEmpty());
+    }
+
+    @Test
+    public void testAccount() {
+        var resolver = new ReferenceDataResolver(newCache());
+        assertEquals(Optional.of(ACCOUNT), resolver.getAccount("4000t1"));
+        assertEquals(Optional.of(ACCOUNT), resolver.getAccount("408178100000"));
+        assertEquals(Optional.of(ACCOUNT), resolver.getAccount("4081 7810 0000"));
+        assertEquals(Optional.of(OTHER), resolver.getAccount("Other"));
+        assertTrue(resolver.getAccount("").isEmpty());
+    }
+
+    @Test
+    public void testExchangeSecurity() {
+        var resolver = new ReferenceDataResolver(newCache());
+        assertEquals(Optional.of(SECURITY), resolver.getExchangeSecurity("sber"));
+        assertEquals(Optional.of(SECURITY), resolver.getExchangeSecurity("RU0009029540"));
+        assertTrue(resolver.getExchangeSecurity("GAZP").isEmpty());
+    }
+}
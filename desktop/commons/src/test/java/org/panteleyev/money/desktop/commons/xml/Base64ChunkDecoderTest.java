@@ -0,0 +1,53 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.commons.xml;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Base64ChunkDecoderTest {
+    private static final Random RANDOM = new Random(42);
+
+    @Test
+    public void testArbitraryPieces() {
+        for (var size = 0; size < 64; size++) {
+            var bytes = new byte[size];
+            RANDOM.nextBytes(bytes);
+            var text = Base64.getMimeEncoder(8, new byte[]{'\n'}).encodeToString(bytes);
+
+            for (var split = 0; split <= text.length(); split++) {
+                var out = new ByteArrayOutputStream();
+                var decoder = new Base64ChunkDecoder(out);
+                decoder.append(text.substring(0, split));
+                decoder.append(text.substring(split));
+                decoder.finish();
+                assertArrayEquals(bytes, out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testDecodesCompleteQuantaImmediately() {
+        var out = new ByteArrayOutputStream();
+        var decoder = new Base64ChunkDecoder(out);
+        decoder.append("AQID");
+        assertEquals(3, out.size());
+        decoder.append("BA");
+        assertEquals(3, out.size());
+        decoder.finish();
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, out.toByteArray());
+    }
+
+    @Test
+    public void testIllegalCharacter() {
+        var decoder = new Base64ChunkDecoder(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class, () -> decoder.append("AQ€D"));
+    }
+}
@@ -1,5 +1,5 @@
 /*
- Copyright © 2024 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2024-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.desktop.commons.xml;
@@ -20,12 +20,16 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 public class RecordSerializerTest {
+    private static final QName TEST_RECORD = new QName("TestRecord");
+
     private static List<Arguments> testSerializeDeserializeArguments() {
         return List.of(
                 Arguments.of(
@@ -36,6 +40,22 @@ public class RecordSerializerTest {
                                 new byte[]{1, 2, 3, 4, 5}
                         )
                 ),
+                Arguments.of(
+                        new TestRecord(
+                                100, 101, 100L, true, 1.1,
+                                "123123123", UUID.randomUUID(), BigDecimal.TEN,
+                                LocalDate.now(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                                newBytes(RecordCodec.PAYLOAD_CHUNK_SIZE * 3 + 100)
+                        )
+                ),
+                Arguments.of(
+                        new TestRecord(
+                                100, 101, 100L, true, 1.1,
+                                "123123123", UUID.randomUUID(), BigDecimal.TEN,
+                                LocalDate.now(), LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+                                new byte[0]
+                        )
+                ),
                 Arguments.of(
                         new TestRecord(
                                 100, null, 100L, true, 1.1,
@@ -47,6 +67,40 @@ public class RecordSerializerTest {
         );
     }
 
+    private static byte[] newBytes(int size) {
+        var bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static TestRecord readRecord(byte[] xml) {
+        try (var in = new ByteArrayInputStream(xml);
+             var reader = XMLEventReaderWrapper.newInstance(in))
+        {
+            RecordReader<TestRecord> recordReader = null;
+            while (reader.hasNext()) {
+                var next = reader.getReader().peek();
+                var start = reader.nextEvent().asStartElement();
+                if (start.isPresent()) {
+                    if (recordReader != null) {
+                        recordReader.startElement(start.get().getName());
+                    } else if (start.get().getName().equals(TEST_RECORD)) {
+                        recordReader = RecordSerializer.newRecordReader(start.get(), TestRecord.class);
+                    }
+                } else if (recordReader != null) {
+                    if (next.isCharacters()) {
+                        recordReader.characters(next.asCharacters().getData());
+                    } else if (next.isEndElement() && recordReader.endElement()) {
+                        return recordReader.build();
+                    }
+                }
+            }
+            return null;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("testSerializeDeserializeArguments")
     public void testSerializeDeserialize(TestRecord testRecord) throws Exception {
@@ -55,23 +109,20 @@ public class RecordSerializerTest {
                 RecordSerializer.serialize(writer, testRecord);
             });
 
-            try (var in = new ByteArrayInputStream(out.toByteArray());
-                 var reader = XMLEventReaderWrapper.newInstance(in))
-            {
-                TestRecord deserializedRecord = null;
+            assertEquals(testRecord, readRecord(out.toByteArray()));
+        }
+    }
 
-                while (reader.hasNext()) {
-                    var event = reader.nextEvent();
-                    var recordElement = event.asStartElement(new QName("TestRecord"));
-                    if (recordElement.isPresent()) {
-                        deserializedRecord = RecordSerializer.deserializeRecord(recordElement.get(), TestRecord.class);
-                        assertEquals(testRecord, deserializedRecord);
-                    }
-                }
+    @Test
+    public void testLegacyBytesAttribute() {
+        var xml = """
+                <?xml version="1.0"?>
+                <TestRecord intValue="1" bytes="AQIDBAU="/>
+                """;
 
-                assertNotNull(deserializedRecord);
-            }
-        }
+        var deserializedRecord = readRecord(xml.getBytes(StandardCharsets.UTF_8));
+        assertNotNull(deserializedRecord);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, deserializedRecord.bytes());
     }
 
     @Test
@@ -0,0 +1,242 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.panteleyev.money.desktop.export.ArchiveImport.MAX_SECTIONS_IN_FLIGHT;
+import static org.panteleyev.money.desktop.export.BinaryFormat.BLOCK_SIZE;
+import static org.panteleyev.money.desktop.export.BinaryFormat.EXPORT_SECTIONS;
+
+/**
+ * Writes the dump as a ZIP archive with {@link ArchiveManifest} followed by one entry per section in the foreign key
+ * order. Each entry is a complete binary dump of a single section.
+ * <p>
+ * Records are read from the source on the calling thread, as the source may not be thread safe, and handed over in
+ * blocks to workers that serialize and compress sections into temporary files. At most
+ * {@value ArchiveImport#MAX_SECTIONS_IN_FLIGHT} sections are written at the same time and each of them holds a few
+ * blocks of records, so memory consumption does not depend on the database size. The manifest goes first so that
+ * entries can be verified and decoded while the archive is being read, therefore entries are copied into the archive
+ * when all sections are written.
+ */
+public class ArchiveExport {
+    private static final ImportExportEvent DONE =
+            new ImportExportEvent(ImportExportEvent.ImportExportEventType.DONE);
+
+    // Blocks of records waiting for the worker of a section
+    private static final int QUEUE_CAPACITY = 2;
+    private static final long POLL_TIMEOUT = 100;
+
+    private final ExportSource source;
+
+    public ArchiveExport(DataCache cache) {
+        this(ExportSource.of(cache));
+    }
+
+    public ArchiveExport(ExportSource source) {
+        this.source = source;
+    }
+
+    public void doExport(OutputStream out, Consumer<ImportExportEvent> progress) {
+        var writers = new ArrayList<SectionWriter>();
+        try (var executor = Executors.newFixedThreadPool(MAX_SECTIONS_IN_FLIGHT,
+                Thread.ofPlatform().name("archive-export-", 0).daemon().factory()))
+        {
+            try {
+                var permits = new Semaphore(MAX_SECTIONS_IN_FLIGHT);
+                for (var section : EXPORT_SECTIONS) {
+                    progress.accept(new ImportExportEvent(section.getEventType(), 1));
+
+                    permits.acquire();
+                    var writer = new SectionWriter(section);
+                    writers.add(writer);
+                    writer.start(executor, permits);
+
+                    source.forEach(section.getEventType(), writer);
+                    writer.finish();
+
+                    progress.accept(DONE);
+                }
+
+                var entries = new ArrayList<SectionEntry>(writers.size());
+                for (var writer : writers) {
+                    entries.add(writer.getEntry());
+                }
+                writeArchive(out, entries);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            } finally {
+                // Stops workers waiting for records if the source or any worker failed
+                executor.shutdownNow();
+            }
+        } finally {
+            for (var writer : writers) {
+                writer.deleteFile();
+            }
+        }
+    }
+
+    private static void writeArchive(OutputStream out, List<SectionEntry> entries) {
+        try {
+            var zip = new ZipOutputStream(out);
+
+            zip.putNextEntry(new ZipEntry(ArchiveManifest.ENTRY_NAME));
+            ArchiveManifest.write(zip, entries.stream()
+                    .map(entry -> new ArchiveManifest.Entry(entry.name(), entry.section().getCode(), entry.count(),
+                            entry.size(), entry.checksum()))
+                    .toList());
+            zip.closeEntry();
+
+            for (var entry : entries) {
+                var zipEntry = new ZipEntry(entry.name());
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(entry.size());
+                zipEntry.setCompressedSize(entry.size());
+                zipEntry.setCrc(entry.checksum());
+                zip.putNextEntry(zipEntry);
+                Files.copy(entry.file(), zip);
+                zip.closeEntry();
+            }
+
+            zip.finish();
+            out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private record SectionEntry(Section section, String name, Path file, int count, long size, long checksum) {
+    }
+
+    /**
+     * Collects records of one section into blocks on the calling thread and writes them to a temporary file on the
+     * worker thread. Empty block marks the end of the section.
+     */
+    private static final class SectionWriter implements Consumer<Record> {
+        private final Section section;
+        private final BlockingQueue<List<Record>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private List<Record> block = new ArrayList<>(BLOCK_SIZE);
+        private Path file;
+        private Future<SectionEntry> future;
+
+        private SectionWriter(Section section) {
+            this.section = section;
+        }
+
+        private void start(ExecutorService executor, Semaphore permits) {
+            try {
+                file = Files.createTempFile("money-" + section.name().toLowerCase(Locale.ROOT) + "-", ".bin");
+            } catch (IOException ex) {
+                permits.release();
+                throw new RuntimeException(ex);
+            }
+            future = executor.submit(() -> {
+                try {
+                    return write();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void accept(Record rec) {
+            block.add(rec);
+            if (block.size() == BLOCK_SIZE) {
+                put(block);
+                block = new ArrayList<>(BLOCK_SIZE);
+            }
+        }
+
+        private void finish() {
+            if (!block.isEmpty()) {
+                put(block);
+            }
+            put(List.of());
+        }
+
+        private SectionEntry getEntry() {
+            try {
+                return future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            } catch (ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
+        }
+
+        private void deleteFile() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException _) {
+                    // Temporary file is left behind
+                }
+            }
+        }
+
+        private void put(List<Record> records) {
+            try {
+                // Failed worker would never take the block
+                while (!queue.offer(records, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    if (future.isDone()) {
+                        getEntry();
+                        throw new IllegalStateException("Section writer stopped");
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+        }
+
+        private SectionEntry write() throws IOException, InterruptedException {
+            var crc = new CRC32();
+            var count = new int[]{0};
+            try (var writer = new BinarySectionWriter(true);
+                 var out = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), crc))
+            {
+                writer.writeHeader(out);
+                writer.writeSection(out, section, consumer -> {
+                    try {
+                        for (var records = queue.take(); !records.isEmpty(); records = queue.take()) {
+                            records.forEach(consumer);
+                            count[0] += records.size();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(ex);
+                    }
+                });
+                writer.writeEnd(out);
+            }
+            return new SectionEntry(section, section.name().toLowerCase(Locale.ROOT) + ".bin", file, count[0],
+                    Files.size(file), crc.getValue());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads dump archives written by {@link ArchiveExport}.
+ */
+public final class ArchiveImport {
+    private static final byte[] SIGNATURE = {'P', 'K', 3, 4};
+
+    // Decoded sections waiting for delivery, also the number of decoding threads
+    static final int MAX_SECTIONS_IN_FLIGHT = 4;
+
+    private ArchiveImport() {
+    }
+
+    /**
+     * Checks if the stream starts with the ZIP signature. Stream position is not changed.
+     *
+     * @param inputStream input stream, must support mark
+     * @return true if stream contains archive
+     */
+    public static boolean isArchive(InputStream inputStream) {
+        return BinaryImport.startsWith(inputStream, SIGNATURE);
+    }
+
+    public static Import doImport(InputStream inputStream) {
+        var imp = new Import();
+        doImport(inputStream, imp::addBatch);
+        return imp;
+    }
+
+    /**
+     * Reads the archive decoding section entries in parallel. The manifest comes first, each entry is checked
+     * against it as it is read. Batches are handed over to the consumer section by section in the foreign key order
+     * as soon as the section and all preceding ones are decoded.
+     * <p>
+     * At most {@value MAX_SECTIONS_IN_FLIGHT} decoded sections wait for delivery when entries are stored in the
+     * foreign key order, as {@link ArchiveExport} writes them. Entries stored out of order are kept in memory until
+     * all preceding sections are read.
+     *
+     * @param inputStream   input stream
+     * @param batchConsumer batch consumer, called on the calling thread
+     */
+    public static void doImport(InputStream inputStream, Consumer<ImportBatch> batchConsumer) {
+        try (var executor = Executors.newFixedThreadPool(MAX_SECTIONS_IN_FLIGHT,
+                Thread.ofPlatform().name("archive-import-", 0).daemon().factory()))
+        {
+            var zip = new ZipInputStream(inputStream);
+            var zipEntry = zip.getNextEntry();
+            if (zipEntry == null || !zipEntry.getName().equals(ArchiveManifest.ENTRY_NAME)) {
+                throw new IllegalStateException("Archive manifest not found");
+            }
+
+            var manifest = new HashMap<String, ArchiveManifest.Entry>();
+            for (var entry : ArchiveManifest.read(new ByteArrayInputStream(zip.readAllBytes()))) {
+                if (manifest.put(entry.name(), entry) != null) {
+                    throw new IllegalStateException("Duplicate manifest entry " + entry.name());
+                }
+            }
+
+            var order = manifest.values().stream()
+                    .filter(entry -> Section.ofCode(entry.section()).isPresent())
+                    .sorted(Comparator.comparing(entry -> Section.ofCode(entry.section()).orElseThrow()))
+                    .toList();
+            var read = new HashSet<String>();
+            var decoding = new HashMap<String, CompletableFuture<List<ImportBatch>>>();
+            var next = 0;
+
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                var entry = manifest.get(zipEntry.getName());
+                if (entry == null || !read.add(entry.name())) {
+                    throw new IllegalStateException("Archive entries do not match manifest");
+                }
+
+                var bytes = zip.readAllBytes();
+                var crc = new CRC32();
+                crc.update(bytes);
+                if (bytes.length != entry.size() || crc.getValue() != entry.checksum()) {
+                    throw new IllegalStateException("Corrupted archive entry " + entry.name());
+                }
+
+                if (Section.ofCode(entry.section()).isPresent()) {
+                    decoding.put(entry.name(),
+                            CompletableFuture.supplyAsync(() -> readSection(entry, bytes), executor));
+                    next = deliver(order, next, decoding, false, batchConsumer);
+                }
+            }
+
+            if (read.size() != manifest.size()) {
+                throw new IllegalStateException("Archive entries do not match manifest");
+            }
+            deliver(order, next, decoding, true, batchConsumer);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Hands over decoded sections in the foreign key order starting from {@code next}. Waits for decoding if the
+     * window of sections in flight is full or {@code all} is set.
+     *
+     * @return index of the first section not handed over
+     */
+    private static int deliver(
+            List<ArchiveManifest.Entry> order,
+            int next,
+            Map<String, CompletableFuture<List<ImportBatch>>> decoding,
+            boolean all,
+            Consumer<ImportBatch> batchConsumer)
+    {
+        for (; next < order.size(); next++) {
+            var future = decoding.get(order.get(next).name());
+            if (future == null || !(all || future.isDone() || decoding.size() >= MAX_SECTIONS_IN_FLIGHT)) {
+                break;
+            }
+            decoding.remove(order.get(next).name());
+            future.join().forEach(batchConsumer);
+        }
+        return next;
+    }
+
+    private static List<ImportBatch> readSection(ArchiveManifest.Entry entry, byte[] bytes) {
+        var batches = new ArrayList<ImportBatch>();
+        BinaryImport.doImport(new ByteArrayInputStream(bytes), batches::add);
+        var count = batches.stream().mapToInt(b -> b.records().size()).sum();
+        if (count != entry.count()) {
+            throw new IllegalStateException("Unexpected number of records in " + entry.name());
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.commons.xml.XMLEventReaderWrapper;
+import org.panteleyev.commons.xml.XMLStreamWriterWrapper;
+
+import javax.xml.namespace.QName;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Manifest of the dump archive. Lists section entries with their record counts, sizes and CRC-32 checksums.
+ */
+final class ArchiveManifest {
+    static final String ENTRY_NAME = "manifest.xml";
+
+    private static final QName ROOT_ELEMENT = new QName("Manifest");
+    private static final QName ENTRY_ELEMENT = new QName("Entry");
+    private static final QName NAME_ATTR = new QName("name");
+    private static final QName SECTION_ATTR = new QName("section");
+    private static final QName COUNT_ATTR = new QName("count");
+    private static final QName SIZE_ATTR = new QName("size");
+    private static final QName CHECKSUM_ATTR = new QName("checksum");
+
+    record Entry(String name, int section, int count, long size, long checksum) {
+    }
+
+    private ArchiveManifest() {
+    }
+
+    static void write(OutputStream out, List<Entry> entries) {
+        try (var w = XMLStreamWriterWrapper.newInstance(out)) {
+            w.document(ROOT_ELEMENT, () -> {
+                for (var entry : entries) {
+                    w.element(ENTRY_ELEMENT, Map.of(
+                            NAME_ATTR, entry.name(),
+                            SECTION_ATTR, entry.section(),
+                            COUNT_ATTR, entry.count(),
+                            SIZE_ATTR, entry.size(),
+                            CHECKSUM_ATTR, entry.checksum()
+                    ));
+                }
+            });
+        }
+    }
+
+    static List<Entry> read(InputStream in) {
+        var entries = new ArrayList<Entry>();
+        try (var reader = XMLEventReaderWrapper.newInstance(in)) {
+            while (reader.hasNext()) {
+                var event = reader.nextEvent();
+                event.ifStartElement(ENTRY_ELEMENT, element -> {
+                    var name = element.getAttributeValue(NAME_ATTR)
+                            .orElseThrow(() -> new IllegalStateException("Manifest entry without name"));
+                    entries.add(new Entry(name,
+                            element.getAttributeValue(SECTION_ATTR, 0),
+                            element.getAttributeValue(COUNT_ATTR, 0),
+                            element.getAttributeValue(SIZE_ATTR, 0L),
+                            element.getAttributeValue(CHECKSUM_ATTR, 0L)
+                    ));
+                });
+            }
+        }
+        return entries;
+    }
+}
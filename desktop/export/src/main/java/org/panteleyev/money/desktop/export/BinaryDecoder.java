@@ -0,0 +1,93 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reads primitives of the binary dump format from a byte array.
+ */
+final class BinaryDecoder {
+    private final byte[] buffer;
+    private final int limit;
+    private int position = 0;
+
+    BinaryDecoder(byte[] buffer) {
+        this(buffer, buffer.length);
+    }
+
+    BinaryDecoder(byte[] buffer, int limit) {
+        this.buffer = buffer;
+        this.limit = limit;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    byte[] readBytes(int length) {
+        require(length);
+        var bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    long readVarLong() {
+        var result = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    long readZigZag() {
+        var value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readLong() {
+        require(8);
+        var result = 0L;
+        for (var i = 0; i < 8; i++) {
+            result = (result << 8) | (buffer[position++] & 0xFF);
+        }
+        return result;
+    }
+
+    UUID readUuid() {
+        return new UUID(readLong(), readLong());
+    }
+
+    byte[] readBlob() {
+        return readBytes(readVarInt());
+    }
+
+    String readString() {
+        var length = readVarInt();
+        require(length);
+        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void require(int length) {
+        if (length < 0 || limit - position < length) {
+            throw new IllegalStateException("Unexpected end of block");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.EXPORT_SECTIONS;
+
+/**
+ * Writes the same data as {@link Export} in the compact binary format described in {@link BinaryFormat}.
+ */
+public class BinaryExport {
+    private static final ImportExportEvent DONE =
+            new ImportExportEvent(ImportExportEvent.ImportExportEventType.DONE);
+
+    private final ExportSource source;
+    private final boolean compress;
+
+    public BinaryExport(DataCache cache) {
+        this(cache, true);
+    }
+
+    public BinaryExport(DataCache cache, boolean compress) {
+        this(ExportSource.of(cache), compress);
+    }
+
+    /**
+     * @param source   source of records
+     * @param compress whether blocks are deflated, block is stored as is if deflating does not make it smaller
+     */
+    public BinaryExport(ExportSource source, boolean compress) {
+        this.source = source;
+        this.compress = compress;
+    }
+
+    public void doExport(OutputStream out, Consumer<ImportExportEvent> progress) {
+        try (var writer = new BinarySectionWriter(compress)) {
+            writer.writeHeader(out);
+            for (var section : EXPORT_SECTIONS) {
+                progress.accept(new ImportExportEvent(section.getEventType(), 1));
+                writer.writeSection(out, section, consumer -> source.forEach(section.getEventType(), consumer));
+                progress.accept(DONE);
+            }
+            writer.writeEnd(out);
+            out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
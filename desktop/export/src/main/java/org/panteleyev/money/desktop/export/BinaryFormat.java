@@ -0,0 +1,119 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Card;
+import org.panteleyev.money.model.Category;
+import org.panteleyev.money.model.Contact;
+import org.panteleyev.money.model.Currency;
+import org.panteleyev.money.model.ExchangeSecurity;
+import org.panteleyev.money.model.ExchangeSecuritySplit;
+import org.panteleyev.money.model.Icon;
+import org.panteleyev.money.model.InvestmentDeal;
+import org.panteleyev.money.model.Transaction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Layout of the binary dump.
+ * <pre>
+ * dump       := MAGIC version section* 0
+ * diff       := DIFFERENTIAL_MAGIC version since until section* 0
+ * section    := code length descriptor block* 0
+ * descriptor := count (name type)*
+ * block      := recordCount flags length [rawLength] payload
+ * </pre>
+ * All integers are unsigned varints, signed values are zigzag encoded. Descriptor lists record components as they
+ * were written, so that dumps remain readable after components are added or removed. Sections with unknown codes
+ * are skipped. Block payload holds up to {@link #BLOCK_SIZE} records and is deflated when {@link #FLAG_DEFLATE} is
+ * set, in which case {@code rawLength} is the size of the inflated payload.
+ * <p>
+ * Differential dump holds records changed between {@code since} and {@code until} watermarks followed by the
+ * section of {@link DeleteMarker}s.
+ */
+final class BinaryFormat {
+    static final byte[] MAGIC = {'M', 'N', 'Y', 'B'};
+    static final byte[] DIFFERENTIAL_MAGIC = {'M', 'N', 'Y', 'D'};
+    static final byte[] WATERMARK_MAGIC = {'M', 'N', 'Y', 'W'};
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int FLAG_DEFLATE = 0x01;
+
+    static final int BLOCK_SIZE = 1000;
+
+    /**
+     * Dump sections. Constants are declared in the order that satisfies foreign keys.
+     */
+    enum Section {
+        ICONS(1, ImportExportEventType.ICONS, Icon.class),
+        CATEGORIES(2, ImportExportEventType.CATEGORIES, Category.class),
+        CURRENCIES(3, ImportExportEventType.CURRENCIES, Currency.class),
+        EXCHANGE_SECURITIES(4, ImportExportEventType.EXCHANGE_SECURITIES, ExchangeSecurity.class),
+        ACCOUNTS(5, ImportExportEventType.ACCOUNTS, Account.class),
+        CARDS(6, ImportExportEventType.CARDS, Card.class),
+        CONTACTS(7, ImportExportEventType.CONTACTS, Contact.class),
+        TRANSACTIONS(8, ImportExportEventType.TRANSACTIONS, Transaction.class),
+        INVESTMENT_DEALS(9, ImportExportEventType.INVESTMENTS_DEALS, InvestmentDeal.class),
+        EXCHANGE_SECURITY_SPLITS(10, ImportExportEventType.EXCHANGE_SECURITY_SPLITS, ExchangeSecuritySplit.class),
+        BLOBS(11, ImportExportEventType.BLOBS, BlobContent.class),
+        DELETE_MARKERS(12, ImportExportEventType.DELETED, DeleteMarker.class);
+
+        private final int code;
+        private final ImportExportEventType eventType;
+        private final Class<? extends Record> recordClass;
+
+        Section(int code, ImportExportEventType eventType, Class<? extends Record> recordClass) {
+            this.code = code;
+            this.eventType = eventType;
+            this.recordClass = recordClass;
+        }
+
+        int getCode() {
+            return code;
+        }
+
+        ImportExportEventType getEventType() {
+            return eventType;
+        }
+
+        Class<? extends Record> getRecordClass() {
+            return recordClass;
+        }
+
+        static Optional<Section> ofEventType(ImportExportEventType eventType) {
+            return Arrays.stream(values())
+                    .filter(s -> s.eventType == eventType)
+                    .findAny();
+        }
+
+        static Optional<Section> ofCode(int code) {
+            return Arrays.stream(values())
+                    .filter(s -> s.code == code)
+                    .findAny();
+        }
+    }
+
+    /**
+     * Sections written by export, in the order that satisfies foreign keys.
+     */
+    static final List<Section> EXPORT_SECTIONS = List.of(
+            Section.ICONS,
+            Section.CATEGORIES,
+            Section.CURRENCIES,
+            Section.EXCHANGE_SECURITIES,
+            Section.ACCOUNTS,
+            Section.CARDS,
+            Section.CONTACTS,
+            Section.TRANSACTIONS,
+            Section.INVESTMENT_DEALS,
+            Section.EXCHANGE_SECURITY_SPLITS
+    );
+
+    private BinaryFormat() {
+    }
+}
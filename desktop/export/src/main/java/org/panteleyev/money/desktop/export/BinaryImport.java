@@ -0,0 +1,188 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.END;
+import static org.panteleyev.money.desktop.export.BinaryFormat.FLAG_DEFLATE;
+import static org.panteleyev.money.desktop.export.BinaryFormat.MAGIC;
+import static org.panteleyev.money.desktop.export.BinaryFormat.VERSION;
+
+/**
+ * Reads dumps written by {@link BinaryExport}.
+ */
+public final class BinaryImport {
+    private BinaryImport() {
+    }
+
+    /**
+     * Checks if the stream starts with the binary dump signature. Stream position is not changed.
+     *
+     * @param inputStream input stream, must support mark
+     * @return true if stream contains binary dump
+     */
+    public static boolean isBinaryDump(InputStream inputStream) {
+        return startsWith(inputStream, MAGIC);
+    }
+
+    public static Import doImport(InputStream inputStream) {
+        var imp = new Import();
+        doImport(inputStream, imp::addBatch);
+        return imp;
+    }
+
+    /**
+     * Reads the dump and hands records over to the consumer block by block, so that the whole dump is never held
+     * in memory. Batches arrive in the order of the dump sections, sections unknown to this version are skipped.
+     *
+     * @param inputStream   input stream
+     * @param batchConsumer batch consumer, called on the calling thread
+     */
+    public static void doImport(InputStream inputStream, Consumer<ImportBatch> batchConsumer) {
+        try {
+            readHeader(inputStream, MAGIC);
+            readSections(inputStream, batchConsumer);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    static boolean startsWith(InputStream inputStream, byte[] signature) {
+        if (!inputStream.markSupported()) {
+            throw new IllegalArgumentException("Input stream must support mark");
+        }
+
+        try {
+            inputStream.mark(signature.length);
+            var bytes = inputStream.readNBytes(signature.length);
+            inputStream.reset();
+            return Arrays.equals(bytes, signature);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    static void readHeader(InputStream in, byte[] magic) throws IOException {
+        var signature = in.readNBytes(magic.length);
+        if (!Arrays.equals(signature, magic)) {
+            throw new IllegalStateException("Unexpected dump signature");
+        }
+        var version = readVarInt(in);
+        if (version > VERSION) {
+            throw new IllegalStateException("Unsupported dump version: " + version);
+        }
+    }
+
+    static void readSections(InputStream in, Consumer<ImportBatch> batchConsumer) throws IOException {
+        var inflater = new Inflater();
+        try {
+            for (int code; (code = readVarInt(in)) != END; ) {
+                readSection(in, Section.ofCode(code).orElse(null), inflater, batchConsumer);
+            }
+        } catch (DataFormatException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void readSection(
+            InputStream in,
+            Section section,
+            Inflater inflater,
+            Consumer<ImportBatch> batchConsumer) throws IOException, DataFormatException
+    {
+        var descriptor = new BinaryDecoder(readFully(in, readVarInt(in)));
+        var codec = section == null ? null : BinaryRecordCodec.of(section.getRecordClass());
+        var layout = codec == null ? null : codec.readLayout(descriptor);
+
+        for (int recordCount; (recordCount = readVarInt(in)) != END; ) {
+            var flags = in.read();
+            if (flags < 0) {
+                throw new EOFException();
+            }
+            var length = readVarInt(in);
+            var rawLength = (flags & FLAG_DEFLATE) != 0 ? readVarInt(in) : length;
+            var bytes = readFully(in, length);
+            if (codec == null) {
+                continue;
+            }
+
+            if ((flags & FLAG_DEFLATE) != 0) {
+                bytes = inflate(inflater, bytes, rawLength);
+            }
+
+            var decoder = new BinaryDecoder(bytes);
+            var records = new ArrayList<Record>(recordCount);
+            for (var i = 0; i < recordCount; i++) {
+                records.add(codec.read(decoder, layout));
+            }
+            if (decoder.hasRemaining()) {
+                throw new IllegalStateException("Corrupted block in section " + section);
+            }
+            batchConsumer.accept(new ImportBatch(section.getEventType(), List.copyOf(records)));
+        }
+    }
+
+    private static byte[] inflate(Inflater inflater, byte[] bytes, int rawLength) throws DataFormatException {
+        inflater.reset();
+        inflater.setInput(bytes);
+
+        var raw = new byte[rawLength];
+        var size = 0;
+        while (size < rawLength && !inflater.finished()) {
+            var count = inflater.inflate(raw, size, rawLength - size);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                break;
+            }
+            size += count;
+        }
+        if (size != rawLength || !inflater.finished()) {
+            throw new DataFormatException("Unexpected block length");
+        }
+        return raw;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        var bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+
+    static long readZigZag(InputStream in) throws IOException {
+        var value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        var result = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        return Math.toIntExact(readVarLong(in));
+    }
+}
@@ -0,0 +1,340 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.RecordMetadata;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Binary serializer and deserializer of a single record class.
+ * <p>
+ * Each record starts with a varint of flags, one bit per boolean component holding its value and one bit per
+ * reference component telling whether it is present. Present reference values and primitive values follow in
+ * the order of components. Components and their accessors come from {@link RecordMetadata}.
+ *
+ * @param <T> record type
+ */
+final class BinaryRecordCodec<T extends Record> {
+    private final Component[] components;
+    private final RecordMetadata<T> metadata;
+
+    private BinaryRecordCodec(Component[] components, RecordMetadata<T> metadata) {
+        this.components = components;
+        this.metadata = metadata;
+    }
+
+    static <T extends Record> BinaryRecordCodec<T> of(Class<T> recordClass) {
+        var metadata = RecordMetadata.of(recordClass);
+        var components = metadata.components().stream()
+                .map(component -> new Component(ValueType.of(component.type()), component))
+                .toArray(Component[]::new);
+
+        var flagCount = Arrays.stream(components).filter(component -> component.type().isFlagged()).count();
+        if (flagCount > Long.SIZE) {
+            throw new IllegalArgumentException("Too many nullable components: " + recordClass.getName());
+        }
+
+        return new BinaryRecordCodec<>(components, metadata);
+    }
+
+    void writeDescriptor(BinaryEncoder out) {
+        out.writeVarLong(components.length);
+        for (var component : components) {
+            out.writeString(component.name());
+            out.writeByte(component.type().getTag());
+        }
+    }
+
+    void write(BinaryEncoder out, T rec) {
+        var values = new Object[components.length];
+        var flags = 0L;
+        var bit = 0;
+        for (var i = 0; i < components.length; i++) {
+            var component = components[i];
+            values[i] = component.accessor().get(rec);
+            if (component.type().isFlagged()) {
+                var set = component.type() == ValueType.BOOLEAN ? (Boolean) values[i] : values[i] != null;
+                if (set) {
+                    flags |= 1L << bit;
+                }
+                bit++;
+            }
+        }
+
+        out.writeVarLong(flags);
+        for (var i = 0; i < components.length; i++) {
+            var type = components[i].type();
+            if (type != ValueType.BOOLEAN && values[i] != null) {
+                type.write(out, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads section descriptor and matches written components against components of the record class by name and
+     * type. Components missing in the dump get default values, components missing in the record class are skipped.
+     */
+    Layout readLayout(BinaryDecoder in) {
+        var count = in.readVarInt();
+        var types = new ValueType[count];
+        var targets = new int[count];
+        for (var i = 0; i < count; i++) {
+            var name = in.readString();
+            types[i] = ValueType.ofTag(in.readByte());
+            targets[i] = -1;
+            for (var j = 0; j < components.length; j++) {
+                if (components[j].name().equals(name) && components[j].type() == types[i]) {
+                    targets[i] = j;
+                    break;
+                }
+            }
+        }
+        return new Layout(types, targets);
+    }
+
+    T read(BinaryDecoder in, Layout layout) {
+        var arguments = metadata.defaultArguments();
+        var flags = in.readVarLong();
+        var bit = 0;
+        for (var i = 0; i < layout.types.length; i++) {
+            var type = layout.types[i];
+            var target = layout.targets[i];
+
+            Object value;
+            if (type == ValueType.BOOLEAN) {
+                value = ((flags >>> bit++) & 1) != 0;
+            } else if (type.isFlagged() && ((flags >>> bit++) & 1) == 0) {
+                value = null;
+            } else {
+                value = type.read(in, target < 0 ? Object.class : components[target].accessor().type());
+            }
+
+            if (target >= 0 && value != null) {
+                arguments[target] = value;
+            }
+        }
+
+        return metadata.newRecord(arguments);
+    }
+
+    static final class Layout {
+        private final ValueType[] types;
+        private final int[] targets;
+
+        private Layout(ValueType[] types, int[] targets) {
+            this.types = types;
+            this.targets = targets;
+        }
+    }
+
+    private record Component(ValueType type, RecordMetadata.Component accessor) {
+        String name() {
+            return accessor.name();
+        }
+    }
+
+    private enum ValueType {
+        INT(1, false) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeZigZag((Integer) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return (int) in.readZigZag();
+            }
+        },
+        LONG(2, false) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeZigZag((Long) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return in.readZigZag();
+            }
+        },
+        BOOLEAN(3, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                throw new IllegalStateException("Boolean values are stored in flags");
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                throw new IllegalStateException("Boolean values are stored in flags");
+            }
+        },
+        NULLABLE_INT(4, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeZigZag((Integer) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return (int) in.readZigZag();
+            }
+        },
+        STRING(5, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeString((String) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return in.readString();
+            }
+        },
+        ID(6, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeUuid((UUID) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return in.readUuid();
+            }
+        },
+        DECIMAL(7, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                var decimal = (BigDecimal) value;
+                var unscaled = decimal.unscaledValue();
+                if (unscaled.bitLength() < Long.SIZE) {
+                    out.writeZigZag((long) decimal.scale() << 1);
+                    out.writeZigZag(unscaled.longValue());
+                } else {
+                    out.writeZigZag(((long) decimal.scale() << 1) | 1);
+                    out.writeBlob(unscaled.toByteArray());
+                }
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                var header = in.readZigZag();
+                var scale = Math.toIntExact(header >> 1);
+                return (header & 1) == 0 ?
+                        BigDecimal.valueOf(in.readZigZag(), scale) :
+                        new BigDecimal(new BigInteger(in.readBlob()), scale);
+            }
+        },
+        DATE(8, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeZigZag(((LocalDate) value).toEpochDay());
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return LocalDate.ofEpochDay(in.readZigZag());
+            }
+        },
+        DATE_TIME(9, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                var dateTime = (LocalDateTime) value;
+                out.writeZigZag(dateTime.toEpochSecond(ZoneOffset.UTC));
+                out.writeVarLong(dateTime.getNano());
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                var seconds = in.readZigZag();
+                return LocalDateTime.ofEpochSecond(seconds, in.readVarInt(), ZoneOffset.UTC);
+            }
+        },
+        ENUM(10, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeString(((Enum<?>) value).name());
+            }
+
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Object read(BinaryDecoder in, Class<?> type) {
+                var name = in.readString();
+                return type.isEnum() ? Enum.valueOf((Class) type, name) : name;
+            }
+        },
+        BYTES(11, true) {
+            @Override
+            void write(BinaryEncoder out, Object value) {
+                out.writeBlob((byte[]) value);
+            }
+
+            @Override
+            Object read(BinaryDecoder in, Class<?> type) {
+                return in.readBlob();
+            }
+        };
+
+        private final int tag;
+        private final boolean flagged;
+
+        ValueType(int tag, boolean flagged) {
+            this.tag = tag;
+            this.flagged = flagged;
+        }
+
+        int getTag() {
+            return tag;
+        }
+
+        boolean isFlagged() {
+            return flagged;
+        }
+
+        abstract void write(BinaryEncoder out, Object value);
+
+        abstract Object read(BinaryDecoder in, Class<?> type);
+
+        static ValueType ofTag(int tag) {
+            for (var type : values()) {
+                if (type.tag == tag) {
+                    return type;
+                }
+            }
+            throw new IllegalStateException("Unsupported value type: " + tag);
+        }
+
+        static ValueType of(Class<?> type) {
+            if (type == int.class) {
+                return INT;
+            } else if (type == long.class) {
+                return LONG;
+            } else if (type == boolean.class) {
+                return BOOLEAN;
+            } else if (type == Integer.class) {
+                return NULLABLE_INT;
+            } else if (type == String.class) {
+                return STRING;
+            } else if (type == UUID.class) {
+                return ID;
+            } else if (type == BigDecimal.class) {
+                return DECIMAL;
+            } else if (type == LocalDate.class) {
+                return DATE;
+            } else if (type == LocalDateTime.class) {
+                return DATE_TIME;
+            } else if (type.isEnum()) {
+                return ENUM;
+            } else if (type == byte[].class) {
+                return BYTES;
+            } else {
+                throw new IllegalArgumentException("Unsupported type: " + type.getTypeName());
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.BLOCK_SIZE;
+import static org.panteleyev.money.desktop.export.BinaryFormat.END;
+import static org.panteleyev.money.desktop.export.BinaryFormat.FLAG_DEFLATE;
+import static org.panteleyev.money.desktop.export.BinaryFormat.MAGIC;
+import static org.panteleyev.money.desktop.export.BinaryFormat.VERSION;
+
+/**
+ * Writes parts of the binary dump. Instances keep their buffers between sections and are not thread safe.
+ */
+final class BinarySectionWriter implements AutoCloseable {
+    private final BinaryEncoder header = new BinaryEncoder(64);
+    private final BinaryEncoder payload = new BinaryEncoder();
+    private final BinaryEncoder compressed = new BinaryEncoder();
+    private final byte[] chunk = new byte[8192];
+    private final Deflater deflater;
+
+    /**
+     * @param compress whether blocks are deflated, block is stored as is if deflating does not make it smaller
+     */
+    BinarySectionWriter(boolean compress) {
+        deflater = compress ? new Deflater() : null;
+    }
+
+    void writeHeader(OutputStream out) throws IOException {
+        writeHeader(out, MAGIC);
+    }
+
+    void writeHeader(OutputStream out, byte[] magic) throws IOException {
+        out.write(magic);
+        header.writeVarLong(VERSION);
+        flushHeader(out);
+    }
+
+    void writeZigZag(OutputStream out, long value) throws IOException {
+        header.writeZigZag(value);
+        flushHeader(out);
+    }
+
+    void writeEnd(OutputStream out) throws IOException {
+        header.writeVarLong(END);
+        flushHeader(out);
+    }
+
+    void writeSection(OutputStream out, Section section, List<? extends Record> records) throws IOException {
+        writeSection(out, section, records::forEach);
+    }
+
+    /**
+     * Writes section with records pushed by the producer. No more than one block of records is held in memory.
+     *
+     * @param out      output stream
+     * @param section  section
+     * @param producer producer that pushes all records of the section to the consumer
+     */
+    @SuppressWarnings("unchecked")
+    void writeSection(OutputStream out, Section section, Consumer<Consumer<Record>> producer) throws IOException {
+        var codec = BinaryRecordCodec.of((Class<Record>) section.getRecordClass());
+
+        payload.reset();
+        codec.writeDescriptor(payload);
+        header.writeVarLong(section.getCode());
+        header.writeVarLong(payload.size());
+        flushHeader(out);
+        payload.writeTo(out);
+
+        var count = new int[]{0};
+        payload.reset();
+        producer.accept(rec -> {
+            codec.write(payload, rec);
+            if (++count[0] == BLOCK_SIZE) {
+                writeBlock(out, count[0]);
+                payload.reset();
+                count[0] = 0;
+            }
+        });
+        if (count[0] > 0) {
+            writeBlock(out, count[0]);
+        }
+
+        writeEnd(out);
+    }
+
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock(OutputStream out, int recordCount) {
+        header.writeVarLong(recordCount);
+
+        try {
+            if (deflater != null && deflate()) {
+                header.writeByte(FLAG_DEFLATE);
+                header.writeVarLong(compressed.size());
+                header.writeVarLong(payload.size());
+                flushHeader(out);
+                compressed.writeTo(out);
+            } else {
+                header.writeByte(0);
+                header.writeVarLong(payload.size());
+                flushHeader(out);
+                payload.writeTo(out);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private boolean deflate() {
+        deflater.reset();
+        deflater.setInput(payload.buffer(), 0, payload.size());
+        deflater.finish();
+
+        compressed.reset();
+        while (!deflater.finished() && compressed.size() < payload.size()) {
+            var count = deflater.deflate(chunk);
+            compressed.writeBytes(chunk, 0, count);
+        }
+        return deflater.finished() && compressed.size() < payload.size();
+    }
+
+    private void flushHeader(OutputStream out) throws IOException {
+        header.writeTo(out);
+        header.reset();
+    }
+}
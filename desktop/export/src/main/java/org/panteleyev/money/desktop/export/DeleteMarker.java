@@ -0,0 +1,21 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Record deleted since the previous backup.
+ *
+ * @param type section of the deleted record
+ * @param uuid uuid of the deleted record
+ */
+public record DeleteMarker(ImportExportEventType type, UUID uuid) {
+    public DeleteMarker {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(uuid);
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+import org.panteleyev.money.model.MoneyRecord;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.DIFFERENTIAL_MAGIC;
+import static org.panteleyev.money.desktop.export.BinaryFormat.EXPORT_SECTIONS;
+
+/**
+ * Writes records changed since the watermark of the previous backup and markers of deleted records. The result is
+ * applied on top of the full dump with {@link DifferentialImport}.
+ */
+public class DifferentialExport {
+    private static final ImportExportEvent DONE =
+            new ImportExportEvent(ImportExportEvent.ImportExportEventType.DONE);
+
+    private final ExportSource source;
+    private final ExportWatermark since;
+
+    public DifferentialExport(DataCache cache, ExportWatermark since) {
+        this(ExportSource.of(cache), since);
+    }
+
+    public DifferentialExport(ExportSource source, ExportWatermark since) {
+        this.source = source;
+        this.since = Objects.requireNonNull(since);
+    }
+
+    /**
+     * Writes the differential dump.
+     *
+     * @param out      output stream
+     * @param progress progress consumer
+     * @return watermark for the next differential export
+     */
+    public ExportWatermark doExport(OutputStream out, Consumer<ImportExportEvent> progress) {
+        var until = ExportWatermark.of(source);
+
+        try (var writer = new BinarySectionWriter(true)) {
+            writer.writeHeader(out, DIFFERENTIAL_MAGIC);
+            writer.writeZigZag(out, since.getModified());
+            writer.writeZigZag(out, until.getModified());
+
+            // Deletions go first in the reverse foreign key order, so that records deleted and then recreated with
+            // the same unique key do not collide with their successors on import
+            var deleted = new ArrayList<DeleteMarker>();
+            for (var section : EXPORT_SECTIONS.reversed()) {
+                var current = until.getUuids(section);
+                for (var uuid : since.getUuids(section)) {
+                    if (!current.contains(uuid)) {
+                        deleted.add(new DeleteMarker(section.getEventType(), uuid));
+                    }
+                }
+            }
+            if (!deleted.isEmpty()) {
+                writer.writeSection(out, Section.DELETE_MARKERS, deleted);
+            }
+
+            for (var section : EXPORT_SECTIONS) {
+                progress.accept(new ImportExportEvent(section.getEventType(), 1));
+
+                var known = since.getUuids(section);
+                // Records are compared by uuid as well, new records may come with earlier timestamps
+                var changed = new ArrayList<Record>();
+                source.forEach(section.getEventType(), rec -> {
+                    var moneyRecord = (MoneyRecord) rec;
+                    if (moneyRecord.modified() >= since.getModified() || !known.contains(moneyRecord.uuid())) {
+                        changed.add(rec);
+                    }
+                });
+                if (!changed.isEmpty()) {
+                    writer.writeSection(out, section, changed);
+                }
+
+                progress.accept(DONE);
+            }
+
+            writer.writeEnd(out);
+            out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        return until;
+    }
+}
@@ -0,0 +1,113 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
+import org.panteleyev.money.model.MoneyRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.DIFFERENTIAL_MAGIC;
+import static org.panteleyev.money.desktop.export.BinaryFormat.EXPORT_SECTIONS;
+
+/**
+ * Reads differential dumps written by {@link DifferentialExport}.
+ */
+public final class DifferentialImport {
+    /**
+     * Watermarks of the differential dump.
+     *
+     * @param since modification time of the previous backup
+     * @param until modification time of this backup
+     */
+    public record Range(long since, long until) {
+    }
+
+    private DifferentialImport() {
+    }
+
+    /**
+     * Checks if the stream starts with the differential dump signature. Stream position is not changed.
+     *
+     * @param inputStream input stream, must support mark
+     * @return true if stream contains differential dump
+     */
+    public static boolean isDifferential(InputStream inputStream) {
+        return BinaryImport.startsWith(inputStream, DIFFERENTIAL_MAGIC);
+    }
+
+    /**
+     * Reads the differential dump. {@link DeleteMarker}s arrive first in the reverse foreign key order as batches of
+     * {@link ImportExportEventType#DELETED} type, changed records follow in the foreign key order. Delete markers
+     * must be applied before changed records are inserted or updated.
+     *
+     * @param inputStream   input stream
+     * @param batchConsumer batch consumer, called on the calling thread
+     * @return watermarks of the dump
+     */
+    public static Range doImport(InputStream inputStream, Consumer<ImportBatch> batchConsumer) {
+        try {
+            BinaryImport.readHeader(inputStream, DIFFERENTIAL_MAGIC);
+            var range = new Range(BinaryImport.readZigZag(inputStream), BinaryImport.readZigZag(inputStream));
+            BinaryImport.readSections(inputStream, batchConsumer);
+            return range;
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Replays the chain of differential dumps on top of the full dump. Differentials must be ordered from the oldest
+     * to the newest with no gaps.
+     *
+     * @param base          full dump
+     * @param differentials differential dumps
+     * @return resulting data
+     */
+    public static Import replay(Import base, List<? extends InputStream> differentials) {
+        var state = new EnumMap<ImportExportEventType, Map<UUID, Record>>(ImportExportEventType.class);
+        for (var section : EXPORT_SECTIONS) {
+            var records = new LinkedHashMap<UUID, Record>();
+            for (var rec : base.getRecords(section.getEventType())) {
+                records.put(((MoneyRecord) rec).uuid(), rec);
+            }
+            state.put(section.getEventType(), records);
+        }
+
+        Range previous = null;
+        for (var differential : differentials) {
+            var range = doImport(differential, batch -> {
+                if (batch.type() == ImportExportEventType.DELETED) {
+                    for (DeleteMarker marker : batch.<DeleteMarker>getRecords()) {
+                        var records = state.get(marker.type());
+                        if (records != null) {
+                            records.remove(marker.uuid());
+                        }
+                    }
+                } else {
+                    var records = state.get(batch.type());
+                    for (var rec : batch.getRecords()) {
+                        records.put(((MoneyRecord) rec).uuid(), rec);
+                    }
+                }
+            });
+
+            if (previous != null && range.since() != previous.until()) {
+                throw new IllegalStateException("Differential dumps are out of order");
+            }
+            previous = range;
+        }
+
+        var result = new Import();
+        state.forEach((type, records) -> result.addBatch(new ImportBatch(type, List.copyOf(records.values()))));
+        result.getBlobs().addAll(base.getBlobs());
+        return result;
+    }
+}
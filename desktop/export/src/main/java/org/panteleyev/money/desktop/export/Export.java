@@ -1,11 +1,12 @@
 /*
- Copyright © 2017-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2017-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.desktop.export;
 
 import org.panteleyev.commons.xml.XMLStreamWriterWrapper;
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
 
 import javax.xml.namespace.QName;
 import java.io.OutputStream;
@@ -49,10 +50,14 @@ public class Export {
     private static final ImportExportEvent EXCHANGE_SECURITY_SPLITS =
             new ImportExportEvent(ImportExportEvent.ImportExportEventType.EXCHANGE_SECURITY_SPLITS, 1);
 
-    private final DataCache cache;
+    private final ExportSource source;
 
     public Export(DataCache cache) {
-        this.cache = cache;
+        this(ExportSource.of(cache));
+    }
+
+    public Export(ExportSource source) {
+        this.source = source;
     }
 
     public void doExport(OutputStream out, Consumer<ImportExportEvent> progress) {
@@ -60,84 +65,61 @@ public class Export {
             wrapper.document(ELEMENT_MONEY, () -> {
                 progress.accept(ICONS);
                 wrapper.element(ELEMENT_ICONS, () -> {
-                    for (var icon : cache.getIcons()) {
-                        serialize(wrapper, icon);
-                    }
+                    source.forEach(ImportExportEventType.ICONS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(CATEGORIES);
                 wrapper.element(ELEMENT_CATEGORIES, () -> {
-                    for (var category : cache.getCategories()) {
-                        serialize(wrapper, category);
-                    }
+                    source.forEach(ImportExportEventType.CATEGORIES, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(CURRENCIES);
                 wrapper.element(ELEMENT_CURRENCIES, () -> {
-                    for (var currency : cache.getCurrencies()) {
-                        serialize(wrapper, currency);
-                    }
+                    source.forEach(ImportExportEventType.CURRENCIES, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(EXCHANGE_SECURITIES);
                 wrapper.element(ELEMENT_EXCHANGE_SECURITIES, () -> {
-                    for (var security : cache.getExchangeSecurities()) {
-                        serialize(wrapper, security);
-                    }
+                    source.forEach(ImportExportEventType.EXCHANGE_SECURITIES, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(ACCOUNTS);
                 wrapper.element(ELEMENT_ACCOUNTS, () -> {
-                    for (var account : cache.getAccounts()) {
-                        serialize(wrapper, account);
-                    }
+                    source.forEach(ImportExportEventType.ACCOUNTS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(CARDS);
                 wrapper.element(ELEMENT_CARDS, () -> {
-                    for (var card : cache.getCards()) {
-                        serialize(wrapper, card);
-                    }
+                    source.forEach(ImportExportEventType.CARDS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(CONTACTS);
                 wrapper.element(ELEMENT_CONTACTS, () -> {
-                    for (var contact : cache.getContacts()) {
-                        serialize(wrapper, contact);
-                    }
+                    source.forEach(ImportExportEventType.CONTACTS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(TRANSACTIONS);
                 wrapper.element(ELEMENT_TRANSACTIONS, () -> {
-                    for (var transaction : cache.getTransactions().stream().filter(t -> t.parentUuid() == null).toList()) {
-                        serialize(wrapper, transaction);
-                    }
-                    for (var transaction : cache.getTransactions().stream().filter(t -> t.parentUuid() != null).toList()) {
-                        serialize(wrapper, transaction);
-                    }
+                    source.forEach(ImportExportEventType.TRANSACTIONS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(INVESTMENTS_DEALS);
                 wrapper.element(ELEMENT_INVESTMENT_DEALS, () -> {
-                    for (var investment : cache.getInvestmentDeals()) {
-                        serialize(wrapper, investment);
-                    }
+                    source.forEach(ImportExportEventType.INVESTMENTS_DEALS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
 
                 progress.accept(EXCHANGE_SECURITY_SPLITS);
                 wrapper.element(ELEMENT_EXCHANGE_SECURITY_SPLITS, () -> {
-                    for (var split : cache.getExchangeSecuritySplits()) {
-                        serialize(wrapper, split);
-                    }
+                    source.forEach(ImportExportEventType.EXCHANGE_SECURITY_SPLITS, r -> serialize(wrapper, r));
                 });
                 progress.accept(DONE);
             });
@@ -0,0 +1,46 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
+
+import java.util.function.Consumer;
+
+/**
+ * Source of records for export. Records are pushed to the consumer one by one, so the source may stream them from
+ * the database without holding the whole table in memory.
+ */
+@FunctionalInterface
+public interface ExportSource {
+    /**
+     * Supplies records of the given type. Records referencing other records of the same type, i.e. detail
+     * transactions, must follow the records they reference.
+     *
+     * @param type     record type
+     * @param consumer record consumer
+     */
+    void forEach(ImportExportEventType type, Consumer<Record> consumer);
+
+    static ExportSource of(DataCache cache) {
+        return (type, consumer) -> {
+            switch (type) {
+                case ICONS -> cache.getIcons().forEach(consumer);
+                case CATEGORIES -> cache.getCategories().forEach(consumer);
+                case CURRENCIES -> cache.getCurrencies().forEach(consumer);
+                case EXCHANGE_SECURITIES -> cache.getExchangeSecurities().forEach(consumer);
+                case ACCOUNTS -> cache.getAccounts().forEach(consumer);
+                case CARDS -> cache.getCards().forEach(consumer);
+                case CONTACTS -> cache.getContacts().forEach(consumer);
+                case TRANSACTIONS -> {
+                    cache.getTransactions().stream().filter(t -> t.parentUuid() == null).forEach(consumer);
+                    cache.getTransactions().stream().filter(t -> t.parentUuid() != null).forEach(consumer);
+                }
+                case INVESTMENTS_DEALS -> cache.getInvestmentDeals().forEach(consumer);
+                case EXCHANGE_SECURITY_SPLITS -> cache.getExchangeSecuritySplits().forEach(consumer);
+                default -> {
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.BinaryFormat.Section;
+import org.panteleyev.money.model.MoneyRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.panteleyev.money.desktop.export.BinaryFormat.END;
+import static org.panteleyev.money.desktop.export.BinaryFormat.EXPORT_SECTIONS;
+import static org.panteleyev.money.desktop.export.BinaryFormat.VERSION;
+import static org.panteleyev.money.desktop.export.BinaryFormat.WATERMARK_MAGIC;
+
+/**
+ * State of the data at the moment of backup: the latest modification time and uuids of all records. Differential
+ * export writes records changed after the watermark and delete markers for uuids that are gone.
+ */
+public final class ExportWatermark {
+    private final long modified;
+    private final Map<Section, Set<UUID>> uuids;
+
+    private ExportWatermark(long modified, Map<Section, Set<UUID>> uuids) {
+        this.modified = modified;
+        this.uuids = uuids;
+    }
+
+    public static ExportWatermark of(DataCache cache) {
+        return of(ExportSource.of(cache));
+    }
+
+    public static ExportWatermark of(ExportSource source) {
+        var modified = new long[]{0L};
+        var uuids = new EnumMap<Section, Set<UUID>>(Section.class);
+        for (var section : EXPORT_SECTIONS) {
+            var set = new HashSet<UUID>();
+            source.forEach(section.getEventType(), rec -> {
+                var moneyRecord = (MoneyRecord) rec;
+                set.add(moneyRecord.uuid());
+                modified[0] = Math.max(modified[0], moneyRecord.modified());
+            });
+            uuids.put(section, set);
+        }
+        return new ExportWatermark(modified[0], uuids);
+    }
+
+    /**
+     * Returns the latest modification time of records covered by this watermark.
+     *
+     * @return modification time in milliseconds
+     */
+    public long getModified() {
+        return modified;
+    }
+
+    Set<UUID> getUuids(Section section) {
+        return uuids.getOrDefault(section, Set.of());
+    }
+
+    public void write(OutputStream out) {
+        var encoder = new BinaryEncoder();
+        encoder.writeBytes(WATERMARK_MAGIC, 0, WATERMARK_MAGIC.length);
+        encoder.writeVarLong(VERSION);
+        encoder.writeZigZag(modified);
+        for (var entry : uuids.entrySet()) {
+            encoder.writeVarLong(entry.getKey().getCode());
+            encoder.writeVarLong(entry.getValue().size());
+            for (var uuid : entry.getValue()) {
+                encoder.writeUuid(uuid);
+            }
+        }
+        encoder.writeVarLong(END);
+
+        try {
+            encoder.writeTo(out);
+            out.flush();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public static ExportWatermark read(InputStream in) {
+        try {
+            BinaryImport.readHeader(in, WATERMARK_MAGIC);
+            var decoder = new BinaryDecoder(in.readAllBytes());
+
+            var modified = decoder.readZigZag();
+            var uuids = new EnumMap<Section, Set<UUID>>(Section.class);
+            for (int code; (code = decoder.readVarInt()) != END; ) {
+                var count = decoder.readVarInt();
+                var set = HashSet.<UUID>newHashSet(count);
+                for (var i = 0; i < count; i++) {
+                    set.add(decoder.readUuid());
+                }
+                Section.ofCode(code).ifPresent(section -> uuids.put(section, set));
+            }
+            return new ExportWatermark(modified, uuids);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -13,43 +13,72 @@ import org.panteleyev.money.model.ExchangeSecuritySplit;
 import org.panteleyev.money.model.Icon;
 import org.panteleyev.money.model.InvestmentDeal;
 import org.panteleyev.money.model.Transaction;
+import org.xml.sax.SAXException;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.stax.StAXSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class Import {
     private static final String SCHEMA = "/xsd/money.xsd";
 
-    private final List<Icon> icons;
-    private final List<Category> categories;
-    private final List<Account> accounts;
-    private final List<Card> cards;
-    private final List<Contact> contacts;
-    private final List<Currency> currencies;
-    private final List<ExchangeSecurity> exchangeSecurities;
-    private final List<Transaction> transactions;
-    private final List<InvestmentDeal> investmentDeals;
-    private final List<ExchangeSecuritySplit> exchangeSecuritySplits;
-    private final List<BlobContent> blobs;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final List<Icon> icons = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+    private final List<Card> cards = new ArrayList<>();
+    private final List<Contact> contacts = new ArrayList<>();
+    private final List<Currency> currencies = new ArrayList<>();
+    private final List<ExchangeSecurity> exchangeSecurities = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final List<InvestmentDeal> investmentDeals = new ArrayList<>();
+    private final List<ExchangeSecuritySplit> exchangeSecuritySplits = new ArrayList<>();
+    private final List<BlobContent> blobs = new ArrayList<>();
 
     private static Schema moneySchema = null;
 
-    private Import(ImportParser importParser) {
-        icons = importParser.getIcons();
-        categories = importParser.getCategories();
-        accounts = importParser.getAccounts();
-        cards = importParser.getCards();
-        contacts = importParser.getContacts();
-        currencies = importParser.getCurrencies();
-        exchangeSecurities = importParser.getExchangeSecurities();
-        transactions = importParser.getTransactions();
-        investmentDeals = importParser.getInvestments();
-        exchangeSecuritySplits = importParser.getExchangeSecuritySplits();
-        blobs = importParser.getBlobs();
+    Import() {
+    }
+
+    void addBatch(ImportBatch batch) {
+        switch (batch.type()) {
+            case ICONS -> icons.addAll(batch.getRecords());
+            case CATEGORIES -> categories.addAll(batch.getRecords());
+            case ACCOUNTS -> accounts.addAll(batch.getRecords());
+            case CARDS -> cards.addAll(batch.getRecords());
+            case CONTACTS -> contacts.addAll(batch.getRecords());
+            case CURRENCIES -> currencies.addAll(batch.getRecords());
+            case EXCHANGE_SECURITIES -> exchangeSecurities.addAll(batch.getRecords());
+            case TRANSACTIONS -> transactions.addAll(batch.getRecords());
+            case INVESTMENTS_DEALS -> investmentDeals.addAll(batch.getRecords());
+            case EXCHANGE_SECURITY_SPLITS -> exchangeSecuritySplits.addAll(batch.getRecords());
+            case BLOBS -> blobs.addAll(batch.getRecords());
+            default -> {
+            }
+        }
+    }
+
+    List<? extends Record> getRecords(ImportExportEvent.ImportExportEventType type) {
+        return switch (type) {
+            case ICONS -> icons;
+            case CATEGORIES -> categories;
+            case ACCOUNTS -> accounts;
+            case CARDS -> cards;
+            case CONTACTS -> contacts;
+            case CURRENCIES -> currencies;
+            case EXCHANGE_SECURITIES -> exchangeSecurities;
+            case TRANSACTIONS -> transactions;
+            case INVESTMENTS_DEALS -> investmentDeals;
+            case EXCHANGE_SECURITY_SPLITS -> exchangeSecuritySplits;
+            case BLOBS -> blobs;
+            default -> List.of();
+        };
     }
 
     public List<Icon> getIcons() {
@@ -98,12 +127,7 @@ public class Import {
 
     public static void validate(InputStream inputStream) {
         try {
-            if (moneySchema == null) {
-                var factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-                moneySchema = factory.newSchema(Import.class.getResource(SCHEMA));
-            }
-
-            var validator = moneySchema.newValidator();
+            var validator = getSchema().newValidator();
             try (var wrapper = XMLEventReaderWrapper.newInstance(inputStream)) {
                 validator.validate(new StAXSource(wrapper.getReader()));
             }
@@ -112,15 +136,65 @@ public class Import {
         }
     }
 
+    private static synchronized Schema getSchema() throws SAXException {
+        if (moneySchema == null) {
+            var factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            moneySchema = factory.newSchema(Import.class.getResource(SCHEMA));
+        }
+        return moneySchema;
+    }
+
     public static Import doImport(InputStream inputStream) {
+        var imp = new Import();
+        doImport(inputStream, DEFAULT_BATCH_SIZE, imp::addBatch);
+        return imp;
+    }
+
+    /**
+     * Parses the dump and hands records over to the consumer as soon as a batch is filled, so that the whole dump
+     * is never held in memory. Batches arrive in the order of the dump sections.
+     *
+     * @param inputStream   input stream
+     * @param batchSize     maximum number of records in a batch
+     * @param batchConsumer batch consumer, called on the calling thread
+     */
+    public static void doImport(InputStream inputStream, int batchSize, Consumer<ImportBatch> batchConsumer) {
+        doImport(inputStream, batchSize, false, batchConsumer);
+    }
+
+    /**
+     * Same as {@link #doImport(InputStream, int, Consumer)} but also validates the document against the schema in
+     * the same pass. Validation error is thrown as soon as it is detected, identity constraints are checked at the
+     * end of the corresponding section. Batches handed over before the error must be discarded by the consumer.
+     *
+     * @param inputStream   input stream
+     * @param batchSize     maximum number of records in a batch
+     * @param batchConsumer batch consumer, called on the calling thread
+     */
+    public static void validateAndImport(InputStream inputStream, int batchSize, Consumer<ImportBatch> batchConsumer) {
+        doImport(inputStream, batchSize, true, batchConsumer);
+    }
+
+    private static void doImport(
+            InputStream inputStream,
+            int batchSize,
+            boolean validate,
+            Consumer<ImportBatch> batchConsumer)
+    {
         try (var reader = XMLEventReaderWrapper.newInstance(inputStream)) {
-            var importParser = new ImportParser();
+            var validator = validate ? new StreamingValidator(getSchema()) : null;
+            var importParser = new ImportParser(batchSize, batchConsumer);
 
             while (reader.hasNext()) {
+                var next = reader.getReader().peek();
+                if (validator != null) {
+                    validator.accept(next);
+                }
+                importParser.onEvent(next);
                 var event = reader.nextEvent();
                 event.asStartElement().ifPresent(importParser::onStartElement);
             }
-            return new Import(importParser);
+            importParser.flush();
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
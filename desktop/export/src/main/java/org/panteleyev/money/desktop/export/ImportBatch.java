@@ -0,0 +1,26 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded portion of records of the same type produced by the streaming import. Batches are emitted in the order
+ * of the dump sections which is also the order of foreign key dependencies.
+ *
+ * @param type    section type
+ * @param records records
+ */
+public record ImportBatch(ImportExportEvent.ImportExportEventType type, List<? extends Record> records) {
+    public ImportBatch {
+        requireNonNull(type);
+        requireNonNull(records);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Record> List<T> getRecords() {
+        return (List<T>) records;
+    }
+}
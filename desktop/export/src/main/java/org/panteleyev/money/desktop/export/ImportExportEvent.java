@@ -1,5 +1,5 @@
 /*
- Copyright © 2024-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2024-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.desktop.export;
@@ -25,7 +25,8 @@ public record ImportExportEvent(ImportExportEventType type, int level) {
         DOCUMENTS("документы"),
         INVESTMENTS_DEALS("инвестиционные сделки"),
         EXCHANGE_SECURITY_SPLITS("сплиты ценных бумаг"),
-        BLOBS("файлы");
+        BLOBS("файлы"),
+        DELETED("удалённые записи");
 
         private final String text;
         private final boolean endOfEvent;
@@ -3,7 +3,9 @@
 package org.panteleyev.money.desktop.export;
 
 import org.panteleyev.commons.xml.StartElementWrapper;
+import org.panteleyev.money.desktop.commons.xml.RecordReader;
 import org.panteleyev.money.desktop.commons.xml.RecordSerializer;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
 import org.panteleyev.money.model.Account;
 import org.panteleyev.money.model.Card;
 import org.panteleyev.money.model.Category;
@@ -15,34 +17,40 @@ import org.panteleyev.money.model.Icon;
 import org.panteleyev.money.model.InvestmentDeal;
 import org.panteleyev.money.model.Transaction;
 
+import javax.xml.stream.events.XMLEvent;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.Consumer;
 
 class ImportParser {
     enum Tag {
-        Icon(ImportParser::parseIcon),
-        Category(ImportParser::parseCategory),
-        Account(ImportParser::parseAccount),
-        Card(ImportParser::parseCard),
-        Currency(ImportParser::parseCurrency),
-        ExchangeSecurity(ImportParser::parseExchangeSecurity),
-        Contact(ImportParser::parseContact),
-        Transaction(ImportParser::parseTransaction),
-        InvestmentDeal(ImportParser::parseInvestmentDeal),
-        ExchangeSecuritySplit(ImportParser::parseExchangeSecuritySplit),
-        BlobContent(ImportParser::parseBlob);
-
-        Tag(Function<StartElementWrapper, ?> parseMethod) {
-            this.parseMethod = parseMethod;
+        Icon(Icon.class, ImportExportEventType.ICONS),
+        Category(Category.class, ImportExportEventType.CATEGORIES),
+        Account(Account.class, ImportExportEventType.ACCOUNTS),
+        Card(Card.class, ImportExportEventType.CARDS),
+        Currency(Currency.class, ImportExportEventType.CURRENCIES),
+        ExchangeSecurity(ExchangeSecurity.class, ImportExportEventType.EXCHANGE_SECURITIES),
+        Contact(Contact.class, ImportExportEventType.CONTACTS),
+        Transaction(Transaction.class, ImportExportEventType.TRANSACTIONS),
+        InvestmentDeal(InvestmentDeal.class, ImportExportEventType.INVESTMENTS_DEALS),
+        ExchangeSecuritySplit(ExchangeSecuritySplit.class, ImportExportEventType.EXCHANGE_SECURITY_SPLITS),
+        BlobContent(BlobContent.class, ImportExportEventType.BLOBS);
+
+        Tag(Class<? extends Record> recordClass, ImportExportEventType eventType) {
+            this.recordClass = recordClass;
+            this.eventType = eventType;
         }
 
-        private final Function<StartElementWrapper, ?> parseMethod;
+        private final Class<? extends Record> recordClass;
+        private final ImportExportEventType eventType;
 
-        Function<StartElementWrapper, ?> getParseMethod() {
-            return parseMethod;
+        Class<? extends Record> getRecordClass() {
+            return recordClass;
+        }
+
+        ImportExportEventType getEventType() {
+            return eventType;
         }
 
         static Optional<Tag> getTag(String name) {
@@ -54,125 +62,71 @@ class ImportParser {
         }
     }
 
-    private final List<Icon> icons = new ArrayList<>();
-    private final List<Category> categories = new ArrayList<>();
-    private final List<Account> accounts = new ArrayList<>();
-    private final List<Card> cards = new ArrayList<>();
-    private final List<Contact> contacts = new ArrayList<>();
-    private final List<Currency> currencies = new ArrayList<>();
-    private final List<ExchangeSecurity> exchangeSecurities = new ArrayList<>();
-    private final List<Transaction> transactions = new ArrayList<>();
-    private final List<InvestmentDeal> investmentDeals = new ArrayList<>();
-    private final List<ExchangeSecuritySplit> exchangeSecuritySplits = new ArrayList<>();
-    private final List<BlobContent> blobs = new ArrayList<>();
-
-    private final Map<Tag, List<?>> RECORD_LISTS = Map.ofEntries(
-            Map.entry(Tag.Icon, icons),
-            Map.entry(Tag.Category, categories),
-            Map.entry(Tag.Account, accounts),
-            Map.entry(Tag.Card, cards),
-            Map.entry(Tag.Currency, currencies),
-            Map.entry(Tag.ExchangeSecurity, exchangeSecurities),
-            Map.entry(Tag.Contact, contacts),
-            Map.entry(Tag.Transaction, transactions),
-            Map.entry(Tag.InvestmentDeal, investmentDeals),
-            Map.entry(Tag.ExchangeSecuritySplit, exchangeSecuritySplits),
-            Map.entry(Tag.BlobContent, blobs)
-    );
-
-    public List<Icon> getIcons() {
-        return icons;
-    }
-
-    public List<Category> getCategories() {
-        return categories;
-    }
-
-    public List<Account> getAccounts() {
-        return accounts;
-    }
-
-    public List<Card> getCards() {
-        return cards;
-    }
+    private final int batchSize;
+    private final Consumer<ImportBatch> batchConsumer;
 
-    public List<Contact> getContacts() {
-        return contacts;
-    }
-
-    public List<Currency> getCurrencies() {
-        return currencies;
-    }
+    private Tag currentTag = null;
+    private List<Record> currentBatch = new ArrayList<>();
+    private RecordReader<? extends Record> recordReader = null;
 
-    public List<ExchangeSecurity> getExchangeSecurities() {
-        return exchangeSecurities;
-    }
-
-    public List<Transaction> getTransactions() {
-        return transactions;
-    }
-
-    public List<InvestmentDeal> getInvestments() {
-        return investmentDeals;
-    }
-
-    public List<ExchangeSecuritySplit> getExchangeSecuritySplits() {
-        return exchangeSecuritySplits;
-    }
-
-    public List<BlobContent> getBlobs() {
-        return blobs;
+    /**
+     * Creates parser that hands parsed records over in batches.
+     *
+     * @param batchSize     maximum number of records in a batch
+     * @param batchConsumer batch consumer
+     */
+    ImportParser(int batchSize, Consumer<ImportBatch> batchConsumer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be >= 1");
+        }
+        this.batchSize = batchSize;
+        this.batchConsumer = batchConsumer;
     }
 
     public void onStartElement(StartElementWrapper element) {
+        if (recordReader != null) {
+            recordReader.startElement(element.getName());
+            return;
+        }
+
         Tag.getTag(element.getName().getLocalPart()).ifPresent(tag -> {
-            var list = RECORD_LISTS.get(tag);
-            var record = tag.getParseMethod().apply(element);
-            ((List<Object>) list).add(record);
+            if (tag != currentTag) {
+                flush();
+                currentTag = tag;
+            }
+            recordReader = RecordSerializer.newRecordReader(element, tag.getRecordClass());
         });
     }
 
-    private static Icon parseIcon(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Icon.class);
-    }
-
-    private static Category parseCategory(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Category.class);
-    }
-
-    private static Account parseAccount(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Account.class);
-    }
-
-    private static Currency parseCurrency(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Currency.class);
-    }
-
-    private static ExchangeSecurity parseExchangeSecurity(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, ExchangeSecurity.class);
-    }
-
-    private static Contact parseContact(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Contact.class);
-    }
-
-    private static Transaction parseTransaction(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Transaction.class);
-    }
-
-    private static Card parseCard(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, Card.class);
-    }
-
-    private static InvestmentDeal parseInvestmentDeal(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, InvestmentDeal.class);
-    }
+    /**
+     * Handles events other than start element. Text of binary components is decoded as it arrives.
+     *
+     * @param event XML event
+     */
+    public void onEvent(XMLEvent event) {
+        if (recordReader == null) {
+            return;
+        }
 
-    private static ExchangeSecuritySplit parseExchangeSecuritySplit(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, ExchangeSecuritySplit.class);
+        if (event.isCharacters()) {
+            recordReader.characters(event.asCharacters().getData());
+        } else if (event.isEndElement() && recordReader.endElement()) {
+            currentBatch.add(recordReader.build());
+            recordReader = null;
+            if (currentBatch.size() >= batchSize) {
+                flush();
+            }
+        }
     }
 
-    private static BlobContent parseBlob(StartElementWrapper element) {
-        return RecordSerializer.deserializeRecord(element, BlobContent.class);
+    /**
+     * Hands over records parsed so far. Must be called after the end of the document.
+     */
+    public void flush() {
+        if (currentTag != null && !currentBatch.isEmpty()) {
+            var batch = new ImportBatch(currentTag.getEventType(), currentBatch);
+            currentBatch = new ArrayList<>();
+            batchConsumer.accept(batch);
+        }
     }
 }
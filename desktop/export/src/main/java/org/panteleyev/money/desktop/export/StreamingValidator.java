@@ -0,0 +1,92 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+/**
+ * Validates StAX events against the schema as they are read, so that the document is parsed only once for both
+ * validation and import. Validation errors are thrown as {@link RuntimeException}.
+ */
+final class StreamingValidator {
+    private static final String CDATA = "CDATA";
+
+    private final ValidatorHandler handler;
+    private final AttributesImpl attributes = new AttributesImpl();
+    private boolean documentStarted = false;
+
+    StreamingValidator(Schema schema) {
+        handler = schema.newValidatorHandler();
+    }
+
+    void accept(XMLEvent event) {
+        try {
+            switch (event.getEventType()) {
+                case XMLEvent.START_DOCUMENT -> startDocument();
+                case XMLEvent.END_DOCUMENT -> handler.endDocument();
+                case XMLEvent.START_ELEMENT -> startElement(event.asStartElement());
+                case XMLEvent.END_ELEMENT -> endElement(event.asEndElement());
+                case XMLEvent.CHARACTERS, XMLEvent.CDATA, XMLEvent.SPACE -> {
+                    var chars = event.asCharacters().getData().toCharArray();
+                    handler.characters(chars, 0, chars.length);
+                }
+                default -> {
+                }
+            }
+        } catch (SAXException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void startDocument() throws SAXException {
+        if (!documentStarted) {
+            handler.startDocument();
+            documentStarted = true;
+        }
+    }
+
+    private void startElement(StartElement element) throws SAXException {
+        startDocument();
+
+        for (var iterator = element.getNamespaces(); iterator.hasNext(); ) {
+            var namespace = (Namespace) iterator.next();
+            handler.startPrefixMapping(namespace.getPrefix(), namespace.getNamespaceURI());
+        }
+
+        attributes.clear();
+        for (var iterator = element.getAttributes(); iterator.hasNext(); ) {
+            var attribute = (Attribute) iterator.next();
+            var name = attribute.getName();
+            attributes.addAttribute(name.getNamespaceURI(), name.getLocalPart(), toQualifiedName(name),
+                    CDATA, attribute.getValue());
+        }
+
+        var name = element.getName();
+        handler.startElement(name.getNamespaceURI(), name.getLocalPart(), toQualifiedName(name), attributes);
+    }
+
+    private void endElement(EndElement element) throws SAXException {
+        var name = element.getName();
+        handler.endElement(name.getNamespaceURI(), name.getLocalPart(), toQualifiedName(name));
+
+        for (var iterator = element.getNamespaces(); iterator.hasNext(); ) {
+            var namespace = (Namespace) iterator.next();
+            handler.endPrefixMapping(namespace.getPrefix());
+        }
+    }
+
+    private static String toQualifiedName(QName name) {
+        var prefix = name.getPrefix();
+        return prefix == null || prefix.isEmpty() ? name.getLocalPart() : prefix + ":" + name.getLocalPart();
+    }
+}
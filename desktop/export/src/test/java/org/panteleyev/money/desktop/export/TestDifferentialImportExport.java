@@ -0,0 +1,169 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.export;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Category;
+import org.panteleyev.money.model.Contact;
+import org.panteleyev.money.model.Currency;
+import org.panteleyev.money.model.Icon;
+import org.panteleyev.money.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This test covers differential export and replay of differential chains without database interaction.
+ */
+public class TestDifferentialImportExport {
+    private static final Icon ICON = BaseTestUtils.newIcon("dollar.png");
+    private static final Category CATEGORY = BaseTestUtils.newCategory(ICON);
+    private static final Currency CURRENCY = BaseTestUtils.newCurrency();
+
+    private static DataCache newCache() {
+        var cache = new DataCache();
+        cache.getIcons().add(ICON);
+        cache.getCategories().add(CATEGORY);
+        cache.getCurrencies().add(CURRENCY);
+        cache.getAccounts().addAll(
+                BaseTestUtils.newAccount(CATEGORY, CURRENCY),
+                BaseTestUtils.newAccount(CATEGORY, CURRENCY, ICON));
+        cache.getContacts().addAll(IntStream.range(0, 10).mapToObj(_ -> BaseTestUtils.newContact()).toList());
+        var accounts = cache.getAccounts();
+        // Transactions are older than the watermark, otherwise they share its millisecond and are always exported
+        cache.getTransactions().addAll(IntStream.range(0, 100)
+                .mapToObj(_ -> BaseTestUtils.newTransaction(accounts.get(0), accounts.get(1)))
+                .map(t -> new Transaction.Builder(t).modified(t.modified() - 1000).build())
+                .toList());
+        return cache;
+    }
+
+    private static byte[] export(DataCache cache) {
+        var out = new ByteArrayOutputStream();
+        new BinaryExport(cache).doExport(out, _ -> {});
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testReplayChain() {
+        var cache = newCache();
+        var base = BinaryImport.doImport(new ByteArrayInputStream(export(cache)));
+        var watermark = ExportWatermark.of(cache);
+
+        // First change: update account, delete contact, add transaction
+        var account = cache.getAccounts().getFirst();
+        cache.getAccounts().set(0, new Account.Builder(account)
+                .name("Updated")
+                .modified(watermark.getModified() + 1)
+                .build());
+        cache.getContacts().removeFirst();
+        cache.getTransactions().add(BaseTestUtils.newTransaction(account, cache.getAccounts().get(1)));
+
+        var first = new ByteArrayOutputStream();
+        watermark = new DifferentialExport(cache, watermark).doExport(first, _ -> {});
+
+        // Second change: update contact, delete transaction
+        var contact = cache.getContacts().getFirst();
+        cache.getContacts().set(0, new Contact.Builder(contact)
+                .name("Updated")
+                .modified(watermark.getModified() + 1)
+                .build());
+        cache.getTransactions().remove(10);
+
+        var second = new ByteArrayOutputStream();
+        new DifferentialExport(cache, watermark).doExport(second, _ -> {});
+
+        var result = DifferentialImport.replay(base, List.of(
+                new ByteArrayInputStream(first.toByteArray()),
+                new ByteArrayInputStream(second.toByteArray())));
+
+        assertEquals(cache.getIcons(), result.getIcons());
+        assertEquals(cache.getCategories(), result.getCategories());
+        assertEquals(cache.getCurrencies(), result.getCurrencies());
+        assertEquals(new HashSet<>(cache.getAccounts()), new HashSet<>(result.getAccounts()));
+        assertEquals(new HashSet<>(cache.getContacts()), new HashSet<>(result.getContacts()));
+        assertEquals(new HashSet<>(cache.getTransactions()), new HashSet<>(result.getTransactions()));
+        assertEquals(cache.getTransactions().size(), result.getTransactions().size());
+    }
+
+    @Test
+    public void testDifferentialContainsOnlyChanges() {
+        var cache = newCache();
+        var full = export(cache);
+        var watermark = ExportWatermark.of(cache);
+
+        var deleted = cache.getTransactions().removeLast();
+        var added = BaseTestUtils.newTransaction(cache.getAccounts().get(0), cache.getAccounts().get(1));
+        cache.getTransactions().add(added);
+
+        var out = new ByteArrayOutputStream();
+        new DifferentialExport(cache, watermark).doExport(out, _ -> {});
+        assertTrue(out.size() < full.length);
+
+        var batches = new ArrayList<ImportBatch>();
+        DifferentialImport.doImport(new ByteArrayInputStream(out.toByteArray()), batches::add);
+        assertEquals(ImportExportEventType.DELETED, batches.getFirst().type());
+
+        var markers = batches.stream()
+                .filter(b -> b.type() == ImportExportEventType.DELETED)
+                .flatMap(b -> b.<DeleteMarker>getRecords().stream())
+                .toList();
+        assertEquals(List.of(new DeleteMarker(ImportExportEventType.TRANSACTIONS, deleted.uuid())), markers);
+
+        var transactions = batches.stream()
+                .filter(b -> b.type() == ImportExportEventType.TRANSACTIONS)
+                .flatMap(b -> b.records().stream())
+                .toList();
+        assertTrue(transactions.contains(added));
+        assertTrue(transactions.size() < cache.getTransactions().size());
+    }
+
+    @Test
+    public void testWatermarkWriteAndRead() {
+        var cache = newCache();
+        var watermark = ExportWatermark.of(cache);
+
+        var out = new ByteArrayOutputStream();
+        watermark.write(out);
+        var restored = ExportWatermark.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(watermark.getModified(), restored.getModified());
+        for (var section : BinaryFormat.EXPORT_SECTIONS) {
+            assertEquals(watermark.getUuids(section), restored.getUuids(section));
+        }
+    }
+
+    @Test
+    public void testReplayRejectsOutOfOrderChain() {
+        var cache = newCache();
+        var base = BinaryImport.doImport(new ByteArrayInputStream(export(cache)));
+        var watermark = ExportWatermark.of(cache);
+
+        cache.getContacts().set(0, new Contact.Builder(cache.getContacts().getFirst())
+                .modified(watermark.getModified() + 1)
+                .build());
+        var first = new ByteArrayOutputStream();
+        var next = new DifferentialExport(cache, watermark).doExport(first, _ -> {});
+
+        cache.getContacts().set(1, new Contact.Builder(cache.getContacts().get(1))
+                .modified(next.getModified() + 1)
+                .build());
+        var second = new ByteArrayOutputStream();
+        new DifferentialExport(cache, next).doExport(second, _ -> {});
+
+        assertThrows(IllegalStateException.class, () -> DifferentialImport.replay(base, List.of(
+                new ByteArrayInputStream(second.toByteArray()),
+                new ByteArrayInputStream(first.toByteArray()))));
+    }
+}
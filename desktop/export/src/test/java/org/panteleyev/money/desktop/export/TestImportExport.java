@@ -2,10 +2,12 @@
 // SPDX-License-Identifier: BSD-2-Clause
 package org.panteleyev.money.desktop.export;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
 import org.panteleyev.money.model.Account;
 import org.panteleyev.money.model.Card;
 import org.panteleyev.money.model.Category;
@@ -16,16 +18,27 @@ import org.panteleyev.money.model.ExchangeSecuritySplit;
 import org.panteleyev.money.model.Icon;
 import org.panteleyev.money.model.InvestmentDeal;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
- * This test covers XML export/import without database interaction.
+ * This test covers XML, binary and archive export/import without database interaction.
  */
 public class TestImportExport {
     private static final String ICON_DOLLAR = "dollar.png";
@@ -118,4 +131,239 @@ public class TestImportExport {
             assertEquals(cache.getExchangeSecuritySplits(), imp.getExchangeSecuritySplits());
         }
     }
+
+    @ParameterizedTest
+    @MethodSource("importExportData")
+    public void testStreamingImport(DataCache cache) throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            new Export(cache).doExport(out, _ -> {});
+
+            var batches = new ArrayList<ImportBatch>();
+            Import.doImport(new ByteArrayInputStream(out.toByteArray()), 2, batches::add);
+
+            for (var batch : batches) {
+                assertFalse(batch.records().isEmpty());
+                assertTrue(batch.records().size() <= 2);
+            }
+
+            assertEquals(cache.getIcons(), getRecords(batches, ImportExportEventType.ICONS));
+            assertEquals(cache.getAccounts(), getRecords(batches, ImportExportEventType.ACCOUNTS));
+            assertEquals(cache.getContacts(), getRecords(batches, ImportExportEventType.CONTACTS));
+            assertEquals(cache.getTransactions(), getRecords(batches, ImportExportEventType.TRANSACTIONS));
+            assertEquals(cache.getInvestmentDeals(), getRecords(batches, ImportExportEventType.INVESTMENTS_DEALS));
+        }
+    }
+
+    private static List<Record> getRecords(List<ImportBatch> batches, ImportExportEventType type) {
+        return batches.stream()
+                .filter(b -> b.type() == type)
+                .flatMap(b -> b.records().stream())
+                .map(Record.class::cast)
+                .toList();
+    }
+
+    @ParameterizedTest
+    @MethodSource("importExportData")
+    public void testValidateAndImport(DataCache cache) throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            new Export(cache).doExport(out, _ -> {});
+
+            var batches = new ArrayList<ImportBatch>();
+            Import.validateAndImport(new ByteArrayInputStream(out.toByteArray()), 100, batches::add);
+
+            assertEquals(cache.getCategories(), getRecords(batches, ImportExportEventType.CATEGORIES));
+            assertEquals(cache.getTransactions(), getRecords(batches, ImportExportEventType.TRANSACTIONS));
+        }
+    }
+
+    @Test
+    public void testValidateAndImportRejectsInvalidDocument() {
+        var xml = """
+                <?xml version="1.0"?>
+                <Money>
+                    <Icons/>
+                    <Unknown/>
+                </Money>
+                """;
+
+        assertThrows(RuntimeException.class, () -> Import.validateAndImport(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), 100, _ -> {}));
+    }
+
+    @ParameterizedTest
+    @MethodSource("importExportData")
+    public void testBinaryExportAndImport(DataCache cache) throws IOException {
+        for (var compress : List.of(false, true)) {
+            try (var out = new ByteArrayOutputStream()) {
+                new BinaryExport(cache, compress).doExport(out, _ -> {});
+
+                var imp = BinaryImport.doImport(new ByteArrayInputStream(out.toByteArray()));
+
+                assertEquals(cache.getIcons(), imp.getIcons());
+                assertEquals(cache.getCategories(), imp.getCategories());
+                assertEquals(cache.getAccounts(), imp.getAccounts());
+                assertEquals(cache.getContacts(), imp.getContacts());
+                assertEquals(cache.getCurrencies(), imp.getCurrencies());
+                assertEquals(cache.getExchangeSecurities(), imp.getExchangeSecurities());
+                assertEquals(cache.getTransactions(), imp.getTransactions());
+                assertEquals(cache.getCards(), imp.getCards());
+                assertEquals(cache.getInvestmentDeals(), imp.getInvestmentDeals());
+                assertEquals(cache.getExchangeSecuritySplits(), imp.getExchangeSecuritySplits());
+            }
+        }
+    }
+
+    @Test
+    public void testBinaryExportSplitsSectionIntoBlocks() throws IOException {
+        var cache = new DataCache();
+        cache.getAccounts().addAll(ACCOUNT_1, ACCOUNT_2);
+        cache.getTransactions().addAll(IntStream.range(0, 2500)
+                .mapToObj(_ -> BaseTestUtils.newTransaction(ACCOUNT_1, ACCOUNT_2))
+                .toList());
+
+        try (var xml = new ByteArrayOutputStream(); var binary = new ByteArrayOutputStream()) {
+            new Export(cache).doExport(xml, _ -> {});
+            new BinaryExport(cache).doExport(binary, _ -> {});
+            assertTrue(binary.size() < xml.size());
+
+            var batches = new ArrayList<ImportBatch>();
+            BinaryImport.doImport(new ByteArrayInputStream(binary.toByteArray()), batches::add);
+
+            assertEquals(4, batches.size());
+            assertEquals(cache.getAccounts(), getRecords(batches, ImportExportEventType.ACCOUNTS));
+            assertEquals(cache.getTransactions(), getRecords(batches, ImportExportEventType.TRANSACTIONS));
+        }
+    }
+
+    @Test
+    public void testIsBinaryDump() throws IOException {
+        var cache = new DataCache();
+        cache.getIcons().add(ICON_1);
+
+        try (var xml = new ByteArrayOutputStream(); var binary = new ByteArrayOutputStream()) {
+            new Export(cache).doExport(xml, _ -> {});
+            new BinaryExport(cache).doExport(binary, _ -> {});
+
+            var xmlStream = new BufferedInputStream(new ByteArrayInputStream(xml.toByteArray()));
+            assertFalse(BinaryImport.isBinaryDump(xmlStream));
+
+            var binaryStream = new BufferedInputStream(new ByteArrayInputStream(binary.toByteArray()));
+            assertTrue(BinaryImport.isBinaryDump(binaryStream));
+            assertEquals(List.of(ICON_1), BinaryImport.doImport(binaryStream).getIcons());
+        }
+    }
+
+    @Test
+    public void testBinaryImportRejectsTruncatedDump() throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            new BinaryExport(new DataCache() {
+                {
+                    getIcons().addAll(ICON_1, ICON_2);
+                }
+            }).doExport(out, _ -> {});
+
+            var bytes = out.toByteArray();
+            var truncated = new ByteArrayInputStream(bytes, 0, bytes.length - 10);
+            assertThrows(RuntimeException.class, () -> BinaryImport.doImport(truncated));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("importExportData")
+    public void testArchiveExportAndImport(DataCache cache) throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            new ArchiveExport(cache).doExport(out, _ -> {});
+
+            var input = new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()));
+            assertTrue(ArchiveImport.isArchive(input));
+            assertFalse(BinaryImport.isBinaryDump(input));
+
+            var batches = new ArrayList<ImportBatch>();
+            ArchiveImport.doImport(input, batches::add);
+
+            // Batches must arrive in foreign key order
+            var types = batches.stream().map(ImportBatch::type).distinct().toList();
+            assertEquals(types.stream().sorted().toList(), types);
+
+            assertEquals(cache.getIcons(), getRecords(batches, ImportExportEventType.ICONS));
+            assertEquals(cache.getCategories(), getRecords(batches, ImportExportEventType.CATEGORIES));
+            assertEquals(cache.getAccounts(), getRecords(batches, ImportExportEventType.ACCOUNTS));
+            assertEquals(cache.getContacts(), getRecords(batches, ImportExportEventType.CONTACTS));
+            assertEquals(cache.getCurrencies(), getRecords(batches, ImportExportEventType.CURRENCIES));
+            assertEquals(cache.getExchangeSecurities(),
+                    getRecords(batches, ImportExportEventType.EXCHANGE_SECURITIES));
+            assertEquals(cache.getTransactions(), getRecords(batches, ImportExportEventType.TRANSACTIONS));
+            assertEquals(cache.getCards(), getRecords(batches, ImportExportEventType.CARDS));
+            assertEquals(cache.getInvestmentDeals(), getRecords(batches, ImportExportEventType.INVESTMENTS_DEALS));
+            assertEquals(cache.getExchangeSecuritySplits(),
+                    getRecords(batches, ImportExportEventType.EXCHANGE_SECURITY_SPLITS));
+        }
+    }
+
+    @Test
+    public void testArchiveExportSplitsSectionIntoBlocks() throws IOException {
+        var cache = new DataCache();
+        cache.getAccounts().addAll(ACCOUNT_1, ACCOUNT_2);
+        cache.getTransactions().addAll(IntStream.range(0, 2500)
+                .mapToObj(_ -> BaseTestUtils.newTransaction(ACCOUNT_1, ACCOUNT_2))
+                .toList());
+
+        try (var out = new ByteArrayOutputStream()) {
+            var events = new ArrayList<ImportExportEvent>();
+            new ArchiveExport(cache).doExport(out, events::add);
+            assertEquals(BinaryFormat.EXPORT_SECTIONS.size() * 2, events.size());
+
+            var batches = new ArrayList<ImportBatch>();
+            ArchiveImport.doImport(new ByteArrayInputStream(out.toByteArray()), batches::add);
+
+            assertEquals(4, batches.size());
+            assertEquals(cache.getAccounts(), getRecords(batches, ImportExportEventType.ACCOUNTS));
+            assertEquals(cache.getTransactions(), getRecords(batches, ImportExportEventType.TRANSACTIONS));
+        }
+    }
+
+    @Test
+    public void testArchiveExportFailedSource() throws IOException {
+        var tempFiles = countTempFiles();
+        var cache = new DataCache();
+        cache.getAccounts().addAll(ACCOUNT_1, ACCOUNT_2);
+        cache.getTransactions().addAll(IntStream.range(0, 2500)
+                .mapToObj(_ -> BaseTestUtils.newTransaction(ACCOUNT_1, ACCOUNT_2))
+                .toList());
+        var cacheSource = ExportSource.of(cache);
+
+        ExportSource source = (type, consumer) -> {
+            if (type == ImportExportEventType.TRANSACTIONS) {
+                throw new IllegalStateException("Source failed");
+            }
+            cacheSource.forEach(type, consumer);
+        };
+
+        try (var out = new ByteArrayOutputStream()) {
+            assertThrows(IllegalStateException.class, () -> new ArchiveExport(source).doExport(out, _ -> {}));
+            assertEquals(0, out.size());
+        }
+        // Sections written before the failure are removed
+        assertEquals(tempFiles, countTempFiles());
+    }
+
+    private static long countTempFiles() throws IOException {
+        try (var files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("money-")).count();
+        }
+    }
+
+    @Test
+    public void testArchiveImportRejectsArchiveWithoutManifest() throws IOException {
+        try (var out = new ByteArrayOutputStream()) {
+            try (var zip = new ZipOutputStream(out)) {
+                zip.putNextEntry(new ZipEntry("icons.bin"));
+                new BinaryExport(new DataCache()).doExport(zip, _ -> {});
+                zip.closeEntry();
+            }
+
+            assertThrows(RuntimeException.class,
+                    () -> ArchiveImport.doImport(new ByteArrayInputStream(out.toByteArray())));
+        }
+    }
 }
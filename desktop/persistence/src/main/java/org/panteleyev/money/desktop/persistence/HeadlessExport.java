@@ -0,0 +1,145 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.persistence;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ArchiveExport;
+import org.panteleyev.money.desktop.export.BinaryExport;
+import org.panteleyev.money.desktop.export.DifferentialExport;
+import org.panteleyev.money.desktop.export.Export;
+import org.panteleyev.money.desktop.export.ExportWatermark;
+import org.panteleyev.money.desktop.export.ImportExportEvent;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Exports the database to a file without the user interface, intended to be run by cron. Tables are streamed from
+ * the database directly into the file, memory consumption does not depend on the database size.
+ * <pre>
+ * java -m org.panteleyev.money.desktop.persistence/org.panteleyev.money.desktop.persistence.HeadlessExport \
+ *     --database=money --user=money --output=/backup/money.mnyb [options]
+ *
+ * --host=localhost      database host
+ * --port=5432           database port
+ * --schema=public       database schema
+ * --format=binary       xml, binary or archive
+ * --since=FILE          write differential dump against the watermark stored in the file
+ * --watermark=FILE      store watermark of the exported data for the next differential dump
+ * </pre>
+ * Password is taken from the {@code PGPASSWORD} environment variable. Output file is replaced only when export
+ * succeeds. Watermark file may be the same for {@code --since} and {@code --watermark}. Backups are restored with
+ * {@link HeadlessRestore}.
+ */
+public final class HeadlessExport {
+    private static final String PASSWORD_ENV = "PGPASSWORD";
+
+    private static final String FORMAT_XML = "xml";
+    private static final String FORMAT_BINARY = "binary";
+    private static final String FORMAT_ARCHIVE = "archive";
+
+    private HeadlessExport() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            run(parseArguments(args));
+        } catch (Exception ex) {
+            System.err.println("Export failed: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void run(Map<String, String> options) throws IOException {
+        var output = Path.of(getRequired(options, "output")).toAbsolutePath();
+        var format = options.getOrDefault("format", FORMAT_BINARY);
+        if (!format.equals(FORMAT_XML) && !format.equals(FORMAT_BINARY) && !format.equals(FORMAT_ARCHIVE)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+
+        ExportWatermark since = null;
+        if (options.containsKey("since")) {
+            if (!format.equals(FORMAT_BINARY)) {
+                throw new IllegalArgumentException("Differential dump is binary only");
+            }
+            try (var in = new BufferedInputStream(Files.newInputStream(Path.of(options.get("since"))))) {
+                since = ExportWatermark.read(in);
+            }
+        }
+        var watermarkFile = options.containsKey("watermark") ? Path.of(options.get("watermark")) : null;
+
+        var dao = new MoneyDAO(new DataCache());
+        dao.initialize(createDataSource(options));
+
+        Consumer<ImportExportEvent> progress = event -> System.out.print(event.buildEventString());
+        var temp = Files.createTempFile(output.getParent(), output.getFileName().toString(), ".tmp");
+        try {
+            var differentialSince = since;
+            var watermark = new ExportWatermark[1];
+            try (var out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                dao.withExportSource(source -> {
+                    if (differentialSince != null) {
+                        watermark[0] = new DifferentialExport(source, differentialSince).doExport(out, progress);
+                    } else {
+                        switch (format) {
+                            case FORMAT_XML -> new Export(source).doExport(out, progress);
+                            case FORMAT_ARCHIVE -> new ArchiveExport(source).doExport(out, progress);
+                            default -> new BinaryExport(source, true).doExport(out, progress);
+                        }
+                        if (watermarkFile != null) {
+                            watermark[0] = ExportWatermark.of(source);
+                        }
+                    }
+                });
+            }
+            Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (watermarkFile != null && watermark[0] != null) {
+                try (var out = new BufferedOutputStream(Files.newOutputStream(watermarkFile))) {
+                    watermark[0].write(out);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static PGSimpleDataSource createDataSource(Map<String, String> options) {
+        var dataSource = new PGSimpleDataSource();
+        dataSource.setServerNames(new String[]{options.getOrDefault("host", "localhost")});
+        dataSource.setPortNumbers(new int[]{Integer.parseInt(options.getOrDefault("port", "5432"))});
+        dataSource.setDatabaseName(getRequired(options, "database"));
+        dataSource.setCurrentSchema(options.getOrDefault("schema", "public"));
+        dataSource.setUser(getRequired(options, "user"));
+        dataSource.setPassword(System.getenv(PASSWORD_ENV));
+        return dataSource;
+    }
+
+    static Map<String, String> parseArguments(String[] args) {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            var index = arg.indexOf('=');
+            options.put(arg.substring(2, index), arg.substring(index + 1));
+        }
+        return options;
+    }
+
+    static String getRequired(Map<String, String> options, String name) {
+        var value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing required argument --" + name);
+        }
+        return value;
+    }
+}
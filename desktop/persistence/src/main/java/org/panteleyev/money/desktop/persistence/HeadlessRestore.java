@@ -0,0 +1,71 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.persistence;
+
+import org.panteleyev.money.desktop.commons.DataCache;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.panteleyev.money.desktop.persistence.HeadlessExport.createDataSource;
+import static org.panteleyev.money.desktop.persistence.HeadlessExport.getRequired;
+import static org.panteleyev.money.desktop.persistence.HeadlessExport.parseArguments;
+
+/**
+ * Restores the database from backups made by {@link HeadlessExport}: the full dump followed by the chain of
+ * differential dumps.
+ * <pre>
+ * java -m org.panteleyev.money.desktop.persistence/org.panteleyev.money.desktop.persistence.HeadlessRestore \
+ *     --database=money --user=money --input=/backup/money.mnyb [options]
+ *
+ * --host=localhost      database host
+ * --port=5432           database port
+ * --schema=public       database schema
+ * --differentials=FILES comma separated differential dumps from the oldest to the newest
+ * </pre>
+ * Password is taken from the {@code PGPASSWORD} environment variable. All records are replaced in one transaction,
+ * the database is left intact if any dump is invalid or the chain of differentials has a gap.
+ */
+public final class HeadlessRestore {
+    private HeadlessRestore() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            run(parseArguments(args));
+        } catch (Exception ex) {
+            System.err.println("Restore failed: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void run(Map<String, String> options) throws IOException {
+        var base = Path.of(getRequired(options, "input"));
+        var differentials = new ArrayList<Path>();
+        if (options.containsKey("differentials")) {
+            for (var name : options.get("differentials").split(",")) {
+                differentials.add(Path.of(name));
+            }
+        }
+
+        var dao = new MoneyDAO(new DataCache());
+        dao.initialize(createDataSource(options));
+
+        var inputs = new ArrayList<InputStream>();
+        try (var in = new BufferedInputStream(Files.newInputStream(base))) {
+            for (var differential : differentials) {
+                inputs.add(new BufferedInputStream(Files.newInputStream(differential)));
+            }
+            dao.restore(in, inputs, System.out::print);
+        } finally {
+            for (var input : inputs) {
+                input.close();
+            }
+        }
+    }
+}
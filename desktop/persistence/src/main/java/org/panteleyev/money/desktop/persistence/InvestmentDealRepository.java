@@ -63,17 +63,43 @@ final class InvestmentDealRepository extends Repository<InvestmentDeal> {
                     , ?
                     , ?
                     , ?
-                ) ON CONFLICT (account_uuid, deal_number) DO UPDATE SET
-                    security_uuid = EXCLUDED.security_uuid
-                    , currency_uuid = EXCLUDED.currency_uuid
-                    , amount = EXCLUDED.amount
-                    , modified = EXCLUDED.modified
+                )
                 """;
     }
 
+    /**
+     * Skips deals already imported from another broker report, deal number is unique within the account.
+     */
+    @Override
+    protected String getInsertNewSql() {
+        return getInsertSql() + "ON CONFLICT (account_uuid, deal_number) DO NOTHING\n";
+    }
+
     @Override
     protected String getUpdateSql() {
-        return "";
+        return """
+                UPDATE investment_deal SET
+                    account_uuid = ?,
+                    security_uuid = ?,
+                    currency_uuid = ?,
+                    deal_number = ?,
+                    deal_date = ?,
+                    accounting_date = ?,
+                    market_type = ?,
+                    operation_type = ?,
+                    security_amount = ?,
+                    price = ?,
+                    aci = ?,
+                    deal_volume = ?,
+                    rate = ?,
+                    exchange_fee = ?,
+                    broker_fee = ?,
+                    amount = ?,
+                    deal_type = ?,
+                    created = ?,
+                    modified = ?
+                WHERE uuid = ?
+                """;
     }
 
     @Override
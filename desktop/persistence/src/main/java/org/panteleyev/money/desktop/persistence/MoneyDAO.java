@@ -4,7 +4,14 @@ package org.panteleyev.money.desktop.persistence;
 
 import javafx.application.Platform;
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.export.ArchiveImport;
+import org.panteleyev.money.desktop.export.BinaryImport;
+import org.panteleyev.money.desktop.export.DeleteMarker;
+import org.panteleyev.money.desktop.export.DifferentialImport;
+import org.panteleyev.money.desktop.export.ExportSource;
 import org.panteleyev.money.desktop.export.Import;
+import org.panteleyev.money.desktop.export.ImportBatch;
+import org.panteleyev.money.desktop.export.ImportExportEvent.ImportExportEventType;
 import org.panteleyev.money.model.Account;
 import org.panteleyev.money.model.Card;
 import org.panteleyev.money.model.Category;
@@ -14,19 +21,26 @@ import org.panteleyev.money.model.ExchangeSecurity;
 import org.panteleyev.money.model.ExchangeSecuritySplit;
 import org.panteleyev.money.model.Icon;
 import org.panteleyev.money.model.InvestmentDeal;
+import org.panteleyev.money.model.MoneyRecord;
 import org.panteleyev.money.model.Transaction;
 import org.postgresql.ds.PGSimpleDataSource;
 
 import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -47,6 +61,9 @@ public class MoneyDAO {
     private final ExchangeSecuritySplitRepository exchangeSecuritySplitRepository = new ExchangeSecuritySplitRepository();
 
     private static final int BATCH_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int IMPORT_QUEUE_CAPACITY = 4;
+    private static final long IMPORT_POLL_TIMEOUT = 100;
 
     public static final Consumer<String> IGNORE_PROGRESS = _ -> {};
 
@@ -271,6 +288,28 @@ public class MoneyDAO {
         cache.update(security);
     }
 
+    /**
+     * Updates securities in one transaction. This method may be called from a background thread, the cache is
+     * updated with a single change via the specified executor.
+     *
+     * @param securities    updated securities
+     * @param cacheExecutor executor that updates the cache
+     * @return number of updated securities
+     */
+    public int updateExchangeSecurities(List<ExchangeSecurity> securities, Executor cacheExecutor) {
+        if (securities.isEmpty()) {
+            return 0;
+        }
+
+        return withNewConnection(conn -> {
+            var updated = exchangeSecurityRepository.update(conn, BATCH_SIZE, securities);
+            if (!updated.isEmpty()) {
+                cacheExecutor.execute(() -> cache.updateExchangeSecurities(updated));
+            }
+            return updated.size();
+        });
+    }
+
     //
     // Cards
     //
@@ -304,14 +343,37 @@ public class MoneyDAO {
     // Investment deals
     //
 
-    public void insertInvestments(List<InvestmentDeal> investmentDeals) {
-        withNewConnection(conn -> {
-            investmentDealRepository.insert(conn, BATCH_SIZE, investmentDeals);
-            var investmentList = investmentDealRepository.getAll(conn);
-            CompletableFuture.supplyAsync(() -> {
-                cache.getInvestmentDeals().setAll(investmentList);
-                return null;
-            }, Platform::runLater);
+    /**
+     * Inserts imported investment deals. Deals that already exist with the same account and deal number are skipped
+     * by the database, so overlapping reports can be imported repeatedly. Only inserted deals are appended to the
+     * cache.
+     *
+     * @param investmentDeals imported deals
+     * @return number of inserted deals
+     */
+    public int insertInvestments(List<InvestmentDeal> investmentDeals) {
+        return insertInvestments(investmentDeals, Runnable::run);
+    }
+
+    /**
+     * Inserts imported investment deals in one transaction. This method may be called from a background thread, the
+     * cache is updated with a single change via the specified executor.
+     *
+     * @param investmentDeals imported deals
+     * @param cacheExecutor   executor that updates the cache
+     * @return number of inserted deals
+     */
+    public int insertInvestments(List<InvestmentDeal> investmentDeals, Executor cacheExecutor) {
+        if (investmentDeals.isEmpty()) {
+            return 0;
+        }
+
+        return withNewConnection(conn -> {
+            var inserted = investmentDealRepository.insertNew(conn, BATCH_SIZE, investmentDeals);
+            if (!inserted.isEmpty()) {
+                cacheExecutor.execute(() -> cache.addInvestmentDeals(inserted));
+            }
+            return inserted.size();
         });
     }
 
@@ -438,61 +500,313 @@ public class MoneyDAO {
         cache.clear();
     }
 
-    public void importFullDump(Import imp, Consumer<String> progress) {
-        progress.accept("Создание таблиц... ");
-        createTables();
+    /**
+     * Replaces all records with the full dump, either XML, binary or archive. XML dump is validated against the schema
+     * while it is parsed. Parsing runs on a separate thread that hands bounded batches over to the calling thread,
+     * which inserts them in one transaction. Parsing and writing overlap, and no more than a few batches are held in
+     * memory. Tables are cleared only after the first batch has been parsed and validated, so an unrecognized dump
+     * never reaches the destructive step. Later failures roll the transaction back leaving existing records intact.
+     *
+     * @param inputStream dump input stream
+     * @param progress    progress consumer
+     */
+    public void importFullDump(InputStream inputStream, Consumer<String> progress) {
+        progress.accept("Обновление схемы... ");
+        updateSchema();
         progress.accept("выполнено\n");
 
         withNewConnection(conn -> {
-            progress.accept("Импорт данных...\n");
+            importFullDump(conn, inputStream, progress);
+        });
+    }
 
-            progress.accept("    значки... ");
-            iconRepository.insert(conn, BATCH_SIZE, imp.getIcons());
-            progress.accept("выполнено\n");
+    /**
+     * Restores the backup: replaces all records with the full dump and applies the chain of differential dumps on top
+     * of it, all in one transaction. Differentials must be ordered from the oldest to the newest. Each of them must
+     * start where the previous one ends, the first one must start at the latest modification time of the full dump.
+     * A gap in the chain rolls the transaction back leaving existing records intact.
+     *
+     * @param base          full dump input stream
+     * @param differentials differential dump input streams
+     * @param progress      progress consumer
+     */
+    public void restore(InputStream base, List<? extends InputStream> differentials, Consumer<String> progress) {
+        progress.accept("Обновление схемы... ");
+        updateSchema();
+        progress.accept("выполнено\n");
 
-            progress.accept("    категории... ");
-            categoryRepository.insert(conn, BATCH_SIZE, imp.getCategories());
-            progress.accept("выполнено\n");
+        withNewConnection(conn -> {
+            var modified = importFullDump(conn, base, progress);
+            for (var differential : differentials) {
+                progress.accept("Применение изменений...\n");
+                var range = importDifferential(conn, differential, progress);
+                if (range.since() != modified) {
+                    throw new IllegalStateException("Differential dump does not continue the previous dump");
+                }
+                modified = range.until();
+            }
+        });
+    }
 
-            progress.accept("    валюты... ");
-            currencyRepository.insert(conn, BATCH_SIZE, imp.getCurrencies());
-            progress.accept("выполнено\n");
+    /**
+     * Imports the full dump within the transaction.
+     *
+     * @return the latest modification time of imported records
+     */
+    private long importFullDump(Connection conn, InputStream inputStream, Consumer<String> progress) {
+        var queue = new ArrayBlockingQueue<ImportBatch>(IMPORT_QUEUE_CAPACITY);
+        var parsing = new CompletableFuture<Void>();
+        var parser = Thread.ofVirtual().name("import-parser").start(() -> {
+            try {
+                Consumer<ImportBatch> batchConsumer = batch -> {
+                    try {
+                        queue.put(batch);
+                    } catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                };
+
+                var input = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+                if (DifferentialImport.isDifferential(input)) {
+                    throw new IllegalArgumentException("Differential dump must be applied on top of the full dump");
+                } else if (ArchiveImport.isArchive(input)) {
+                    ArchiveImport.doImport(input, batchConsumer);
+                } else if (BinaryImport.isBinaryDump(input)) {
+                    BinaryImport.doImport(input, batchConsumer);
+                } else {
+                    Import.validateAndImport(input, BATCH_SIZE, batchConsumer);
+                }
+                parsing.complete(null);
+            } catch (Throwable ex) {
+                parsing.completeExceptionally(ex);
+            }
+        });
 
-            progress.accept("    ценные бумаги... ");
-            exchangeSecurityRepository.insert(conn, BATCH_SIZE, imp.getExchangeSecurities());
+        try {
+            // Tables are cleared only after the dump is recognized and its first batch has passed validation.
+            // Later failures roll back the whole transaction including truncation.
+            var batch = takeBatch(queue, parsing);
+
+            progress.accept("Очистка таблиц... ");
+            for (var repository : List.of(exchangeSecuritySplitRepository, investmentDealRepository,
+                    transactionRepository, contactRepository, cardRepository, accountRepository,
+                    exchangeSecurityRepository, currencyRepository, categoryRepository, iconRepository))
+            {
+                repository.truncate(conn);
+            }
             progress.accept("выполнено\n");
 
-            progress.accept("    счета... ");
-            accountRepository.insert(conn, BATCH_SIZE, imp.getAccounts());
-            progress.accept("выполнено\n");
+            progress.accept("Импорт данных...\n");
 
-            progress.accept("    карты...");
-            cardRepository.insert(conn, BATCH_SIZE, imp.getCards());
-            progress.accept("выполнено\n");
+            ImportExportEventType section = null;
+            // Detail transactions reference their parents, so they are inserted when the section is complete
+            var detailTransactions = new ArrayList<Transaction>();
+            var modified = 0L;
+
+            while (batch != null) {
+                if (batch.type() != section) {
+                    completeSection(conn, section, detailTransactions, progress);
+                    section = batch.type();
+                    progress.accept("    " + section.getText() + "... ");
+                }
+                insertBatch(conn, batch, detailTransactions);
+                for (var rec : batch.getRecords()) {
+                    if (rec instanceof MoneyRecord moneyRecord) {
+                        modified = Math.max(modified, moneyRecord.modified());
+                    }
+                }
+                batch = takeBatch(queue, parsing);
+            }
+            completeSection(conn, section, detailTransactions, progress);
 
-            progress.accept("    контакты... ");
-            contactRepository.insert(conn, BATCH_SIZE, imp.getContacts());
             progress.accept("выполнено\n");
+            return modified;
+        } catch (InterruptedException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            parser.interrupt();
+        }
+    }
 
-            progress.accept("    проводки... ");
-            transactionRepository.insert(conn, BATCH_SIZE,
-                    imp.getTransactions().stream().filter(t -> t.parentUuid() == null).toList());
-            transactionRepository.insert(conn, BATCH_SIZE,
-                    imp.getTransactions().stream().filter(t -> t.parentUuid() != null).toList());
-            progress.accept("выполнено\n");
+    /**
+     * Returns the next parsed batch. Parsing failure is rethrown as soon as it is detected.
+     *
+     * @return batch or {@code null} if parsing is complete
+     */
+    private static ImportBatch takeBatch(BlockingQueue<ImportBatch> queue, CompletableFuture<Void> parsing)
+            throws InterruptedException
+    {
+        while (true) {
+            if (parsing.isCompletedExceptionally()) {
+                parsing.join();
+            }
+            var batch = queue.poll(IMPORT_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (batch != null) {
+                return batch;
+            }
+            if (parsing.isDone() && queue.isEmpty()) {
+                parsing.join();
+                return null;
+            }
+        }
+    }
 
-            progress.accept("    инвестиционные сделки...");
-            investmentDealRepository.insert(conn, BATCH_SIZE, imp.getInvestmentDeals());
-            progress.accept("выполнено\n");
+    /**
+     * Applies the differential dump on top of the existing records in one transaction. Deleted records are removed
+     * first in the reverse foreign key order, then changed records are inserted or updated in the foreign key order.
+     * Chain of differentials must be applied from the oldest to the newest on top of the full dump it was based on.
+     *
+     * @param inputStream differential dump input stream
+     * @param progress    progress consumer
+     */
+    public void importDifferential(InputStream inputStream, Consumer<String> progress) {
+        withNewConnection(conn -> {
+            importDifferential(conn, inputStream, progress);
+        });
+    }
 
-            progress.accept("    сплиты ценных бумаг...");
-            exchangeSecuritySplitRepository.insert(conn, BATCH_SIZE, imp.getExchangeSecuritySplits());
-            progress.accept("выполнено\n");
+    private DifferentialImport.Range importDifferential(
+            Connection conn,
+            InputStream inputStream,
+            Consumer<String> progress)
+    {
+        var section = new AtomicReference<ImportExportEventType>();
+
+        var range = DifferentialImport.doImport(inputStream, batch -> {
+            if (batch.type() != section.get()) {
+                if (batch.type() == ImportExportEventType.DELETED && section.get() != null) {
+                    throw new IllegalStateException("Delete markers must precede changed records");
+                }
+                if (section.get() != null) {
+                    progress.accept("выполнено\n");
+                }
+                section.set(batch.type());
+                progress.accept("    " + batch.type().getText() + "... ");
+            }
 
+            if (batch.type() == ImportExportEventType.DELETED) {
+                deleteBatch(conn, batch);
+            } else {
+                upsertBatch(conn, batch);
+            }
+        });
+        if (section.get() != null) {
             progress.accept("выполнено\n");
+        }
+        return range;
+    }
+
+    /**
+     * Opens a read-only snapshot of the database and passes the export source backed by it to the consumer. Tables
+     * are streamed through server-side cursors, so memory consumption does not depend on the database size. All
+     * tables are read from the same snapshot.
+     *
+     * @param consumer consumer that performs export, source is valid only within the call
+     */
+    public void withExportSource(Consumer<ExportSource> consumer) {
+        withNewConnection(conn -> {
+            try {
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                conn.setReadOnly(true);
+            } catch (SQLException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            consumer.accept((type, recordConsumer) -> {
+                if (type == ImportExportEventType.TRANSACTIONS) {
+                    transactionRepository.forEachParentsFirst(conn, EXPORT_FETCH_SIZE, recordConsumer);
+                } else {
+                    getRepository(type).forEach(conn, EXPORT_FETCH_SIZE, rec -> recordConsumer.accept((Record) rec));
+                }
+            });
         });
     }
 
+    /**
+     * Deletes records of the delete marker batch. Markers arrive in the reverse foreign key order, it is preserved.
+     */
+    private void deleteBatch(Connection conn, ImportBatch batch) {
+        var deleted = new LinkedHashMap<ImportExportEventType, List<UUID>>();
+        for (DeleteMarker marker : batch.<DeleteMarker>getRecords()) {
+            deleted.computeIfAbsent(marker.type(), _ -> new ArrayList<>()).add(marker.uuid());
+        }
+        deleted.forEach((type, uuids) -> getRepository(type).delete(conn, uuids));
+    }
+
+    private void upsertBatch(Connection conn, ImportBatch batch) {
+        switch (batch.type()) {
+            case ICONS -> iconRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case CATEGORIES -> categoryRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case CURRENCIES -> currencyRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case EXCHANGE_SECURITIES -> exchangeSecurityRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case ACCOUNTS -> accountRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case CARDS -> cardRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case CONTACTS -> contactRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case TRANSACTIONS -> transactionRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case INVESTMENTS_DEALS -> investmentDealRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            case EXCHANGE_SECURITY_SPLITS ->
+                    exchangeSecuritySplitRepository.upsert(conn, BATCH_SIZE, batch.getRecords());
+            default -> {
+            }
+        }
+    }
+
+    private Repository<?> getRepository(ImportExportEventType type) {
+        return switch (type) {
+            case ICONS -> iconRepository;
+            case CATEGORIES -> categoryRepository;
+            case CURRENCIES -> currencyRepository;
+            case EXCHANGE_SECURITIES -> exchangeSecurityRepository;
+            case ACCOUNTS -> accountRepository;
+            case CARDS -> cardRepository;
+            case CONTACTS -> contactRepository;
+            case TRANSACTIONS -> transactionRepository;
+            case INVESTMENTS_DEALS -> investmentDealRepository;
+            case EXCHANGE_SECURITY_SPLITS -> exchangeSecuritySplitRepository;
+            default -> throw new IllegalArgumentException("Unsupported record type: " + type);
+        };
+    }
+
+    private void insertBatch(Connection conn, ImportBatch batch, List<Transaction> detailTransactions) {
+        switch (batch.type()) {
+            case ICONS -> iconRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case CATEGORIES -> categoryRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case CURRENCIES -> currencyRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case EXCHANGE_SECURITIES -> exchangeSecurityRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case ACCOUNTS -> accountRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case CARDS -> cardRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case CONTACTS -> contactRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case TRANSACTIONS -> {
+                List<Transaction> transactions = batch.getRecords();
+                transactionRepository.insert(conn, BATCH_SIZE,
+                        transactions.stream().filter(t -> t.parentUuid() == null).toList());
+                transactions.stream().filter(t -> t.parentUuid() != null).forEach(detailTransactions::add);
+            }
+            case INVESTMENTS_DEALS -> investmentDealRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            case EXCHANGE_SECURITY_SPLITS ->
+                    exchangeSecuritySplitRepository.insert(conn, BATCH_SIZE, batch.getRecords());
+            default -> {
+            }
+        }
+    }
+
+    private void completeSection(
+            Connection conn,
+            ImportExportEventType section,
+            List<Transaction> detailTransactions,
+            Consumer<String> progress)
+    {
+        if (section == null) {
+            return;
+        }
+
+        if (section == ImportExportEventType.TRANSACTIONS) {
+            transactionRepository.insert(conn, BATCH_SIZE, detailTransactions);
+            detailTransactions.clear();
+        }
+        progress.accept("выполнено\n");
+    }
+
     public static Exception resetDatabase(PGSimpleDataSource dataSource, String schema) {
         try (var liquibaseConn = dataSource.getConnection()) {
             new LiquibaseUtil(liquibaseConn).dropAndUpdate();
@@ -1,5 +1,5 @@
 /*
- Copyright © 2021-2024 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2021-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.desktop.persistence;
@@ -11,13 +11,17 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 
 abstract class Repository<T extends MoneyRecord> {
     private final String tableName;
@@ -34,6 +38,16 @@ abstract class Repository<T extends MoneyRecord> {
 
     abstract protected String getUpdateSql();
 
+    /**
+     * Returns insert statement used by {@link #insertNew(Connection, int, List)}. Repositories may override it to
+     * skip duplicate records.
+     *
+     * @return insert statement
+     */
+    protected String getInsertNewSql() {
+        return getInsertSql();
+    }
+
     public List<T> getAll(Connection conn) {
         try (var st = conn.prepareStatement("SELECT * FROM " + tableName)) {
             var result = new ArrayList<T>();
@@ -48,6 +62,32 @@ abstract class Repository<T extends MoneyRecord> {
         }
     }
 
+    /**
+     * Streams all records to the consumer. Rows are fetched in chunks of the given size through a server-side
+     * cursor, which requires the connection not to be in auto-commit mode.
+     *
+     * @param conn      connection
+     * @param fetchSize number of rows fetched at once
+     * @param consumer  record consumer
+     */
+    public void forEach(Connection conn, int fetchSize, Consumer<? super T> consumer) {
+        forEach(conn, fetchSize, "", consumer);
+    }
+
+    protected void forEach(Connection conn, int fetchSize, String condition, Consumer<? super T> consumer) {
+        var sql = "SELECT * FROM " + tableName + condition;
+        try (var st = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            st.setFetchSize(fetchSize);
+            try (var rs = st.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(fromResultSet(rs));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     public Optional<T> get(Connection conn, UUID uuid) {
         try (var st = conn.prepareStatement("SELECT * FROM " + tableName + " WHERE uuid = ?")) {
             st.setObject(1, uuid);
@@ -95,6 +135,102 @@ abstract class Repository<T extends MoneyRecord> {
         }
     }
 
+    /**
+     * Inserts records and returns those actually inserted. Records skipped by the insert statement, for example by
+     * {@code ON CONFLICT DO NOTHING}, are not returned.
+     *
+     * @param conn      connection
+     * @param batchSize batch size
+     * @param records   records
+     * @return inserted records in the list order
+     */
+    public List<T> insertNew(Connection conn, int batchSize, List<T> records) {
+        return executeBatches(conn, getInsertNewSql(), batchSize, records, Repository::isAffected);
+    }
+
+    /**
+     * Updates existing records and inserts the rest. Records are processed in the list order.
+     *
+     * @param conn      connection
+     * @param batchSize batch size
+     * @param records   records
+     */
+    public void upsert(Connection conn, int batchSize, List<T> records) {
+        // Missing records of each batch are inserted before the next batch is updated
+        for (var from = 0; from < records.size(); from += batchSize) {
+            var batch = records.subList(from, Math.min(from + batchSize, records.size()));
+            var missing = executeBatches(conn, getUpdateSql(), batchSize, batch, count -> !isAffected(count));
+            insert(conn, batchSize, missing);
+        }
+    }
+
+    /**
+     * Updates existing records and returns those actually updated. Records missing in the table are not returned.
+     *
+     * @param conn      connection
+     * @param batchSize batch size
+     * @param records   records
+     * @return updated records in the list order
+     */
+    public List<T> update(Connection conn, int batchSize, List<T> records) {
+        return executeBatches(conn, getUpdateSql(), batchSize, records, Repository::isAffected);
+    }
+
+    /**
+     * Executes the statement for records in batches and returns records which update counts match the predicate.
+     *
+     * @param conn      connection
+     * @param sql       statement
+     * @param batchSize batch size
+     * @param records   records
+     * @param predicate predicate of the update count
+     * @return matching records in the list order
+     */
+    private List<T> executeBatches(
+            Connection conn,
+            String sql,
+            int batchSize,
+            List<T> records,
+            IntPredicate predicate)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be >= 1");
+        }
+
+        var result = new ArrayList<T>(records.size());
+        if (records.isEmpty()) {
+            return result;
+        }
+
+        try (var st = conn.prepareStatement(sql)) {
+            for (var from = 0; from < records.size(); from += batchSize) {
+                var batch = records.subList(from, Math.min(from + batchSize, records.size()));
+                for (T r : batch) {
+                    toStatement(st, r);
+                    st.addBatch();
+                }
+
+                var counts = st.executeBatch();
+                for (var i = 0; i < counts.length; i++) {
+                    if (predicate.test(counts[i])) {
+                        result.add(batch.get(i));
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the statement affected the row. Drivers may report {@link Statement#SUCCESS_NO_INFO} instead of the
+     * actual count, it is treated as success.
+     */
+    private static boolean isAffected(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
     public boolean update(Connection conn, T object) {
         try (var st = conn.prepareStatement(getUpdateSql())) {
             toStatement(st, object);
@@ -113,6 +249,27 @@ abstract class Repository<T extends MoneyRecord> {
         }
     }
 
+    public int delete(Connection conn, Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+
+        try (var st = conn.prepareStatement("DELETE FROM " + tableName + " WHERE uuid = ANY(?)")) {
+            st.setArray(1, conn.createArrayOf("uuid", uuids.toArray()));
+            return st.executeUpdate();
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    public void truncate(Connection conn) {
+        try (var st = conn.prepareStatement("TRUNCATE TABLE " + tableName + " CASCADE")) {
+            st.execute();
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     static UUID getUuid(ResultSet set, String columnLabel) throws SQLException {
         var obj = set.getObject(columnLabel);
         return (obj instanceof UUID uuid) ? uuid : null;
@@ -6,9 +6,11 @@ import org.panteleyev.money.dto.CategoryType;
 import org.panteleyev.money.dto.TransactionType;
 import org.panteleyev.money.model.Transaction;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 final class TransactionRepository extends Repository<Transaction> {
 
@@ -16,6 +18,18 @@ final class TransactionRepository extends Repository<Transaction> {
         super("transaction");
     }
 
+    /**
+     * Streams all transactions so that detail transactions follow their parents.
+     *
+     * @param conn      connection
+     * @param fetchSize number of rows fetched at once
+     * @param consumer  transaction consumer
+     */
+    void forEachParentsFirst(Connection conn, int fetchSize, Consumer<? super Transaction> consumer) {
+        forEach(conn, fetchSize, " WHERE parent_uuid IS NULL", consumer);
+        forEach(conn, fetchSize, " WHERE parent_uuid IS NOT NULL", consumer);
+    }
+
     @Override
     protected String getInsertSql() {
         return """
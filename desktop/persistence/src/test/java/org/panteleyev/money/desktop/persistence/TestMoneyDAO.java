@@ -11,13 +11,18 @@ import org.panteleyev.money.dto.CategoryType;
 import org.panteleyev.money.model.Account;
 import org.panteleyev.money.model.Card;
 import org.panteleyev.money.model.Category;
+import org.panteleyev.money.model.ExchangeSecurity;
+import org.panteleyev.money.model.InvestmentDeal;
 import org.panteleyev.money.model.Transaction;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomBigDecimal;
 import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomBoolean;
 import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomEnum;
 import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomString;
@@ -253,4 +258,57 @@ public class TestMoneyDAO extends BaseDaoTest {
         retrieved = get(repo, card.uuid());
         assertEquals(update, retrieved.orElseThrow());
     }
+
+    @Test
+    public void testExchangeSecurities() {
+        var security1 = BaseTestUtils.newExchangeSecurity(UUID.randomUUID());
+        var security2 = BaseTestUtils.newExchangeSecurity(UUID.randomUUID());
+        dao.insertExchangeSecurity(security1);
+        dao.insertExchangeSecurity(security2);
+
+        var update1 = new ExchangeSecurity.Builder(security1).marketValue(randomBigDecimal()).build();
+        var update2 = new ExchangeSecurity.Builder(security2).marketValue(randomBigDecimal()).build();
+        var missing = BaseTestUtils.newExchangeSecurity(UUID.randomUUID());
+
+        var size = cache.getExchangeSecurities().size();
+        assertEquals(2, dao.updateExchangeSecurities(List.of(update1, missing, update2), Runnable::run));
+        assertEquals(size, cache.getExchangeSecurities().size());
+        assertEquals(update1, cache.getExchangeSecurity(update1.uuid()).orElseThrow());
+        assertEquals(update2, cache.getExchangeSecurity(update2.uuid()).orElseThrow());
+        assertTrue(cache.getExchangeSecurity(missing.uuid()).isEmpty());
+
+        var repo = new ExchangeSecurityRepository();
+        assertEquals(update1, get(repo, update1.uuid()).orElseThrow());
+        assertEquals(update2, get(repo, update2.uuid()).orElseThrow());
+        assertTrue(get(repo, missing.uuid()).isEmpty());
+    }
+
+    @Test
+    public void testInvestmentDeals() {
+        var category = BaseTestUtils.newCategory(UUID.randomUUID(), CategoryType.PORTFOLIO);
+        dao.insertCategory(category);
+        var currency = BaseTestUtils.newCurrency();
+        dao.insertCurrency(currency);
+        var account = BaseTestUtils.newAccount(category, currency);
+        dao.insertAccount(account);
+        var security = BaseTestUtils.newExchangeSecurity(UUID.randomUUID());
+        dao.insertExchangeSecurity(security);
+
+        var deal1 = BaseTestUtils.newInvestment(account, security, currency);
+        var deal2 = BaseTestUtils.newInvestment(account, security, currency);
+        var deal3 = BaseTestUtils.newInvestment(account, security, currency);
+
+        var size = cache.getInvestmentDeals().size();
+        dao.insertInvestments(List.of(deal1, deal2));
+        assertEquals(size + 2, cache.getInvestmentDeals().size());
+
+        // Overlapping report with a duplicate inside
+        var duplicate = new InvestmentDeal.Builder(deal2).uuid(UUID.randomUUID()).build();
+        dao.insertInvestments(List.of(duplicate, deal3, deal3));
+        assertEquals(size + 3, cache.getInvestmentDeals().size());
+        assertEquals(deal2, cache.getInvestment(deal2.uuid()).orElseThrow());
+        assertTrue(cache.getInvestment(duplicate.uuid()).isEmpty());
+        assertTrue(get(new InvestmentDealRepository(), duplicate.uuid()).isEmpty());
+        assertTrue(get(new InvestmentDealRepository(), deal3.uuid()).isPresent());
+    }
 }
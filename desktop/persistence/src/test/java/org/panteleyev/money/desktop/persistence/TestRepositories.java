@@ -28,9 +28,11 @@ import org.panteleyev.money.model.MoneyRecord;
 import org.panteleyev.money.model.Transaction;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomBigDecimal;
 import static org.panteleyev.money.desktop.persistence.BaseTestUtils.randomBoolean;
@@ -471,6 +473,28 @@ public class TestRepositories extends BaseDaoTest {
         insertAndUpdate(repository, insert, update);
     }
 
+    @Test
+    @Order(14)
+    public void testUpsertAndDelete() {
+        var repository = new IconRepository();
+
+        var existing = BaseTestUtils.newIcon(ICON_DOLLAR);
+        var updated = BaseTestUtils.newIcon(existing.uuid(), ICON_EURO);
+        var inserted = BaseTestUtils.newIcon(ICON_DOLLAR);
+
+        dao.withNewConnection(conn -> {
+            repository.insert(conn, existing);
+
+            repository.upsert(conn, 1, List.of(updated, inserted));
+            assertEquals(updated, repository.get(conn, existing.uuid()).orElseThrow());
+            assertEquals(inserted, repository.get(conn, inserted.uuid()).orElseThrow());
+
+            assertEquals(2, repository.delete(conn, List.of(existing.uuid(), inserted.uuid(), UUID.randomUUID())));
+            assertTrue(repository.get(conn, existing.uuid()).isEmpty());
+            assertTrue(repository.get(conn, inserted.uuid()).isEmpty());
+        });
+    }
+
     private static <T extends MoneyRecord> void insert(Repository<T> repository, T insert) {
         dao.withNewConnection(conn -> {
             var uuid = insert.uuid();
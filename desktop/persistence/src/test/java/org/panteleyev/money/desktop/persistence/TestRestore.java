@@ -0,0 +1,111 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.desktop.persistence;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.desktop.export.BinaryExport;
+import org.panteleyev.money.desktop.export.DifferentialExport;
+import org.panteleyev.money.desktop.export.ExportWatermark;
+import org.panteleyev.money.model.Currency;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.panteleyev.money.desktop.persistence.BaseTestUtils.newCurrency;
+
+public class TestRestore extends BaseDaoTest {
+    @BeforeAll
+    public static void init() {
+        var initialized = BaseDaoTest.setupAndSkip();
+        assumeTrue(initialized);
+    }
+
+    @AfterAll
+    public static void tearDown() throws Exception {
+        BaseDaoTest.tearDown();
+    }
+
+    private static byte[] fullDump(ExportWatermark[] watermark) {
+        var out = new ByteArrayOutputStream();
+        dao.withExportSource(source -> {
+            new BinaryExport(source, true).doExport(out, _ -> {});
+            watermark[0] = ExportWatermark.of(source);
+        });
+        return out.toByteArray();
+    }
+
+    private static byte[] differential(ExportWatermark[] watermark) {
+        var out = new ByteArrayOutputStream();
+        dao.withExportSource(source -> {
+            watermark[0] = new DifferentialExport(source, watermark[0]).doExport(out, _ -> {});
+        });
+        return out.toByteArray();
+    }
+
+    // Explicit modification time makes watermarks of consecutive backups distinct
+    private static Currency currency(UUID uuid, long modified) {
+        return new Currency.Builder(newCurrency(uuid)).modified(modified).build();
+    }
+
+    private static Set<Currency> getCurrencies() {
+        return new HashSet<>(dao.withNewConnection(conn -> {
+            return new CurrencyRepository().getAll(conn);
+        }));
+    }
+
+    private static void restore(byte[] base, byte[]... differentials) {
+        dao.restore(new ByteArrayInputStream(base),
+                List.of(differentials).stream().map(ByteArrayInputStream::new).toList(),
+                _ -> {});
+    }
+
+    @Test
+    public void testRestoreChain() {
+        initializeEmptyMoneyFile();
+
+        var first = currency(UUID.randomUUID(), 1000);
+        var second = currency(UUID.randomUUID(), 1000);
+        dao.insertCurrency(first);
+        dao.insertCurrency(second);
+
+        var watermark = new ExportWatermark[1];
+        var base = fullDump(watermark);
+
+        // First differential: update and insert
+        dao.updateCurrency(currency(first.uuid(), 2000));
+        var third = currency(UUID.randomUUID(), 2000);
+        dao.insertCurrency(third);
+        var firstDifferential = differential(watermark);
+
+        // Second differential: delete and insert
+        dao.deleteCurrency(second);
+        dao.insertCurrency(currency(UUID.randomUUID(), 3000));
+        var secondDifferential = differential(watermark);
+
+        var expected = getCurrencies();
+
+        // Changes after the last backup are lost
+        dao.insertCurrency(currency(UUID.randomUUID(), 4000));
+        dao.deleteCurrency(third);
+
+        restore(base, firstDifferential, secondDifferential);
+        assertEquals(expected, getCurrencies());
+
+        // Chain with a gap is rejected, records are left intact
+        assertThrows(RuntimeException.class, () -> restore(base, secondDifferential));
+        assertEquals(expected, getCurrencies());
+
+        // Differential instead of the full dump is rejected
+        assertThrows(RuntimeException.class, () -> restore(firstDifferential));
+        assertEquals(expected, getCurrencies());
+    }
+}
@@ -1,13 +1,26 @@
 /*
- Copyright © 2022-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2022-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
 
 import org.panteleyev.money.desktop.commons.DataCache;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
 interface Parser {
-    StatementType detectType(RawStatementData data);
+    /**
+     * Detects statement type by its beginning.
+     *
+     * @param prefix statement prefix
+     * @return statement type or {@link StatementType#UNKNOWN}
+     */
+    StatementType detectType(StatementPrefix prefix);
+
+    Statement parse(InputStream inputStream, DataCache cache, StatementType type);
 
-    Statement parse(RawStatementData data, DataCache cache, StatementType type);
+    default Statement parse(RawStatementData data, DataCache cache, StatementType type) {
+        return parse(new ByteArrayInputStream(data.getBytes()), cache, type);
+    }
 }
@@ -1,24 +1,22 @@
 /*
- Copyright © 2018-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2018-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
 
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 import org.panteleyev.ofx.BankTransactionList;
 import org.panteleyev.ofx.OFXParser;
 import org.panteleyev.ofx.StatementTransaction;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
 import java.util.ArrayList;
 
 class RBAParser implements Parser {
     @Override
-    public StatementType detectType(RawStatementData data) {
-        if (data.getContent().contains("<?OFX")) {
+    public StatementType detectType(StatementPrefix prefix) {
+        if (prefix.isOfx()) {
             return StatementType.OFX;
         } else {
             return StatementType.UNKNOWN;
@@ -26,16 +24,13 @@ class RBAParser implements Parser {
     }
 
     @Override
-    public Statement parse(RawStatementData data, DataCache cache, StatementType type) {
-        try (var inputStream = new ByteArrayInputStream(data.getBytes())) {
-            return parseOfx(inputStream, cache);
-        } catch (IOException ex) {
-            throw new UncheckedIOException(ex);
-        }
+    public Statement parse(InputStream inputStream, DataCache cache, StatementType type) {
+        return parseOfx(inputStream, cache);
     }
 
     Statement parseOfx(InputStream inStream, DataCache cache) {
         var records = new ArrayList<StatementRecord>();
+        var resolver = new ReferenceDataResolver(cache);
 
         var parser = new OFXParser();
         var ofxStatement = parser.parse(inStream);
@@ -60,7 +55,7 @@ class RBAParser implements Parser {
                     .description(tr.memo())
                     .actual(tr.datePosted().toLocalDate())
                     .execution(tr.dateAvailable().toLocalDate());
-            records.add(builder.build(cache));
+            records.add(builder.build(resolver));
         }
 
         return new Statement(StatementType.OFX, accountNumber, records);
@@ -1,14 +1,15 @@
 /*
- Copyright © 2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2025-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
@@ -22,7 +23,7 @@ import java.util.List;
 import java.util.Objects;
 
 public class RbaCsvParser implements Parser {
-    private static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+    private static final Charset WINDOWS_1251 = StatementPrefix.WINDOWS_1251;
 
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
     private static final DateTimeFormatter EXECUTION_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
@@ -56,16 +57,26 @@ public class RbaCsvParser implements Parser {
             .get();
 
     @Override
-    public StatementType detectType(RawStatementData data) {
+    public StatementType detectType(StatementPrefix prefix) {
         // Try new format
-        var parser = getParser(new ByteArrayInputStream(data.getBytes()), StandardCharsets.UTF_8);
-        if (checkHeaders(parser.getHeaderNames(), NEW_FORMAT_HEADERS)) {
+        if (checkHeaders(parseHeaders(prefix.getFirstLine(StandardCharsets.UTF_8)), NEW_FORMAT_HEADERS)) {
             return StatementType.RBA_CSV_NEW;
         }
 
         // Try old format
-        parser = getParser(new ByteArrayInputStream(data.getBytes()), WINDOWS_1251);
-        return checkHeaders(parser.getHeaderNames(), OLD_FORMAT_HEADERS) ? StatementType.RBA_CSV_OLD : null;
+        if (checkHeaders(parseHeaders(prefix.getFirstLine(WINDOWS_1251)), OLD_FORMAT_HEADERS)) {
+            return StatementType.RBA_CSV_OLD;
+        }
+
+        return StatementType.UNKNOWN;
+    }
+
+    private static List<String> parseHeaders(String line) {
+        try (var parser = CSVParser.parse(line, FORMAT)) {
+            return parser.getHeaderNames();
+        } catch (IOException | IllegalArgumentException ex) {
+            return List.of();
+        }
     }
 
     private static boolean checkHeaders(List<String> headers, List<String> expected) {
@@ -89,60 +100,55 @@ public class RbaCsvParser implements Parser {
     }
 
     @Override
-    public Statement parse(RawStatementData data, DataCache cache, StatementType type) {
-        try (var inputStream = new ByteArrayInputStream(data.getBytes())) {
-            return parseCsv(inputStream, cache, type);
+    public Statement parse(InputStream inputStream, DataCache cache, StatementType type) {
+        var records = new ArrayList<StatementRecord>();
+        var charset = type == StatementType.RBA_CSV_OLD ? WINDOWS_1251 : StandardCharsets.UTF_8;
+        var newFormat = type == StatementType.RBA_CSV_NEW;
+        var resolver = new ReferenceDataResolver(cache);
+
+        // Records are read one by one instead of CSVParser.getRecords()
+        try (var parser = getParser(inputStream, charset)) {
+            for (var r : parser) {
+                records.add(parseRecord(r, newFormat, resolver));
+            }
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
+        } catch (DateTimeParseException ex) {
+            throw new RuntimeException(ex);
         }
+        return new Statement(type, "", records);
     }
 
-    private Statement parseCsv(InputStream inputStream, DataCache cache, StatementType type) {
-        try {
-            var records = new ArrayList<StatementRecord>();
-
-            var charset = type == StatementType.RBA_CSV_OLD ? WINDOWS_1251 : StandardCharsets.UTF_8;
-            CSVParser parser = getParser(inputStream, charset);
-
-            for (var r : parser.getRecords()) {
-                var newFormat = type == StatementType.RBA_CSV_NEW;
-
-                LocalDate date = LocalDate.parse(r.get(0), DATE_FORMAT);
-                LocalDate executionDate;
-                if (newFormat) {
-                    executionDate = LocalDate.parse(r.get(1), EXECUTION_DATE_FORMAT);
-                } else {
-                    executionDate = date;
-                }
-
-                String amount;
-
-                if (newFormat) {
-                    amount = r.get(6);
-                    if (amount == null || amount.isBlank()) {
-                        amount = "-" + r.get(7);
-                    }
-                } else {
-                    amount = r.get(5);
-                }
-
-                var currency = newFormat ? r.get(8) : r.get(4);
-                var description = newFormat ? r.get(9) : r.get(1);
-
-                var builder = new StatementRecord.Builder()
-                        .actual(date)
-                        .execution(executionDate)
-                        .currency(currency)
-                        .description(description)
-                        .amount(amount.replaceAll(" ", ""));
-
-                records.add(builder.build(cache));
-            }
+    private static StatementRecord parseRecord(CSVRecord r, boolean newFormat, ReferenceDataResolver resolver) {
+        LocalDate date = LocalDate.parse(r.get(0), DATE_FORMAT);
+        LocalDate executionDate;
+        if (newFormat) {
+            executionDate = LocalDate.parse(r.get(1), EXECUTION_DATE_FORMAT);
+        } else {
+            executionDate = date;
+        }
 
-            return new Statement(type, "", records);
-        } catch (DateTimeParseException ex) {
-            throw new RuntimeException(ex);
+        String amount;
+
+        if (newFormat) {
+            amount = r.get(6);
+            if (amount == null || amount.isBlank()) {
+                amount = "-" + r.get(7);
+            }
+        } else {
+            amount = r.get(5);
         }
+
+        var currency = newFormat ? r.get(8) : r.get(4);
+        var description = newFormat ? r.get(9) : r.get(1);
+
+        return new StatementRecord.Builder()
+                .actual(date)
+                .execution(executionDate)
+                .currency(currency)
+                .description(description)
+                .amount(amount.replaceAll(" ", ""))
+                .build(resolver);
     }
 
     private CSVParser getParser(InputStream inputStream, Charset charset) {
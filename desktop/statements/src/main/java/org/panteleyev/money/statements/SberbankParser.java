@@ -1,5 +1,5 @@
 /*
- Copyright © 2018-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2018-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
@@ -8,8 +8,8 @@ import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
@@ -108,10 +108,9 @@ class SberbankParser implements Parser {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     @Override
-    public StatementType detectType(RawStatementData data) {
-        var content = data.getContent();
-        if (content.contains("HTML_DEBIT_RUS_REPORT") || content.contains("HTML_CREDIT_RUS_REPORT")
-                || content.contains("HTML_DEBIT_RUS_HISTORY")) {
+    public StatementType detectType(StatementPrefix prefix) {
+        if (prefix.isHtml() && (prefix.contains("HTML_DEBIT_RUS_REPORT") || prefix.contains("HTML_CREDIT_RUS_REPORT")
+                || prefix.contains("HTML_DEBIT_RUS_HISTORY"))) {
             return StatementType.SBERBANK_HTML;
         } else {
             return StatementType.UNKNOWN;
@@ -119,12 +118,8 @@ class SberbankParser implements Parser {
     }
 
     @Override
-    public Statement parse(RawStatementData data, DataCache cache, StatementType type) {
-        try (var inputStream = new ByteArrayInputStream(data.getBytes())) {
-            return parseCreditCardHtml(inputStream, cache);
-        } catch (IOException ex) {
-            throw new UncheckedIOException(ex);
-        }
+    public Statement parse(InputStream inputStream, DataCache cache, StatementType type) {
+        return parseCreditCardHtml(inputStream, cache);
     }
 
     private static void checkElement(Element element) {
@@ -143,6 +138,7 @@ class SberbankParser implements Parser {
 
     static Statement parseCreditCardHtml(InputStream inputStream, DataCache cache) {
         var records = new ArrayList<StatementRecord>();
+        var resolver = new ReferenceDataResolver(cache);
 
         try {
             var document = Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "");
@@ -226,7 +222,7 @@ class SberbankParser implements Parser {
                     }
                 }
 
-                records.add(builder.build(cache));
+                records.add(builder.build(resolver));
             }
 
             return new Statement(StatementType.SBERBANK_HTML, accountNumber, records);
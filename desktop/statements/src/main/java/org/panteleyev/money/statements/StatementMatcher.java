@@ -0,0 +1,219 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Finds transactions that match statement records. Produces the same result as {@link StatementPredicate} applied to
+ * every transaction, but transactions of the account are indexed once by date and amount so that each record is
+ * matched with a few hash lookups.
+ * <p>
+ * Index may be updated as transactions change, see {@link #update(Collection, Collection)}. Matcher does not depend
+ * on JavaFX and may be used from any thread. It is not thread safe.
+ */
+public final class StatementMatcher {
+    /**
+     * Index key. Amount is normalized so that keys are equal when {@link BigDecimal#compareTo(BigDecimal)} is zero.
+     *
+     * @param date   date
+     * @param amount normalized amount
+     */
+    record Key(LocalDate date, BigDecimal amount) {
+        static Key of(LocalDate date, BigDecimal amount) {
+            return new Key(date, amount.stripTrailingZeros());
+        }
+    }
+
+    private record Candidate(int position, Transaction transaction) {
+    }
+
+    private static final Comparator<Candidate> BY_POSITION = Comparator.comparingInt(Candidate::position);
+
+    private final UUID accountUuid;
+    private final boolean ignoreExecutionDate;
+    private final Map<Key, List<Candidate>> index = new HashMap<>();
+    private final Map<UUID, Candidate> candidates = new HashMap<>();
+    private int nextPosition;
+
+    /**
+     * Creates matcher and indexes transactions of the account.
+     *
+     * @param account             account, matcher never matches anything if null
+     * @param ignoreExecutionDate whether execution date of the statement record is ignored
+     * @param transactions        transactions, order of the collection is preserved in results
+     */
+    public StatementMatcher(Account account, boolean ignoreExecutionDate, Collection<Transaction> transactions) {
+        this.accountUuid = account == null ? null : account.uuid();
+        this.ignoreExecutionDate = ignoreExecutionDate;
+
+        for (var transaction : transactions) {
+            if (isAccountTransaction(transaction)) {
+                addCandidate(new Candidate(nextPosition, transaction));
+            }
+            nextPosition++;
+        }
+    }
+
+    /**
+     * Updates index with changed transactions. Updated transaction must be passed as both removed and added, it
+     * keeps its position in results. New transactions are placed after all existing ones.
+     *
+     * @param removed removed transactions
+     * @param added   added transactions
+     * @return keys whose matches may have changed
+     */
+    Set<Key> update(Collection<? extends Transaction> removed, Collection<? extends Transaction> added) {
+        var affected = new HashSet<Key>();
+        var positions = new HashMap<UUID, Integer>();
+
+        for (var transaction : removed) {
+            var candidate = candidates.remove(transaction.uuid());
+            if (candidate == null) {
+                continue;
+            }
+            positions.put(transaction.uuid(), candidate.position());
+            for (var key : keys(candidate.transaction())) {
+                var list = index.get(key);
+                list.removeIf(c -> c == candidate);
+                if (list.isEmpty()) {
+                    index.remove(key);
+                }
+                affected.add(key);
+            }
+        }
+
+        for (var transaction : added) {
+            if (isAccountTransaction(transaction)) {
+                var position = positions.get(transaction.uuid());
+                affected.addAll(addCandidate(new Candidate(position == null ? nextPosition++ : position, transaction)));
+            }
+        }
+        return affected;
+    }
+
+    private Set<Key> addCandidate(Candidate candidate) {
+        candidates.put(candidate.transaction().uuid(), candidate);
+        var keys = keys(candidate.transaction());
+        for (var key : keys) {
+            var list = index.computeIfAbsent(key, _ -> new ArrayList<>(1));
+            list.add(candidate);
+            if (list.size() > 1 && list.get(list.size() - 2).position() > candidate.position()) {
+                list.sort(BY_POSITION);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns transactions that match the record.
+     *
+     * @param record statement record
+     * @return matching transactions in the order of the indexed collection
+     */
+    public List<Transaction> match(StatementRecord record) {
+        if (record == null) {
+            return List.of();
+        }
+
+        List<Candidate> found = null;
+        var multiple = false;
+        for (var key : keys(record)) {
+            var list = index.get(key);
+            if (list == null) {
+                continue;
+            }
+            if (found == null) {
+                found = list;
+            } else {
+                if (!multiple) {
+                    found = new ArrayList<>(found);
+                    multiple = true;
+                }
+                found.addAll(list);
+            }
+        }
+
+        if (found == null) {
+            return List.of();
+        }
+        if (multiple) {
+            // Transaction may be found by several keys
+            return new LinkedHashSet<>(found).stream()
+                    .sorted(BY_POSITION)
+                    .map(Candidate::transaction)
+                    .toList();
+        }
+        return found.stream().map(Candidate::transaction).toList();
+    }
+
+    /**
+     * Matches all records.
+     *
+     * @param records statement records
+     * @return matching transactions by record, map is based on identity as records may be equal
+     */
+    public Map<StatementRecord, List<Transaction>> match(Collection<StatementRecord> records) {
+        var result = new IdentityHashMap<StatementRecord, List<Transaction>>(records.size());
+        for (var record : records) {
+            result.put(record, match(record));
+        }
+        return result;
+    }
+
+    boolean isAccountTransaction(Transaction transaction) {
+        return transaction != null
+                && (Objects.equals(transaction.accountDebitedUuid(), accountUuid)
+                || Objects.equals(transaction.accountCreditedUuid(), accountUuid));
+    }
+
+    /**
+     * Returns keys the transaction is indexed by.
+     *
+     * @param transaction transaction
+     * @return keys
+     */
+    static Set<Key> keys(Transaction transaction) {
+        var amount = transaction.amount();
+        var keys = new LinkedHashSet<Key>(2);
+        keys.add(Key.of(transaction.transactionDate(), amount));
+        keys.add(Key.of(transaction.statementDate(), amount));
+        return keys;
+    }
+
+    /**
+     * Returns keys the record is looked up by.
+     *
+     * @param record statement record
+     * @return keys
+     */
+    Set<Key> keys(StatementRecord record) {
+        var keys = new LinkedHashSet<Key>(4);
+        var amounts = new ArrayList<BigDecimal>(2);
+        record.getAmountDecimal().map(BigDecimal::abs).ifPresent(amounts::add);
+        record.getAccountAmountDecimal().map(BigDecimal::abs).ifPresent(amounts::add);
+        for (var amount : amounts) {
+            keys.add(Key.of(record.getActual(), amount));
+            if (!ignoreExecutionDate) {
+                keys.add(Key.of(record.getExecution(), amount));
+            }
+        }
+        return keys;
+    }
+}
@@ -1,11 +1,17 @@
 /*
- Copyright © 2017-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2017-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
 
 import org.panteleyev.money.desktop.commons.DataCache;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,12 +19,42 @@ public final class StatementParser {
     private static final List<Parser> PARSERS = List.of(new RBAParser(), new SberbankParser(), new RbaCsvParser());
 
     public static Optional<Statement> parse(RawStatementData data, DataCache cache) {
+        var prefix = StatementPrefix.of(data);
         for (var parser : PARSERS) {
-            var type = parser.detectType(data);
+            var type = parser.detectType(prefix);
             if (type != StatementType.UNKNOWN) {
                 return Optional.of(parser.parse(data, cache, type));
             }
         }
         return Optional.empty();
     }
+
+    /**
+     * Parses statement file without reading it into memory as a whole.
+     *
+     * @param file  statement file
+     * @param cache data cache
+     * @return statement or empty if format is not recognized
+     */
+    public static Optional<Statement> parse(File file, DataCache cache) {
+        try (var inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            return findParser(inputStream).map(entry -> entry.parser().parse(inputStream, cache, entry.type()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private record ParserEntry(Parser parser, StatementType type) {
+    }
+
+    private static Optional<ParserEntry> findParser(InputStream inputStream) {
+        var prefix = StatementPrefix.of(inputStream);
+        for (var parser : PARSERS) {
+            var type = parser.detectType(prefix);
+            if (type != StatementType.UNKNOWN) {
+                return Optional.of(new ParserEntry(parser, type));
+            }
+        }
+        return Optional.empty();
+    }
 }
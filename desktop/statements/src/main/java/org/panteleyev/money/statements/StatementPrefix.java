@@ -0,0 +1,128 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Beginning of the statement used to detect its format. Only a bounded prefix of the data is inspected and decoded,
+ * so detection cost does not depend on the statement size and each parser checks the same decoded text.
+ */
+final class StatementPrefix {
+    static final int PREFIX_SIZE = 64 * 1024;
+
+    static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF_16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    private static final byte[] UTF_16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+
+    private final byte[] bytes;
+    private final int offset;
+    private final String text;
+    private final String lowerCaseText;
+
+    private StatementPrefix(byte[] bytes, int offset, Charset charset) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.text = new String(bytes, offset, bytes.length - offset, charset);
+        this.lowerCaseText = text.toLowerCase(Locale.ROOT);
+    }
+
+    static StatementPrefix of(RawStatementData data) {
+        var all = data.getBytes();
+        return of(all.length > PREFIX_SIZE ? Arrays.copyOf(all, PREFIX_SIZE) : all);
+    }
+
+    /**
+     * Reads prefix from the stream and resets the stream to its beginning.
+     *
+     * @param inputStream input stream that supports mark
+     * @return statement prefix
+     */
+    static StatementPrefix of(InputStream inputStream) {
+        try {
+            inputStream.mark(PREFIX_SIZE);
+            var bytes = inputStream.readNBytes(PREFIX_SIZE);
+            inputStream.reset();
+            return of(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static StatementPrefix of(byte[] bytes) {
+        if (startsWith(bytes, UTF_8_BOM)) {
+            return new StatementPrefix(bytes, UTF_8_BOM.length, StandardCharsets.UTF_8);
+        } else if (startsWith(bytes, UTF_16BE_BOM)) {
+            return new StatementPrefix(bytes, UTF_16BE_BOM.length, StandardCharsets.UTF_16BE);
+        } else if (startsWith(bytes, UTF_16LE_BOM)) {
+            return new StatementPrefix(bytes, UTF_16LE_BOM.length, StandardCharsets.UTF_16LE);
+        } else {
+            return new StatementPrefix(bytes, 0, isUtf8(bytes) ? StandardCharsets.UTF_8 : WINDOWS_1251);
+        }
+    }
+
+    /**
+     * Checks if the prefix text contains the signature. Text is decoded with the charset of the byte order mark,
+     * as UTF-8 if the prefix is valid UTF-8, as Windows-1251 otherwise.
+     *
+     * @param signature signature
+     * @return true if signature is found
+     */
+    boolean contains(String signature) {
+        return text.contains(signature);
+    }
+
+    boolean isHtml() {
+        return lowerCaseText.contains("<html") || lowerCaseText.contains("<!doctype html");
+    }
+
+    /**
+     * Checks for XML processing instruction of OFX 2.x or colon separated header of OFX 1.x.
+     *
+     * @return true if prefix looks like OFX
+     */
+    boolean isOfx() {
+        return text.contains("<?OFX") || text.stripLeading().startsWith("OFXHEADER:");
+    }
+
+    /**
+     * Returns the first line decoded with the given charset, without byte order mark and line separator. Charset
+     * must encode line separators as single bytes.
+     *
+     * @param lineCharset charset
+     * @return first line
+     */
+    String getFirstLine(Charset lineCharset) {
+        var end = offset;
+        while (end < bytes.length && bytes[end] != '\n' && bytes[end] != '\r') {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, lineCharset);
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] signature) {
+        return bytes.length >= signature.length
+                && Arrays.equals(bytes, 0, signature.length, signature, 0, signature.length);
+    }
+
+    private static boolean isUtf8(byte[] bytes) {
+        var decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        var in = ByteBuffer.wrap(bytes);
+        var out = CharBuffer.allocate(bytes.length);
+        // Prefix may end in the middle of a character, so the end of input is not signalled
+        return !decoder.decode(in, out, false).isError();
+    }
+}
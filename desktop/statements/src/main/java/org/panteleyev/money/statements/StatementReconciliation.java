@@ -0,0 +1,90 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps matches of statement records up to date while transactions change. Records are indexed by the same keys as
+ * transactions in {@link StatementMatcher}, so that a change of a few transactions only re-matches records that
+ * share keys with them.
+ * <p>
+ * Reconciliation is not thread safe. It may be created on any thread and then handed over to the thread that
+ * receives transaction changes.
+ */
+public final class StatementReconciliation {
+    private final StatementMatcher matcher;
+    private final Map<StatementMatcher.Key, List<StatementRecord>> records = new HashMap<>();
+    private final Map<StatementRecord, List<Transaction>> matches = new IdentityHashMap<>();
+
+    /**
+     * Creates reconciliation and matches all records.
+     *
+     * @param account             account
+     * @param ignoreExecutionDate whether execution date of the statement record is ignored
+     * @param statementRecords    statement records
+     * @param transactions        transactions
+     */
+    public StatementReconciliation(
+            Account account,
+            boolean ignoreExecutionDate,
+            Collection<StatementRecord> statementRecords,
+            Collection<Transaction> transactions)
+    {
+        matcher = new StatementMatcher(account, ignoreExecutionDate, transactions);
+        for (var record : statementRecords) {
+            for (var key : matcher.keys(record)) {
+                records.computeIfAbsent(key, _ -> new ArrayList<>(1)).add(record);
+            }
+            matches.put(record, matcher.match(record));
+        }
+    }
+
+    /**
+     * Returns matches of all records.
+     *
+     * @return matching transactions by record, map is based on identity
+     */
+    public Map<StatementRecord, List<Transaction>> getMatches() {
+        return Collections.unmodifiableMap(matches);
+    }
+
+    /**
+     * Applies transaction changes. Updated transaction must be passed as both removed and added.
+     *
+     * @param removed removed transactions
+     * @param added   added transactions
+     * @return new matches of records whose matches have changed, map is based on identity
+     */
+    public Map<StatementRecord, List<Transaction>> update(
+            Collection<? extends Transaction> removed,
+            Collection<? extends Transaction> added)
+    {
+        var changed = new IdentityHashMap<StatementRecord, List<Transaction>>();
+        var visited = Collections.newSetFromMap(new IdentityHashMap<StatementRecord, Boolean>());
+
+        for (var key : matcher.update(removed, added)) {
+            for (var record : records.getOrDefault(key, List.of())) {
+                if (!visited.add(record)) {
+                    continue;
+                }
+                // Transactions are compared by value, so that checking a transaction also updates the record
+                var transactions = matcher.match(record);
+                if (!transactions.equals(matches.get(record))) {
+                    matches.put(record, transactions);
+                    changed.put(record, transactions);
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -1,10 +1,11 @@
 /*
- Copyright © 2017-2025 Petr Panteleyev <petr-panteleyev@yandex.ru>
+ Copyright © 2017-2026 Petr Panteleyev <petr-panteleyev@yandex.ru>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
 
 import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.desktop.commons.ReferenceDataResolver;
 import org.panteleyev.money.model.Currency;
 import org.panteleyev.money.model.Transaction;
 
@@ -33,6 +34,17 @@ public final class StatementRecord {
         private String accountAmount = "0.00";
 
         public StatementRecord build(DataCache cache) {
+            return build(new ReferenceDataResolver(cache));
+        }
+
+        /**
+         * Builds statement record resolving currencies with the resolver. Parsers should share one resolver between
+         * all records of a statement.
+         *
+         * @param resolver reference data resolver
+         * @return statement record
+         */
+        public StatementRecord build(ReferenceDataResolver resolver) {
             if (execution == null) {
                 execution = actual;
             }
@@ -41,21 +53,14 @@ public final class StatementRecord {
                 accountAmount = amount;
             }
 
-            var currencyUuid = cache.getCurrencies().stream()
-                    .filter(c -> c.description().equalsIgnoreCase(currency)
-                            || c.symbol().equalsIgnoreCase(currency))
-                    .findAny()
+            var currencyUuid = resolver.getCurrency(currency)
                     .map(Currency::uuid)
                     .orElse(null);
 
-            var accountCurrencyUuid = cache.getCurrencies().stream()
-                    .filter(c -> c.description().equalsIgnoreCase(accountCurrency)
-                            || c.symbol().equalsIgnoreCase(accountCurrency))
-                    .findAny()
+            var accountCurrencyUuid = resolver.getCurrency(accountCurrency)
                     .map(Currency::uuid)
                     .orElse(null);
 
-
             return new StatementRecord(actual, execution, description, counterParty, place, country, currency,
                     currencyUuid, amount, accountCurrency, accountCurrencyUuid, accountAmount);
         }
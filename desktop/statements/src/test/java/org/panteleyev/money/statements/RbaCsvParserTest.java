@@ -1,5 +1,5 @@
 /*
- Copyright © 2025 Petr Panteleyev <petr@panteleyev.org>
+ Copyright © 2025-2026 Petr Panteleyev <petr@panteleyev.org>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.money.statements;
@@ -10,9 +10,12 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.panteleyev.money.desktop.commons.DataCache;
 import org.panteleyev.money.model.Currency;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -38,7 +41,7 @@ public class RbaCsvParserTest {
     @MethodSource("testDetectTypeArguments")
     public void testDetectType(String fileName, StatementType expected) throws IOException {
         try (var inputStream = getClass().getResourceAsStream("/" + fileName)) {
-            assertEquals(expected, parser.detectType(new RawStatementData(inputStream)));
+            assertEquals(expected, parser.detectType(StatementPrefix.of(new RawStatementData(inputStream))));
         }
     }
 
@@ -111,4 +114,11 @@ public class RbaCsvParserTest {
             assertEquals(expected, parser.parse(new RawStatementData(inputStream), dataCache, type));
         }
     }
+
+    @ParameterizedTest
+    @MethodSource("testParseArguments")
+    public void testParseFile(String fileName, StatementType type, Statement expected) throws URISyntaxException {
+        var file = new File(getClass().getResource("/" + fileName).toURI());
+        assertEquals(Optional.of(expected), StatementParser.parse(file, dataCache));
+    }
 }
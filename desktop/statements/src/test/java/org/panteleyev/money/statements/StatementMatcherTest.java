@@ -0,0 +1,100 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.dto.CategoryType;
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementMatcherTest {
+    private static final DataCache dataCache = new DataCache();
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private static final Account ACCOUNT = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("Account")
+            .type(CategoryType.BANKS_AND_CASH)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+    private static final Account OTHER = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("Other")
+            .type(CategoryType.EXPENSES)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+
+    private static Transaction newTransaction(Random random) {
+        var other = random.nextInt(10) == 0 ? new Account.Builder(OTHER).uuid(UUID.randomUUID()).build() : OTHER;
+        var debited = random.nextBoolean() ? ACCOUNT : other;
+        var credited = debited == ACCOUNT ? other : ACCOUNT;
+        // Same amounts with different scale must match
+        var amount = BigDecimal.valueOf(random.nextInt(50), random.nextInt(3));
+        var date = START.plusDays(random.nextInt(20));
+
+        return new Transaction.Builder()
+                .amount(amount)
+                .creditAmount(amount)
+                .transactionDate(date)
+                .statementDate(date.plusDays(random.nextInt(3)))
+                .accountDebitedUuid(debited.uuid())
+                .accountDebitedType(debited.type())
+                .accountDebitedCategoryUuid(debited.categoryUuid())
+                .accountCreditedUuid(credited.uuid())
+                .accountCreditedType(credited.type())
+                .accountCreditedCategoryUuid(credited.categoryUuid())
+                .build();
+    }
+
+    private static StatementRecord newRecord(Random random) {
+        var actual = START.plusDays(random.nextInt(20));
+        var amount = BigDecimal.valueOf(random.nextInt(50) * (random.nextBoolean() ? 1 : -1), 2);
+        return new StatementRecord.Builder()
+                .actual(actual)
+                .execution(actual.plusDays(random.nextInt(3)))
+                .amount(amount.toString())
+                .build(dataCache);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testSameAsPredicate(boolean ignoreExecutionDate) {
+        var random = new Random(1);
+        var transactions = IntStream.range(0, 5000).mapToObj(_ -> newTransaction(random)).toList();
+        var records = IntStream.range(0, 500).mapToObj(_ -> newRecord(random)).toList();
+
+        var matcher = new StatementMatcher(ACCOUNT, ignoreExecutionDate, transactions);
+        var matches = matcher.match(records);
+
+        var matched = 0;
+        for (var record : records) {
+            var expected = transactions.stream()
+                    .filter(new StatementPredicate(ACCOUNT, record, ignoreExecutionDate))
+                    .toList();
+            assertEquals(expected, matches.get(record));
+            matched += expected.size();
+        }
+        assertTrue(matched > 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testNoAccount(boolean ignoreExecutionDate) {
+        var random = new Random(2);
+        var transactions = IntStream.range(0, 100).mapToObj(_ -> newTransaction(random)).toList();
+        var matcher = new StatementMatcher(null, ignoreExecutionDate, transactions);
+        assertEquals(List.of(), matcher.match(newRecord(random)));
+    }
+}
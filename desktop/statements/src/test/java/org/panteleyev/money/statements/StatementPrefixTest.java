@@ -0,0 +1,58 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementPrefixTest {
+    @Test
+    public void testUtf8Bom() {
+        var out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        out.writeBytes("Дата;Сумма\n1;2\n".getBytes(StandardCharsets.UTF_8));
+
+        var prefix = StatementPrefix.of(new RawStatementData(out.toByteArray()));
+        assertTrue(prefix.contains("Дата;Сумма"));
+        assertEquals("Дата;Сумма", prefix.getFirstLine(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWindows1251() {
+        var bytes = "Дата;Сумма\r\n".getBytes(StatementPrefix.WINDOWS_1251);
+
+        var prefix = StatementPrefix.of(new RawStatementData(bytes));
+        assertTrue(prefix.contains("Дата;Сумма"));
+        assertEquals("Дата;Сумма", prefix.getFirstLine(StatementPrefix.WINDOWS_1251));
+    }
+
+    @Test
+    public void testUtf8CutInTheMiddleOfCharacter() {
+        var bytes = "Д".repeat(StatementPrefix.PREFIX_SIZE).getBytes(StandardCharsets.UTF_8);
+        var prefix = StatementPrefix.of(new RawStatementData(bytes));
+        assertTrue(prefix.contains("ДДД"));
+    }
+
+    @Test
+    public void testSignatures() {
+        var html = StatementPrefix.of(new RawStatementData(
+                "<!DOCTYPE html><HTML><head></head></HTML>".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(html.isHtml());
+        assertFalse(html.isOfx());
+
+        var ofx = StatementPrefix.of(new RawStatementData(
+                "<?xml version=\"1.0\"?><?OFX OFXHEADER=\"200\"?><OFX/>".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(ofx.isOfx());
+        assertFalse(ofx.isHtml());
+
+        var sgml = StatementPrefix.of(new RawStatementData(
+                "OFXHEADER:100\r\nDATA:OFXSGML\r\n\r\n<OFX>".getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(sgml.isOfx());
+    }
+}
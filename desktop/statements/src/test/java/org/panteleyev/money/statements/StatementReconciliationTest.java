@@ -0,0 +1,112 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.money.statements;
+
+import org.junit.jupiter.api.Test;
+import org.panteleyev.money.desktop.commons.DataCache;
+import org.panteleyev.money.dto.CategoryType;
+import org.panteleyev.money.model.Account;
+import org.panteleyev.money.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StatementReconciliationTest {
+    private static final DataCache dataCache = new DataCache();
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private static final Account ACCOUNT = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("Account")
+            .type(CategoryType.BANKS_AND_CASH)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+    private static final Account OTHER = new Account.Builder()
+            .uuid(UUID.randomUUID())
+            .name("Other")
+            .type(CategoryType.EXPENSES)
+            .categoryUuid(UUID.randomUUID())
+            .build();
+
+    private static Transaction newTransaction(Random random) {
+        var amount = BigDecimal.valueOf(random.nextInt(20));
+        var date = START.plusDays(random.nextInt(10));
+        return new Transaction.Builder()
+                .amount(amount)
+                .creditAmount(amount)
+                .transactionDate(date)
+                .accountDebitedUuid(ACCOUNT.uuid())
+                .accountDebitedType(ACCOUNT.type())
+                .accountDebitedCategoryUuid(ACCOUNT.categoryUuid())
+                .accountCreditedUuid(OTHER.uuid())
+                .accountCreditedType(OTHER.type())
+                .accountCreditedCategoryUuid(OTHER.categoryUuid())
+                .build();
+    }
+
+    private static StatementRecord newRecord(Random random) {
+        return new StatementRecord.Builder()
+                .actual(START.plusDays(random.nextInt(10)))
+                .amount(Integer.toString(-random.nextInt(20)))
+                .build(dataCache);
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        var random = new Random(1);
+        var transactions = new ArrayList<>(IntStream.range(0, 300).mapToObj(_ -> newTransaction(random)).toList());
+        var records = IntStream.range(0, 100).mapToObj(_ -> newRecord(random)).toList();
+
+        var reconciliation = new StatementReconciliation(ACCOUNT, true, records, transactions);
+
+        for (var i = 0; i < 200; i++) {
+            var previous = new ArrayList<>(records.stream().map(r -> reconciliation.getMatches().get(r)).toList());
+
+            List<Transaction> removed;
+            List<Transaction> added;
+            var index = random.nextInt(transactions.size());
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    added = List.of(newTransaction(random));
+                    removed = List.of();
+                    transactions.addAll(added);
+                }
+                case 1 -> {
+                    removed = List.of(transactions.remove(index));
+                    added = List.of();
+                }
+                case 2 -> {
+                    var old = transactions.get(index);
+                    removed = List.of(old);
+                    added = List.of(old.check(!old.checked()));
+                    transactions.set(index, added.getFirst());
+                }
+                default -> {
+                    var old = transactions.get(index);
+                    removed = List.of(old);
+                    added = List.of(new Transaction.Builder(newTransaction(random)).uuid(old.uuid()).build());
+                    transactions.set(index, added.getFirst());
+                }
+            }
+
+            var changed = reconciliation.update(removed, added);
+
+            var expected = new StatementMatcher(ACCOUNT, true, transactions).match(records);
+            for (var j = 0; j < records.size(); j++) {
+                var record = records.get(j);
+                assertEquals(expected.get(record), reconciliation.getMatches().get(record));
+                // Only records with changed matches are reported
+                assertEquals(!previous.get(j).equals(expected.get(record)), changed.containsKey(record));
+            }
+        }
+        assertTrue(reconciliation.getMatches().values().stream().anyMatch(list -> !list.isEmpty()));
+    }
+}
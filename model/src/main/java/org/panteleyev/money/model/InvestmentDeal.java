@@ -77,6 +77,36 @@ public record InvestmentDeal(
         private long created = 0;
         private long modified = 0;
 
+        public Builder() {
+        }
+
+        public Builder(InvestmentDeal deal) {
+            if (deal == null) {
+                return;
+            }
+
+            uuid = deal.uuid();
+            accountUuid = deal.accountUuid();
+            securityUuid = deal.securityUuid();
+            currencyUuid = deal.currencyUuid();
+            dealNumber = deal.dealNumber();
+            dealDate = deal.dealDate();
+            accountingDate = deal.accountingDate();
+            marketType = deal.marketType();
+            operationType = deal.operationType();
+            securityAmount = deal.securityAmount();
+            price = deal.price();
+            aci = deal.aci();
+            dealVolume = deal.dealVolume();
+            rate = deal.rate();
+            exchangeFee = deal.exchangeFee();
+            brokerFee = deal.brokerFee();
+            amount = deal.amount();
+            dealType = deal.dealType();
+            created = deal.created();
+            modified = deal.modified();
+        }
+
         public InvestmentDeal build() {
             return new InvestmentDeal(
                     uuid,
@@ -13,73 +13,240 @@ import org.panteleyev.moex.xml.MarketDataParser;
 import org.panteleyev.moex.xml.MoexParser;
 import org.panteleyev.moex.xml.SecurityParser;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
-public class Moex {
-    private final MoexClient client = new MoexClient();
+/**
+ * Moscow Exchange ISS client. All requests share one {@link HttpClient}, so connections are kept alive and reused
+ * between requests. Instances are thread safe and are supposed to be long-lived.
+ */
+public class Moex implements AutoCloseable {
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    // Keeps request URL reasonably short
+    public static final int MAX_BOARD_SECURITIES = 100;
+
+    private final HttpClient httpClient;
+    private final MoexClient client;
     private final MoexParser parser = new MoexParser();
     private final SecurityParser securityParser = new SecurityParser();
     private final MarketDataParser marketDataParser = new MarketDataParser();
 
-    public List<MoexEngine> getEngines() {
-        try (var httpClient = HttpClient.newHttpClient()) {
-            var response = client.getEngines(httpClient);
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Request failed");
-            }
+    public static final class Builder {
+        private String baseUrl = MoexClient.BASE_URL;
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+        private Executor executor;
 
-            try (var inputStream = response.body()) {
-                return parser.getEngines(inputStream);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * Sets preferred HTTP version. HTTP/2 multiplexes concurrent requests over a single connection, client falls
+         * back to HTTP/1.1 with persistent connections if server does not support HTTP/2.
+         *
+         * @param version HTTP version
+         * @return this
+         */
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets timeout of each request.
+         *
+         * @param requestTimeout timeout, {@code null} means no timeout
+         * @return this
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Sets executor for asynchronous tasks of the HTTP client. Responses of async methods are parsed by this
+         * executor as well.
+         *
+         * @param executor executor, {@code null} means default executor of the HTTP client
+         * @return this
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Moex build() {
+            return new Moex(this);
         }
     }
 
-    public List<MoexMarket> getMarkets(MoexEngine engine) {
-        try (var httpClient = HttpClient.newHttpClient()) {
-            var response = client.getMarkets(httpClient, engine);
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Request failed");
-            }
+    public Moex() {
+        this(new Builder());
+    }
 
-            try (var inputStream = response.body()) {
-                return parser.getMarkets(inputStream, engine);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
+    private Moex(Builder builder) {
+        var httpClientBuilder = HttpClient.newBuilder()
+                .version(builder.version)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(builder.connectTimeout);
+        if (builder.executor != null) {
+            httpClientBuilder.executor(builder.executor);
         }
+        httpClient = httpClientBuilder.build();
+        client = new MoexClient(builder.baseUrl, builder.requestTimeout);
+    }
+
+    public List<MoexEngine> getEngines() {
+        return send(client.getEngines(), parser::getEngines);
+    }
+
+    public CompletableFuture<List<MoexEngine>> getEnginesAsync() {
+        return sendAsync(client.getEngines(), parser::getEngines);
+    }
+
+    public List<MoexMarket> getMarkets(MoexEngine engine) {
+        return send(client.getMarkets(engine), inputStream -> parser.getMarkets(inputStream, engine));
+    }
+
+    public CompletableFuture<List<MoexMarket>> getMarketsAsync(MoexEngine engine) {
+        return sendAsync(client.getMarkets(engine), inputStream -> parser.getMarkets(inputStream, engine));
     }
 
     public Optional<MoexSecurity> getSecurity(String securityId) {
-        try (var httpClient = HttpClient.newHttpClient()) {
-            var response = client.getSecurity(httpClient, securityId);
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Request failed");
-            }
+        return send(client.getSecurity(securityId), securityParser::parseSecurity);
+    }
 
-            try (var inputStream = response.body()) {
-                return securityParser.parseSecurity(inputStream);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
-        }
+    public CompletableFuture<Optional<MoexSecurity>> getSecurityAsync(String securityId) {
+        return sendAsync(client.getSecurity(securityId), securityParser::parseSecurity);
     }
 
     public Optional<MoexMarketData> getMarketData(String securityId, String engine, String market, String board) {
-        try (var httpClient = HttpClient.newHttpClient()) {
-            var response = client.getMarketData(httpClient, securityId, engine, market, board);
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Request failed");
-            }
+        return send(client.getMarketData(securityId, engine, market, board), marketDataParser::parseMarketData);
+    }
+
+    public CompletableFuture<Optional<MoexMarketData>> getMarketDataAsync(
+            String securityId,
+            String engine,
+            String market,
+            String board)
+    {
+        return sendAsync(client.getMarketData(securityId, engine, market, board),
+                marketDataParser::parseMarketData);
+    }
+
+    /**
+     * Returns market data of several securities traded on the same board. Securities are requested in chunks of
+     * {@value MAX_BOARD_SECURITIES}, one request per chunk.
+     *
+     * @param securityIds security ids
+     * @param engine      engine
+     * @param market      market
+     * @param board       board
+     * @return market data by security id, securities not traded on the board are omitted
+     * @throws RuntimeException if any request fails, so failed requests are not mistaken for missing market data
+     */
+    public Map<String, MoexMarketData> getBoardMarketData(
+            Collection<String> securityIds,
+            String engine,
+            String market,
+            String board)
+    {
+        var result = new LinkedHashMap<String, MoexMarketData>();
+        for (var chunk : chunks(securityIds)) {
+            result.putAll(send(client.getBoardMarketData(chunk, engine, market, board),
+                    marketDataParser::parseBoardMarketData));
+        }
+        return result;
+    }
+
+    public CompletableFuture<Map<String, MoexMarketData>> getBoardMarketDataAsync(
+            Collection<String> securityIds,
+            String engine,
+            String market,
+            String board)
+    {
+        var futures = chunks(securityIds).stream()
+                .map(chunk -> sendAsync(client.getBoardMarketData(chunk, engine, market, board),
+                        marketDataParser::parseBoardMarketData))
+                .toList();
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(_ -> {
+                    var result = new LinkedHashMap<String, MoexMarketData>();
+                    futures.forEach(future -> result.putAll(future.join()));
+                    return result;
+                });
+    }
+
+    /**
+     * Closes the HTTP client and its connections.
+     */
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private static List<List<String>> chunks(Collection<String> securityIds) {
+        var ids = List.copyOf(new LinkedHashSet<>(securityIds));
+        var chunks = new ArrayList<List<String>>();
+        for (var from = 0; from < ids.size(); from += MAX_BOARD_SECURITIES) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_BOARD_SECURITIES, ids.size())));
+        }
+        return chunks;
+    }
 
+    private <T> T send(HttpRequest request, Function<InputStream, T> bodyParser) {
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
             try (var inputStream = response.body()) {
-                return marketDataParser.parseMarketData(inputStream);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
+                checkStatus(response);
+                return bodyParser.apply(inputStream);
             }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private <T> CompletableFuture<T> sendAsync(HttpRequest request, Function<InputStream, T> bodyParser) {
+        // Body is received as a whole, so that parsing does not block threads of the HTTP client
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    checkStatus(response);
+                    return bodyParser.apply(new ByteArrayInputStream(response.body()));
+                });
+    }
+
+    private static void checkStatus(HttpResponse<?> response) {
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("Request failed: " + response.statusCode() + " " + response.uri());
         }
     }
 }
@@ -6,69 +6,90 @@ package org.panteleyev.moex.client;
 
 import org.panteleyev.moex.model.MoexEngine;
 
-import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
+/**
+ * Builds ISS requests. Requests are sent by the caller so that one HTTP client and its connections can be shared
+ * between all requests.
+ */
 public class MoexClient {
-    private static final String BASE_URL = "https://iss.moex.com/iss";
+    public static final String BASE_URL = "https://iss.moex.com/iss";
+
     private static final String ENGINES = "/engines";
     private static final String MARKETS = "/markets";
     private static final String BOARDS = "/boards";
     private static final String SECURITIES = "/securities";
     private static final String XML = ".xml";
 
-    public HttpResponse<InputStream> getEngines(HttpClient httpClient) {
-        try {
-            var request = HttpRequest.newBuilder()
-                    .uri(new URI(BASE_URL + ENGINES + XML))
-                    .GET()
-                    .build();
-            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public MoexClient() {
+        this(BASE_URL, null);
     }
 
-    public HttpResponse<InputStream> getMarkets(HttpClient httpClient, MoexEngine engine) {
-        try {
-            var request = HttpRequest.newBuilder()
-                    .uri(new URI(BASE_URL + ENGINES + "/" + engine.name() + MARKETS + XML))
-                    .GET()
-                    .build();
-            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+    /**
+     * Creates client.
+     *
+     * @param baseUrl        ISS root URL without trailing slash
+     * @param requestTimeout request timeout, {@code null} means no timeout
+     */
+    public MoexClient(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
     }
 
-    public HttpResponse<InputStream> getSecurity(HttpClient httpClient, String securityId) {
-        try {
-            var request = HttpRequest.newBuilder()
-                    .uri(new URI(BASE_URL + SECURITIES + "/" + securityId + XML + "?iss.meta=off"))
-                    .GET()
-                    .build();
-            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+    public HttpRequest getEngines() {
+        return buildRequest(ENGINES + XML);
+    }
+
+    public HttpRequest getMarkets(MoexEngine engine) {
+        return buildRequest(ENGINES + "/" + engine.name() + MARKETS + XML);
+    }
+
+    public HttpRequest getSecurity(String securityId) {
+        return buildRequest(SECURITIES + "/" + securityId + XML + "?iss.meta=off");
+    }
+
+    public HttpRequest getMarketData(String securityId, String engine, String market, String board) {
+        return buildRequest(ENGINES + "/" + engine.toLowerCase()
+                + MARKETS + "/" + market.toLowerCase()
+                + BOARDS + "/" + board.toLowerCase()
+                + SECURITIES + "/" + securityId + XML + "?iss.meta=off");
+    }
+
+    /**
+     * Builds request of securities and market data tables of a board filtered by the list of securities.
+     *
+     * @param securityIds security ids
+     * @param engine      engine
+     * @param market      market
+     * @param board       board
+     * @return request
+     */
+    public HttpRequest getBoardMarketData(Collection<String> securityIds, String engine, String market, String board) {
+        var securities = securityIds.stream()
+                .map(id -> URLEncoder.encode(id, StandardCharsets.UTF_8))
+                .collect(Collectors.joining(","));
+        return buildRequest(ENGINES + "/" + engine.toLowerCase()
+                + MARKETS + "/" + market.toLowerCase()
+                + BOARDS + "/" + board.toLowerCase()
+                + SECURITIES + XML + "?iss.meta=off&iss.only=securities,marketdata&securities=" + securities);
     }
 
-    public HttpResponse<InputStream> getMarketData(HttpClient httpClient, String securityId, String engine, String market, String board) {
-        try {
-            var request = HttpRequest.newBuilder()
-                    .uri(new URI(BASE_URL
-                            + ENGINES + "/" + engine.toLowerCase()
-                            + MARKETS + "/" + market.toLowerCase()
-                            + BOARDS + "/" + board.toLowerCase()
-                            + SECURITIES + "/" + securityId + XML + "?iss.meta=off"))
-                    .GET()
-                    .build();
-            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
+    private HttpRequest buildRequest(String path) {
+        var builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .GET();
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
         }
+        return builder.build();
     }
 }
@@ -2,12 +2,15 @@
 // SPDX-License-Identifier: BSD-2-Clause
 package org.panteleyev.moex.xml;
 
+import org.panteleyev.commons.xml.StartElementWrapper;
 import org.panteleyev.commons.xml.XMLEventReaderWrapper;
 import org.panteleyev.moex.model.MoexMarketData;
 
 import javax.xml.namespace.QName;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -32,9 +35,25 @@ public class MarketDataParser {
     }
 
     public Optional<MoexMarketData> parseMarketData(InputStream inputStream) {
-        try (var reader = XMLEventReaderWrapper.newInstance(inputStream)) {
-            var builder = new MoexMarketData.Builder();
+        try {
+            return parseBoardMarketData(inputStream).values().stream().findFirst();
+        } catch (RuntimeException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses response of a board level request with any number of securities. Rows of securities and market data
+     * tables are merged by security id in one pass.
+     *
+     * @param inputStream response
+     * @return market data by security id in order of the response, securities not traded on the board are omitted
+     * @throws RuntimeException if response cannot be parsed
+     */
+    public Map<String, MoexMarketData> parseBoardMarketData(InputStream inputStream) {
+        var builders = new LinkedHashMap<String, MoexMarketData.Builder>();
 
+        try (var reader = XMLEventReaderWrapper.newInstance(inputStream)) {
             while (reader.hasNext()) {
                 var event = reader.nextEvent();
 
@@ -46,8 +65,11 @@ public class MarketDataParser {
                         }
 
                         securitiesEvent.ifStartElement(ROW, row -> {
-                            builder.accruedInterest(row.getAttributeValue(ATTR_ACCRUEDINT, BigDecimal.class).orElse(null))
-                                    .prevLegalClosePrice(row.getAttributeValue(ATTR_PREVLEGALCLOSEPRICE, BigDecimal.class).orElse(null))
+                            getBuilder(builders, row)
+                                    .accruedInterest(row.getAttributeValue(ATTR_ACCRUEDINT, BigDecimal.class)
+                                            .orElse(null))
+                                    .prevLegalClosePrice(row.getAttributeValue(ATTR_PREVLEGALCLOSEPRICE, BigDecimal.class)
+                                            .orElse(null))
                                     .couponPeriod(row.getAttributeValue(ATTR_COUPONPERIOD, Integer.class).orElse(null));
                         });
                     }
@@ -61,7 +83,8 @@ public class MarketDataParser {
                         }
 
                         marketDataEvent.ifStartElement(ROW, row -> {
-                            builder.secId(row.getAttributeValue(ATTR_SECID).orElseThrow())
+                            getBuilder(builders, row)
+                                    .secId(row.getAttributeValue(ATTR_SECID).orElseThrow())
                                     .boardId(row.getAttributeValue(ATTR_BOARDID).orElseThrow())
                                     .open(row.getAttributeValue(ATTR_OPEN, BigDecimal.class).orElse(null))
                                     .low(row.getAttributeValue(ATTR_LOW, BigDecimal.class).orElse(null))
@@ -74,10 +97,25 @@ public class MarketDataParser {
                     }
                 });
             }
-
-            return builder.getSecId() == null ? Optional.empty() : Optional.of(builder.build());
+        } catch (RuntimeException ex) {
+            throw ex;
         } catch (Exception ex) {
-            return Optional.empty();
+            throw new RuntimeException(ex);
         }
+
+        var result = new LinkedHashMap<String, MoexMarketData>();
+        builders.forEach((secId, builder) -> {
+            // Security without market data row is not traded on the board
+            if (builder.getSecId() != null) {
+                result.put(secId, builder.build());
+            }
+        });
+        return result;
+    }
+
+    private static MoexMarketData.Builder getBuilder(Map<String, MoexMarketData.Builder> builders,
+            StartElementWrapper row)
+    {
+        return builders.computeIfAbsent(row.getAttributeValue(ATTR_SECID, ""), _ -> new MoexMarketData.Builder());
     }
-}
\ No newline at end of file
+}
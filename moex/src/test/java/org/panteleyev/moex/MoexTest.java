@@ -0,0 +1,140 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.moex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.panteleyev.moex.model.MoexEngine;
+import org.panteleyev.moex.xml.MarketDataParser;
+import org.panteleyev.moex.xml.MoexParser;
+import org.panteleyev.moex.xml.SecurityParser;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoexTest {
+    private static final String ENGINES = "/MoexParserTest/engines.xml";
+    private static final String MARKETS = "/MoexParserTest/markets.xml";
+    private static final String SECURITY = "/SecurityParserTest/share.xml";
+    private static final String MARKET_DATA = "/MarketDataParserTest/response.xml";
+    private static final String BOARD_MARKET_DATA = "/MarketDataParserTest/board.xml";
+
+    private static final MoexEngine ENGINE = new MoexEngine(1, "stock", "");
+    private static final int REQUEST_COUNT = 100;
+
+    private StubIssServer server;
+    private Moex moex;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        server = new StubIssServer(Map.of(
+                "/iss/engines.xml", ENGINES,
+                "/iss/engines/stock/markets.xml", MARKETS,
+                "/iss/securities/SBER.xml", SECURITY,
+                "/iss/engines/stock/markets/shares/boards/tqbr/securities/SBER.xml", MARKET_DATA,
+                "/iss/engines/stock/markets/shares/boards/tqbr/securities.xml", BOARD_MARKET_DATA
+        ));
+        moex = new Moex.Builder()
+                .baseUrl(server.baseUrl())
+                .build();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        moex.close();
+        server.close();
+    }
+
+    private <T> T parse(String resource, Function<InputStream, T> parser) throws Exception {
+        try (var inputStream = getClass().getResourceAsStream(resource)) {
+            return parser.apply(inputStream);
+        }
+    }
+
+    @Test
+    public void testRequests() throws Exception {
+        var engines = parse(ENGINES, new MoexParser()::getEngines);
+        var markets = parse(MARKETS, inputStream -> new MoexParser().getMarkets(inputStream, ENGINE));
+        var security = parse(SECURITY, new SecurityParser()::parseSecurity);
+        var marketData = parse(MARKET_DATA, new MarketDataParser()::parseMarketData);
+        assertFalse(engines.isEmpty());
+        assertTrue(security.isPresent());
+        assertTrue(marketData.isPresent());
+
+        assertEquals(engines, moex.getEngines());
+        assertEquals(markets, moex.getMarkets(ENGINE));
+        assertEquals(security, moex.getSecurity("SBER"));
+        assertEquals(marketData, moex.getMarketData("SBER", "STOCK", "SHARES", "TQBR"));
+
+        assertEquals(engines, moex.getEnginesAsync().get());
+        assertEquals(markets, moex.getMarketsAsync(ENGINE).get());
+        assertEquals(security, moex.getSecurityAsync("SBER").get());
+        assertEquals(marketData, moex.getMarketDataAsync("SBER", "STOCK", "SHARES", "TQBR").get());
+    }
+
+    @Test
+    public void testBoardMarketData() throws Exception {
+        var expected = parse(BOARD_MARKET_DATA, new MarketDataParser()::parseBoardMarketData);
+        assertEquals(2, expected.size());
+
+        var securityIds = new ArrayList<>(List.of("GAZP", "LKOH", "SBER"));
+        for (var i = securityIds.size(); i < Moex.MAX_BOARD_SECURITIES + 50; i++) {
+            securityIds.add("SEC" + i);
+        }
+
+        assertEquals(expected, moex.getBoardMarketData(securityIds, "STOCK", "SHARES", "TQBR"));
+        assertEquals(2, server.getRequests());
+        assertEquals(expected, moex.getBoardMarketDataAsync(securityIds, "STOCK", "SHARES", "TQBR").get());
+        assertEquals(4, server.getRequests());
+    }
+
+    @Test
+    public void testRequestFailed() {
+        assertThrows(RuntimeException.class, () -> moex.getSecurity("UNKNOWN"));
+        var exception = assertThrows(ExecutionException.class, () -> moex.getSecurityAsync("UNKNOWN").get());
+        assertTrue(exception.getCause() instanceof RuntimeException);
+        assertThrows(RuntimeException.class,
+                () -> moex.getBoardMarketData(List.of("SBER"), "STOCK", "BONDS", "TQOB"));
+        assertThrows(ExecutionException.class,
+                () -> moex.getBoardMarketDataAsync(List.of("SBER"), "STOCK", "BONDS", "TQOB").get());
+    }
+
+    @Test
+    public void testSequentialRequestsReuseConnection() {
+        for (var i = 0; i < REQUEST_COUNT; i++) {
+            assertTrue(moex.getSecurity("SBER").isPresent());
+        }
+        assertEquals(REQUEST_COUNT, server.getRequests());
+        assertEquals(1, server.getConnections());
+    }
+
+    @Test
+    public void testConcurrentRequestsReuseConnections() throws Exception {
+        var securities = new ArrayList<CompletableFuture<Boolean>>();
+        for (var i = 0; i < REQUEST_COUNT; i++) {
+            securities.add(moex.getSecurityAsync("SBER").thenApply(s -> s.isPresent()));
+        }
+        for (var future : securities) {
+            assertTrue(future.get());
+        }
+        var concurrentConnections = server.getConnections();
+
+        // Connections opened by concurrent requests are returned to the pool and serve subsequent requests
+        for (var i = 0; i < REQUEST_COUNT; i++) {
+            assertTrue(moex.getSecurityAsync("SBER").get().isPresent());
+        }
+        assertEquals(2 * REQUEST_COUNT, server.getRequests());
+        assertEquals(concurrentConnections, server.getConnections());
+    }
+}
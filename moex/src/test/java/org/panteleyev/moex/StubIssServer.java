@@ -0,0 +1,133 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.moex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Minimal HTTP/1.1 server with persistent connections that serves test resources instead of ISS responses.
+ */
+final class StubIssServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final Map<String, String> resources;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Creates and starts server.
+     *
+     * @param resources map of request paths without query to resource names
+     */
+    StubIssServer(Map<String, String> resources) throws IOException {
+        this.resources = resources;
+        serverSocket = new ServerSocket(0, 100, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().start(this::accept);
+    }
+
+    String baseUrl() {
+        return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort() + "/iss";
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    int getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException _) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new BufferedInputStream(socket.getInputStream());
+             var out = new BufferedOutputStream(socket.getOutputStream()))
+        {
+            String requestLine;
+            while ((requestLine = readLine(in)) != null) {
+                if (requestLine.isEmpty()) {
+                    continue;
+                }
+                // Requests are GET only, headers are skipped
+                String header;
+                do {
+                    header = readLine(in);
+                } while (header != null && !header.isEmpty());
+                requests.incrementAndGet();
+
+                var path = requestLine.split(" ")[1];
+                var queryIndex = path.indexOf('?');
+                if (queryIndex >= 0) {
+                    path = path.substring(0, queryIndex);
+                }
+
+                var body = readResource(resources.get(path));
+                var status = body != null ? "200 OK" : "404 Not Found";
+                if (body == null) {
+                    body = new byte[0];
+                }
+                out.write(("HTTP/1.1 " + status + "\r\n"
+                        + "Content-Type: application/xml\r\n"
+                        + "Content-Length: " + body.length + "\r\n"
+                        + "\r\n").getBytes(US_ASCII));
+                out.write(body);
+                out.flush();
+            }
+        } catch (IOException _) {
+            // Connection closed by client
+        }
+    }
+
+    private byte[] readResource(String resource) {
+        if (resource == null) {
+            return null;
+        }
+        try (var inputStream = getClass().getResourceAsStream(resource)) {
+            return inputStream.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                return line.size() == 0 ? null : line.toString(US_ASCII);
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(US_ASCII);
+    }
+}
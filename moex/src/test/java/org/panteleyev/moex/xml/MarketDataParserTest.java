@@ -2,15 +2,21 @@
 // SPDX-License-Identifier: BSD-2-Clause
 package org.panteleyev.moex.xml;
 
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.panteleyev.moex.model.MoexMarketData;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class MarketDataParserTest {
     private final MarketDataParser parser = new MarketDataParser();
@@ -42,4 +48,54 @@ public class MarketDataParserTest {
             assertEquals(expected, parser.parseMarketData(inputStream).orElseThrow());
         }
     }
+
+    @Test
+    public void testParseBoardMarketData() throws Exception {
+        var expected = List.of(
+                new MoexMarketData(
+                        "GAZP",
+                        "TQBR",
+                        new BigDecimal("131.6"),
+                        new BigDecimal("130.9"),
+                        new BigDecimal("132.2"),
+                        new BigDecimal("131.1"),
+                        new BigDecimal("131.43"),
+                        null,
+                        new BigDecimal("131.43"),
+                        null,
+                        null
+                ),
+                new MoexMarketData(
+                        "SBER",
+                        "TQBR",
+                        new BigDecimal("281.05"),
+                        new BigDecimal("280.42"),
+                        new BigDecimal("282.41"),
+                        new BigDecimal("281.54"),
+                        new BigDecimal("279.72"),
+                        null,
+                        new BigDecimal("280.23"),
+                        null,
+                        null
+                )
+        );
+
+        try (var inputStream = getClass().getResourceAsStream("/MarketDataParserTest/board.xml")) {
+            var result = parser.parseBoardMarketData(inputStream);
+            // LKOH has no market data row
+            assertEquals(List.of("GAZP", "SBER"), List.copyOf(result.keySet()));
+            assertEquals(expected, List.copyOf(result.values()));
+        }
+    }
+
+    @Test
+    public void testParseBrokenResponse() {
+        var response = "<document><data id=\"marketdata\"><rows><row SECID=\"SBER\"";
+        assertThrows(RuntimeException.class, () -> parser.parseBoardMarketData(toInputStream(response)));
+        assertTrue(parser.parseMarketData(toInputStream(response)).isEmpty());
+    }
+
+    private static InputStream toInputStream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
 }
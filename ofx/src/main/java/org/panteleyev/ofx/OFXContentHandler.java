@@ -0,0 +1,286 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.ofx;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds OFX statement from a sequence of elements. Handler keeps only the path to the current element and the
+ * statement being built, so it can be fed by a streaming reader of any OFX syntax.
+ */
+final class OFXContentHandler {
+    private static final DateTimeFormatter OFX_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final int DATE_LENGTH = 8;
+
+    private final Consumer<StatementTransaction> transactionConsumer;
+    private final Deque<String> path = new ArrayDeque<>();
+
+    private Header header;
+    private final List<AccountStatementList> accountStatements = new ArrayList<>();
+    private final List<CreditCardStatementList> creditCardStatements = new ArrayList<>();
+
+    // Statement response
+    private List<AccountStatement> accountStatementList;
+    private List<CreditCardStatement> creditCardStatementList;
+    private String currency;
+    private AccountInfo accountInfo;
+    private BankTransactionList bankTransactionList;
+    private PendingTransactionList pendingTransactionList;
+
+    // Account
+    private AccountInfo.Type accountType;
+    private String bankId;
+    private String accountId;
+
+    // Transaction lists
+    private String dateStart;
+    private String dateEnd;
+    private String dateAsOf;
+    private List<StatementTransaction> transactions;
+    private List<PendingTransaction> pendingTransactions;
+    private StatementTransaction.Builder transaction;
+    private PendingTransaction.Builder pendingTransaction;
+
+    /**
+     * Creates handler.
+     *
+     * @param transactionConsumer consumer of bank transactions, if null transactions are collected into statement
+     */
+    OFXContentHandler(Consumer<StatementTransaction> transactionConsumer) {
+        this.transactionConsumer = transactionConsumer;
+    }
+
+    void header(Map<String, String> attributes) {
+        header = new Header(attributes.get("OFXHEADER"), attributes.get("VERSION"), attributes.get("SECURITY"),
+                attributes.get("OLDFILEUID"), attributes.get("OLDFILEUID"));
+    }
+
+    boolean hasHeader() {
+        return header != null;
+    }
+
+    void startElement(String name) {
+        var parent = path.peek();
+        path.push(name);
+
+        switch (name) {
+            case "STMTTRNRS" -> {
+                if (isIn("BANKMSGSRSV1")) {
+                    accountStatementList = new ArrayList<>();
+                }
+            }
+            case "CCSTMTTRNRS" -> {
+                if (isIn("CREDITCARDMSGSRSV1")) {
+                    creditCardStatementList = new ArrayList<>();
+                }
+            }
+            case "STMTRS", "CCSTMTRS" -> {
+                currency = "";
+                accountInfo = null;
+                bankTransactionList = null;
+                pendingTransactionList = null;
+            }
+            case "BANKACCTFROM", "CCACCTFROM" -> {
+                accountType = AccountInfo.Type.NONE;
+                bankId = null;
+                accountId = null;
+            }
+            case "BANKTRANLIST" -> {
+                dateStart = null;
+                dateEnd = null;
+                transactions = new ArrayList<>();
+            }
+            case "BANKTRANLISTP" -> {
+                dateAsOf = null;
+                pendingTransactions = new ArrayList<>();
+            }
+            case "STMTTRN" -> {
+                if ("BANKTRANLIST".equals(parent)) {
+                    transaction = new StatementTransaction.Builder();
+                }
+            }
+            case "STMTTRNP" -> {
+                if ("BANKTRANLISTP".equals(parent)) {
+                    pendingTransaction = new PendingTransaction.Builder();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Ends current element.
+     *
+     * @param text text content of a leaf element, ignored for aggregates
+     */
+    void endElement(String text) {
+        var name = path.pop();
+        var parent = path.peek();
+        if (parent == null) {
+            return;
+        }
+
+        switch (parent) {
+            case "STMTRS" -> {
+                switch (name) {
+                    case "CURDEF" -> currency = text;
+                    case "BANKACCTFROM" -> accountInfo = new AccountInfo(accountType, bankId, accountId);
+                    case "BANKTRANLIST" -> bankTransactionList = newBankTransactionList();
+                    default -> {
+                    }
+                }
+            }
+            case "CCSTMTRS" -> {
+                switch (name) {
+                    case "CURDEF" -> currency = text;
+                    case "CCACCTFROM" -> accountInfo = new AccountInfo(accountType, bankId, accountId);
+                    case "BANKTRANLIST" -> bankTransactionList = newBankTransactionList();
+                    case "BANKTRANLISTP" -> pendingTransactionList = new PendingTransactionList(
+                            parseDate(dateAsOf), List.copyOf(pendingTransactions));
+                    default -> {
+                    }
+                }
+            }
+            case "BANKACCTFROM", "CCACCTFROM" -> {
+                switch (name) {
+                    case "ACCTID" -> accountId = text;
+                    case "BANKID" -> bankId = text;
+                    case "ACCTTYPE" -> accountType = AccountInfo.Type.valueOf(text);
+                    default -> {
+                    }
+                }
+            }
+            case "BANKTRANLIST" -> {
+                switch (name) {
+                    case "DTSTART" -> dateStart = text;
+                    case "DTEND" -> dateEnd = text;
+                    case "STMTTRN" -> {
+                        var built = transaction.build();
+                        transaction = null;
+                        if (transactionConsumer != null) {
+                            transactionConsumer.accept(built);
+                        } else {
+                            transactions.add(built);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            case "BANKTRANLISTP" -> {
+                switch (name) {
+                    case "DTASOF" -> dateAsOf = text;
+                    case "STMTTRNP" -> {
+                        pendingTransactions.add(pendingTransaction.build());
+                        pendingTransaction = null;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            case "STMTTRN" -> {
+                if (transaction != null) {
+                    switch (name) {
+                        case "TRNTYPE" -> transaction.type(text);
+                        case "NAME" -> transaction.name(text);
+                        case "MEMO" -> transaction.memo(text);
+                        case "DTPOSTED" -> transaction.datePosted(parseDate(text));
+                        case "DTAVAIL" -> transaction.dateAvailable(parseDate(text));
+                        case "DTUSER" -> transaction.dateUser(parseDate(text));
+                        case "TRNAMT" -> transaction.amount(text);
+                        case "CHECKNUM" -> transaction.checkNum(text);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            case "STMTTRNP" -> {
+                if (pendingTransaction != null) {
+                    switch (name) {
+                        case "TRNTYPE" -> pendingTransaction.type(text);
+                        case "NAME" -> pendingTransaction.name(text);
+                        case "MEMO" -> pendingTransaction.memo(text);
+                        case "DTTRAN" -> pendingTransaction.dateTransaction(parseDate(text));
+                        case "DTEXPIRE" -> pendingTransaction.dateExpire(parseDate(text));
+                        case "TRNAMT" -> pendingTransaction.amount(text);
+                        default -> {
+                        }
+                    }
+                }
+            }
+            case "STMTTRNRS" -> {
+                if ("STMTRS".equals(name) && accountStatementList != null) {
+                    accountStatementList.add(new AccountStatement(currency, accountInfo,
+                            bankTransactionList == null ? new BankTransactionList() : bankTransactionList));
+                }
+            }
+            case "CCSTMTTRNRS" -> {
+                if ("CCSTMTRS".equals(name) && creditCardStatementList != null) {
+                    creditCardStatementList.add(new CreditCardStatement(currency, accountInfo,
+                            bankTransactionList == null ? new BankTransactionList() : bankTransactionList,
+                            pendingTransactionList == null ? new PendingTransactionList() : pendingTransactionList));
+                }
+            }
+            case "BANKMSGSRSV1" -> {
+                if ("STMTTRNRS".equals(name) && accountStatementList != null) {
+                    accountStatements.add(new AccountStatementList(accountStatementList));
+                    accountStatementList = null;
+                }
+            }
+            case "CREDITCARDMSGSRSV1" -> {
+                if ("CCSTMTTRNRS".equals(name) && creditCardStatementList != null) {
+                    creditCardStatements.add(new CreditCardStatementList(creditCardStatementList));
+                    creditCardStatementList = null;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    OFXStatement getStatement() {
+        if (header == null) {
+            throw new OFXParserException("No header");
+        }
+        return new OFXStatement(header, accountStatements, creditCardStatements);
+    }
+
+    private BankTransactionList newBankTransactionList() {
+        return new BankTransactionList(parseDate(dateStart), parseDate(dateEnd), List.copyOf(transactions));
+    }
+
+    private boolean isIn(String aggregate) {
+        return path.contains(aggregate);
+    }
+
+    /**
+     * Parses OFX date. Fractional seconds and time zone are ignored, date without time means start of the day.
+     *
+     * @param text date in format YYYYMMDDHHMMSS.XXX[gmt offset:tz name]
+     * @return date and time
+     */
+    static LocalDateTime parseDate(String text) {
+        if (text == null) {
+            throw new OFXParserException("No date");
+        }
+        var end = 0;
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        var digits = end == DATE_LENGTH ? text.substring(0, end) + "000000" : text.substring(0, end);
+        try {
+            return LocalDateTime.parse(digits, OFX_DATE_FORMAT);
+        } catch (DateTimeParseException ex) {
+            throw new OFXParserException("Invalid date: " + text);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.ofx;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tokenizer of OFX 1.x SGML. Reads colon separated header and then streams tags to {@link OFXContentHandler}.
+ * Leaf elements in SGML usually have no end tag: element followed by text is a leaf and is closed by the next tag.
+ * Without DTD an element directly followed by the next tag is either an aggregate or an empty leaf, known aggregates
+ * of statement responses are opened, other elements are closed as empty leaves. Aggregates are closed by their end
+ * tags, elements left open inside an aggregate are closed with it.
+ * <p>
+ * Only the path to the current element is kept, so files of any size are parsed in one pass.
+ */
+final class OFXSgmlTokenizer {
+    static final String HEADER_START = "OFXHEADER:";
+
+    private static final int MAX_HEADER_LINE = 1024;
+
+    private static final Set<String> AGGREGATES = Set.of(
+            "OFX",
+            "SIGNONMSGSRSV1", "SONRS", "STATUS", "FI",
+            "BANKMSGSRSV1", "STMTTRNRS", "STMTRS",
+            "CREDITCARDMSGSRSV1", "CCSTMTTRNRS", "CCSTMTRS",
+            "BANKACCTFROM", "BANKACCTTO", "CCACCTFROM", "CCACCTTO",
+            "BANKTRANLIST", "STMTTRN", "PAYEE", "CURRENCY", "ORIGCURRENCY",
+            "BANKTRANLISTP", "STMTTRNP",
+            "LEDGERBAL", "AVAILBAL", "BALLIST", "BAL"
+    );
+
+    private final OFXContentHandler handler;
+    private final Deque<String> openElements = new ArrayDeque<>();
+    private final StringBuilder text = new StringBuilder();
+
+    // Last element was started and its text has not been handled yet
+    private boolean elementStarted;
+    // Current element is a leaf with text and without end tag so far
+    private String leafText;
+
+    OFXSgmlTokenizer(OFXContentHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Parses SGML statement.
+     *
+     * @param in input stream that supports mark
+     */
+    void parse(BufferedInputStream in) {
+        try {
+            var header = readHeader(in);
+            handler.header(header);
+            tokenize(new InputStreamReader(in, getCharset(header)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Map<String, String> readHeader(BufferedInputStream in) throws IOException {
+        var header = new HashMap<String, String>();
+        while (true) {
+            in.mark(MAX_HEADER_LINE);
+            var line = readLine(in);
+            if (line == null) {
+                break;
+            }
+            line = line.strip();
+            if (line.startsWith("<")) {
+                in.reset();
+                break;
+            }
+            if (line.isEmpty()) {
+                if (header.isEmpty()) {
+                    continue;
+                }
+                break;
+            }
+            var index = line.indexOf(':');
+            if (index == -1) {
+                throw new OFXParserException("Invalid OFX header: " + line);
+            }
+            header.put(line.substring(0, index).strip(), line.substring(index + 1).strip());
+        }
+        return header;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.write(b);
+            if (line.size() >= MAX_HEADER_LINE) {
+                throw new OFXParserException("OFX header line is too long");
+            }
+        }
+        return b == -1 && line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+    }
+
+    static Charset getCharset(Map<String, String> header) {
+        var encoding = header.getOrDefault("ENCODING", "USASCII");
+        if (encoding.equalsIgnoreCase("UTF-8") || encoding.equalsIgnoreCase("UNICODE")) {
+            return StandardCharsets.UTF_8;
+        }
+        var charset = header.getOrDefault("CHARSET", "NONE");
+        return switch (charset.toUpperCase(Locale.ROOT)) {
+            case "ISO-8859-1", "8859-1" -> StandardCharsets.ISO_8859_1;
+            case "NONE", "1252" -> Charset.forName("windows-1252");
+            default -> {
+                try {
+                    yield Charset.forName("windows-" + charset);
+                } catch (IllegalArgumentException ex) {
+                    yield Charset.forName("windows-1252");
+                }
+            }
+        };
+    }
+
+    private void tokenize(Reader reader) throws IOException {
+        var buffer = new char[8192];
+        var tag = new StringBuilder();
+        var inTag = false;
+
+        int count;
+        while ((count = reader.read(buffer)) != -1) {
+            for (var i = 0; i < count; i++) {
+                var c = buffer[i];
+                if (inTag) {
+                    if (c == '>') {
+                        inTag = false;
+                        onTag(tag.toString().strip());
+                        tag.setLength(0);
+                    } else {
+                        tag.append(c);
+                    }
+                } else if (c == '<') {
+                    inTag = true;
+                    onText();
+                } else {
+                    text.append(c);
+                }
+            }
+        }
+
+        onText();
+        closeLeaf();
+        while (!openElements.isEmpty()) {
+            openElements.pop();
+            handler.endElement("");
+        }
+    }
+
+    private void onText() {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (elementStarted) {
+            var value = text.toString().strip();
+            if (!value.isEmpty()) {
+                leafText = decodeEntities(value);
+                elementStarted = false;
+            }
+        }
+        text.setLength(0);
+    }
+
+    private void onTag(String tag) {
+        if (tag.isEmpty() || tag.startsWith("!") || tag.startsWith("?")) {
+            return;
+        }
+
+        if (tag.startsWith("/")) {
+            var name = tag.substring(1).strip();
+            elementStarted = false;
+            if (leafText != null && name.equals(openElements.peek())) {
+                // Leaf with explicit end tag
+                closeLeaf();
+                return;
+            }
+            closeLeaf();
+            if (!openElements.contains(name)) {
+                // End tag without start tag
+                return;
+            }
+            String closed;
+            do {
+                closed = openElements.pop();
+                handler.endElement("");
+            } while (!closed.equals(name));
+        } else {
+            closeLeaf();
+            closeEmptyLeaf();
+            openElements.push(tag);
+            handler.startElement(tag);
+            elementStarted = true;
+        }
+    }
+
+    private void closeEmptyLeaf() {
+        if (elementStarted && !AGGREGATES.contains(openElements.peek())) {
+            openElements.pop();
+            handler.endElement("");
+        }
+        elementStarted = false;
+    }
+
+    private void closeLeaf() {
+        if (leafText != null) {
+            openElements.pop();
+            handler.endElement(leafText);
+            leafText = null;
+        }
+    }
+
+    private static String decodeEntities(String value) {
+        if (value.indexOf('&') == -1) {
+            return value;
+        }
+        return value.replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&nbsp;", " ")
+                .replace("&amp;", "&");
+    }
+}
@@ -1,14 +1,17 @@
 /*
- Copyright &copy; 2020-2022 Petr Panteleyev <petr@panteleyev.org>
+ Copyright &copy; 2020-2026 Petr Panteleyev <petr@panteleyev.org>
  SPDX-License-Identifier: BSD-2-Clause
  */
 package org.panteleyev.ofx;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -235,4 +238,50 @@ public class TestCreditCardStatement {
             }
         }
     }
+
+    @Test
+    public void testCreditCardStatementStreaming() throws Exception {
+        try (var in = new FileInputStream(FILE_NAME)) {
+            var transactions = new ArrayList<StatementTransaction>();
+            var st = new OFXParser().parse(in, transactions::add);
+
+            assertEquals(EXPECTED_TRANSACTIONS, transactions);
+
+            var statement = st.getCreditCardStatements().getFirst().getCreditCardStatementList().getFirst();
+            assertEquals(ACCOUNT_NUMBER, statement.creditCardAccountFrom().accountNumber());
+            assertTrue(statement.bankTransactionList().isEmpty());
+            assertEquals(EXPECTED_PENDING_TRANSACTIONS, statement.pendingTransactionList().transactions());
+        }
+    }
+
+    @Test
+    public void testLargeCreditCardStatement() throws Exception {
+        final var count = 100_000;
+
+        var xml = new StringBuilder(count * 300);
+        xml.append("""
+                <?xml version="1.0" encoding="UTF-8"?><?OFX OFXHEADER="200" VERSION="200" SECURITY="NONE"?>
+                <OFX><CREDITCARDMSGSRSV1><CCSTMTTRNRS><CCSTMTRS>
+                <CURDEF>EUR</CURDEF><CCACCTFROM><ACCTID>12345678901234567890</ACCTID></CCACCTFROM>
+                <BANKTRANLIST><DTSTART>20181206120000</DTSTART><DTEND>20181208120000</DTEND>
+                """);
+        for (var i = 0; i < count; i++) {
+            xml.append("<STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20181206120000</DTPOSTED>")
+                    .append("<DTAVAIL>20181208120000</DTAVAIL><TRNAMT>-").append(i).append(".00</TRNAMT>")
+                    .append("<CHECKNUM>").append(i).append("</CHECKNUM>")
+                    .append("<NAME>STORE</NAME><MEMO>STORE MEMO</MEMO></STMTTRN>\n");
+        }
+        xml.append("</BANKTRANLIST></CCSTMTRS></CCSTMTTRNRS></CREDITCARDMSGSRSV1></OFX>");
+
+        var counter = new long[2];
+        try (var in = new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8))) {
+            new OFXParser().parse(in, transaction -> {
+                assertEquals(Long.toString(counter[0]), transaction.checkNum());
+                counter[0]++;
+                counter[1] += transaction.amount().longValue();
+            });
+        }
+        assertEquals(count, counter[0]);
+        assertEquals(-(long) count * (count - 1) / 2, counter[1]);
+    }
 }
@@ -0,0 +1,113 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.ofx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSgmlStatement {
+    private static final String FILE_NAME = "src/test/resources/org/panteleyev/ofx/credit.ofx";
+    private static final String SGML_FILE_NAME = "src/test/resources/org/panteleyev/ofx/credit_sgml.ofx";
+
+    private static final String BANK_STATEMENT = """
+            OFXHEADER:100
+            DATA:OFXSGML
+            VERSION:160
+            SECURITY:NONE
+            ENCODING:USASCII
+            CHARSET:1251
+            COMPRESSION:NONE
+            OLDFILEUID:NONE
+            NEWFILEUID:NONE
+
+            <OFX><BANKMSGSRSV1><STMTTRNRS><TRNUID>1<STMTRS><CURDEF>RUB
+            <BANKACCTFROM><BANKID>044525700<ACCTID>40817810</ACCTID><ACCTTYPE>CHECKING</BANKACCTFROM>
+            <BANKTRANLIST><DTSTART>20240101<DTEND>20240131235959
+            <STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20240105<DTAVAIL>20240106<TRNAMT>-100.50<FITID>1
+            <NAME>Магазин<MEMO>Tom &amp; Jerry &lt;shop&gt;</STMTTRN>
+            <STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240110103000.000[+3:MSK]<TRNAMT>200<MEMO></MEMO><NAME>Salary
+            </STMTTRN>
+            </BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>
+            """;
+
+    @Test
+    public void testSameAsXml() throws Exception {
+        OFXStatement expected;
+        try (var in = new FileInputStream(FILE_NAME)) {
+            expected = new OFXParser().parse(in);
+        }
+
+        try (var in = new FileInputStream(SGML_FILE_NAME)) {
+            var statement = new OFXParser().parse(in);
+            assertEquals("102", statement.getHeader().version());
+            assertTrue(statement.getAccountStatements().isEmpty());
+            assertEquals(expected.getCreditCardStatements().getFirst().getCreditCardStatementList(),
+                    statement.getCreditCardStatements().getFirst().getCreditCardStatementList());
+        }
+    }
+
+    @Test
+    public void testBankStatement() {
+        var bytes = BANK_STATEMENT.getBytes(Charset.forName("windows-1251"));
+
+        var transactions = new ArrayList<StatementTransaction>();
+        var statement = new OFXParser().parse(new ByteArrayInputStream(bytes), transactions::add);
+
+        var accountStatement = statement.getAccountStatements().getFirst().accountStatementList().getFirst();
+        assertEquals("RUB", accountStatement.currency());
+        assertEquals(new AccountInfo(AccountInfo.Type.CHECKING, "044525700", "40817810"),
+                accountStatement.bankAccountFrom());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), accountStatement.bankTransactionList().dateStart());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 59), accountStatement.bankTransactionList().dateEnd());
+
+        assertEquals(List.of(
+                new StatementTransaction(
+                        TransactionEnum.DEBIT,
+                        LocalDateTime.of(2024, 1, 5, 0, 0),
+                        null,
+                        LocalDateTime.of(2024, 1, 6, 0, 0),
+                        new BigDecimal("-100.50"),
+                        "Магазин",
+                        "Tom & Jerry <shop>",
+                        null
+                ),
+                new StatementTransaction(
+                        TransactionEnum.CREDIT,
+                        LocalDateTime.of(2024, 1, 10, 10, 30),
+                        null,
+                        null,
+                        new BigDecimal("200"),
+                        "Salary",
+                        "",
+                        null
+                )
+        ), transactions);
+    }
+
+    @Test
+    public void testEmptyLeaves() {
+        var bytes = BANK_STATEMENT.replace(
+                "<NAME>Магазин<MEMO>Tom &amp; Jerry &lt;shop&gt;</STMTTRN>",
+                "<NAME><MEMO>\n<TRNAMT>-42</STMTTRN>"
+        ).getBytes(Charset.forName("windows-1251"));
+
+        var transactions = new ArrayList<StatementTransaction>();
+        new OFXParser().parse(new ByteArrayInputStream(bytes), transactions::add);
+
+        assertEquals(2, transactions.size());
+        var transaction = transactions.getFirst();
+        assertEquals("", transaction.name());
+        assertEquals("", transaction.memo());
+        assertEquals(new BigDecimal("-42"), transaction.amount());
+    }
+}